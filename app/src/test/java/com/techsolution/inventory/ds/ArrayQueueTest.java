@@ -0,0 +1,90 @@
+package com.techsolution.inventory.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks ArrayQueue against an ArrayDeque under long random sequences of single and bulk
+ * operations, starting from a small capacity so the ring wraps and grows often.
+ */
+class ArrayQueueTest {
+    // Operations per random run
+    private static final int OPERATIONS = 20_000;
+
+    @Test
+    void queueMatchesModel() {
+        for (long seed = 1; seed <= 3; seed++) {
+            runAgainstModel(seed);
+        }
+    }
+
+    @Test
+    void bulkOperationsKeepFifoOrder() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>(4);
+        queue.enqueue(0);
+        queue.enqueue(1);
+        queue.dequeue();
+        queue.enqueueAll(List.of(2, 3, 4, 5, 6)); // Wrapped, then grown once
+        assertEquals(6, queue.size());
+
+        assertEquals(3, queue.removeMatching(i -> i % 2 == 0));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(List.of(1, 3), drained);
+        assertEquals(1, queue.drainTo(drained, 10));
+        assertEquals(List.of(1, 3, 5), drained);
+        assertNull(queue.peek());
+    }
+
+    private static void runAgainstModel(long seed) {
+        Random random = new Random(seed);
+        ArrayQueue<Integer> queue = new ArrayQueue<>(1);
+        ArrayDeque<Integer> model = new ArrayDeque<>();
+        int next = 0;
+        for (int op = 0; op < OPERATIONS; op++) {
+            int choice = random.nextInt(100);
+            if (choice < 35) {
+                queue.enqueue(next);
+                model.addLast(next++);
+            } else if (choice < 45) {
+                List<Integer> batch = new ArrayList<>();
+                for (int n = random.nextInt(8); n > 0; n--) {
+                    batch.add(next++);
+                }
+                queue.enqueueAll(batch);
+                model.addAll(batch);
+            } else if (choice < 75) {
+                assertEquals(model.pollFirst(), queue.dequeue(), "dequeue at op " + op);
+            } else if (choice < 85) {
+                int max = random.nextInt(6);
+                List<Integer> drained = new ArrayList<>();
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < max && !model.isEmpty(); i++) {
+                    expected.add(model.pollFirst());
+                }
+                assertEquals(expected.size(), queue.drainTo(drained, max));
+                assertEquals(expected, drained, "drainTo at op " + op);
+            } else {
+                int modulus = 2 + random.nextInt(4);
+                int removed = model.size();
+                model.removeIf(i -> i % modulus == 0);
+                removed -= model.size();
+                assertEquals(removed, queue.removeMatching(i -> i % modulus == 0), "removeMatching at op " + op);
+            }
+            assertEquals(model.size(), queue.size());
+            assertEquals(model.peekFirst(), queue.peek());
+            if (op % 100 == 0) {
+                List<Integer> contents = new ArrayList<>();
+                queue.forEach(contents::add);
+                assertEquals(new ArrayList<>(model), contents, "contents at op " + op);
+            }
+        }
+    }
+}
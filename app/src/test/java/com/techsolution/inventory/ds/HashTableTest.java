@@ -0,0 +1,53 @@
+package com.techsolution.inventory.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a HashTable's resize listener hears about every incremental resize, start and
+ * finish in pairs, and that the table loses nothing while resizing.
+ */
+class HashTableTest {
+    @Test
+    void listenerIsToldAboutEveryResize() {
+        HashTable<Integer, Integer> table = new HashTable<>(4);
+        List<String> calls = new ArrayList<>();
+        table.setResizeListener(new HashTable.ResizeListener() {
+            @Override
+            public void resizeStarted(int oldCapacity, int newCapacity, int entries) {
+                calls.add("start " + oldCapacity + "->" + newCapacity + " at " + entries);
+            }
+
+            @Override
+            public void resizeFinished(int steps) {
+                calls.add("finish");
+            }
+        });
+        for (int i = 0; i < 1_000; i++) {
+            table.put(i, i);
+        }
+        while (table.isResizing()) {
+            table.get(0); // Lookups migrate the rest
+        }
+
+        assertEquals("start 4->8 at 4", calls.get(0));
+        assertEquals(2 * Integer.numberOfTrailingZeros(table.capacity() / 4), calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            assertEquals(i % 2 == 1, calls.get(i).equals("finish"), calls.toString());
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, table.get(i));
+        }
+
+        int heard = calls.size();
+        table.setResizeListener(null);
+        for (int i = 1_000; i < 5_000; i++) {
+            table.put(i, i);
+        }
+        assertEquals(heard, calls.size(), "a removed listener was called");
+    }
+}
@@ -0,0 +1,101 @@
+package com.techsolution.inventory.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks IndexedHeap against a plain map of key to priority under long random sequences of
+ * inserts, priority changes and removals, for both heap orders.
+ */
+class IndexedHeapTest {
+    // Operations per random run
+    private static final int OPERATIONS = 20_000;
+    // Keys are drawn from 0..KEYS-1, so keys are often already present
+    private static final int KEYS = 300;
+
+    @Test
+    void minHeapMatchesModel() {
+        runAgainstModel(false, 1);
+        runAgainstModel(false, 2);
+    }
+
+    @Test
+    void maxHeapMatchesModel() {
+        runAgainstModel(true, 3);
+        runAgainstModel(true, 4);
+    }
+
+    @Test
+    void tiesAreBrokenBySmallerKey() {
+        IndexedHeap heap = new IndexedHeap(true);
+        heap.set(7, 5);
+        heap.set(3, 5);
+        heap.set(9, 5);
+        heap.set(1, 2);
+        assertArrayEquals(new int[] {3, 7, 9, 1}, heap.top(10));
+        assertEquals(3, heap.peek());
+    }
+
+    @Test
+    void priorityOfAbsentKeyIsRejected() {
+        IndexedHeap heap = new IndexedHeap(false);
+        heap.set(4, 1);
+        heap.remove(4);
+        assertThrows(IllegalArgumentException.class, () -> heap.priority(4));
+        assertEquals(-1, heap.peek());
+    }
+
+    private static void runAgainstModel(boolean maxFirst, long seed) {
+        Random random = new Random(seed);
+        IndexedHeap heap = new IndexedHeap(maxFirst);
+        Map<Integer, Long> model = new HashMap<>();
+        Comparator<Map.Entry<Integer, Long>> best = maxFirst
+            ? Map.Entry.<Integer, Long>comparingByValue().reversed()
+            : Map.Entry.comparingByValue();
+        best = best.thenComparing(Map.Entry.comparingByKey());
+        for (int op = 0; op < OPERATIONS; op++) {
+            int key = random.nextInt(KEYS);
+            int choice = random.nextInt(1000);
+            if (choice < 300) {
+                assertEquals(model.remove(key) != null, heap.remove(key), "remove " + key);
+            } else if (choice < 301) {
+                heap.clear();
+                model.clear();
+            } else {
+                // Few distinct priorities, so ties are common
+                long priority = random.nextInt(20) - 5;
+                heap.set(key, priority);
+                model.put(key, priority);
+            }
+            assertEquals(model.size(), heap.size());
+            assertEquals(model.isEmpty(), heap.isEmpty());
+            assertEquals(model.containsKey(key), heap.contains(key));
+            if (model.containsKey(key)) {
+                assertEquals(model.get(key), heap.priority(key));
+            }
+            int k = random.nextInt(12);
+            int[] expected = model.entrySet().stream().sorted(best).limit(k)
+                .mapToInt(Map.Entry::getKey).toArray();
+            assertArrayEquals(expected, heap.top(k), "top " + k + " after op " + op);
+            if (!model.isEmpty()) {
+                Map.Entry<Integer, Long> first = model.entrySet().stream().min(best).orElseThrow();
+                assertEquals(first.getKey(), heap.peek());
+                assertEquals(first.getValue(), heap.peekPriority());
+                int[] ties = model.entrySet().stream().filter(e -> e.getValue().equals(first.getValue()))
+                    .mapToInt(Map.Entry::getKey).sorted().toArray();
+                int[] actualTies = heap.topTies();
+                Arrays.sort(actualTies);
+                assertArrayEquals(ties, actualTies);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.techsolution.inventory.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks SpaceSaving's documented guarantees against exact totals over random skewed and
+ * uniform streams: every key above N/m is monitored, and each reported count overestimates
+ * the true total by no more than its reported error, which is itself at most N/m.
+ */
+class SpaceSavingTest {
+    // Stream updates per random run
+    private static final int UPDATES = 50_000;
+
+    @Test
+    void skewedStreamsKeepTheGuarantees() {
+        for (long seed = 1; seed <= 4; seed++) {
+            runAgainstModel(seed, 20, 5_000, true);
+        }
+    }
+
+    @Test
+    void uniformStreamsKeepTheGuarantees() {
+        for (long seed = 5; seed <= 8; seed++) {
+            runAgainstModel(seed, 50, 2_000, false);
+        }
+    }
+
+    @Test
+    void countsAreExactWhileEveryKeyFits() {
+        SpaceSaving<String> counter = new SpaceSaving<>(10);
+        Random random = new Random(9);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "K" + random.nextInt(10);
+            long weight = 1 + random.nextInt(5);
+            counter.add(key, weight);
+            exact.merge(key, weight, Long::sum);
+        }
+        for (SpaceSaving.Counter<String> c : counter.top(10)) {
+            assertEquals(0, c.error());
+            assertEquals(exact.get(c.key()), c.count());
+        }
+        counter.clear();
+        assertEquals(0, counter.size());
+        assertTrue(counter.top(5).isEmpty());
+    }
+
+    @Test
+    void restoredCounterKeepsTheGuarantees() {
+        Random random = new Random(10);
+        SpaceSaving<Integer> counter = new SpaceSaving<>(20);
+        Map<Integer, Long> exact = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < 2 * UPDATES; i++) {
+            if (i == UPDATES) {
+                // Carry the counters over to a fresh counter, in reverse order, and go on
+                SpaceSaving<Integer> restored = new SpaceSaving<>(counter.capacity());
+                List<SpaceSaving.Counter<Integer>> saved = counter.top(counter.capacity());
+                for (int c = saved.size() - 1; c >= 0; c--) {
+                    restored.restore(saved.get(c).key(), saved.get(c).count(), saved.get(c).error());
+                }
+                assertEquals(new HashSet<>(saved), new HashSet<>(restored.top(restored.capacity())));
+                counter = restored;
+            }
+            double u = random.nextDouble();
+            int key = (int) (u * u * u * 5_000);
+            counter.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+            total++;
+        }
+        checkGuarantees(counter, exact, total);
+    }
+
+    private static void runAgainstModel(long seed, int capacity, int distinctKeys, boolean skewed) {
+        Random random = new Random(seed);
+        SpaceSaving<Integer> counter = new SpaceSaving<>(capacity);
+        Map<Integer, Long> exact = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < UPDATES; i++) {
+            // Cubing a uniform draw concentrates the stream on the low keys
+            double u = random.nextDouble();
+            int key = (int) ((skewed ? u * u * u : u) * distinctKeys);
+            long weight = 1 + random.nextInt(4);
+            counter.add(key, weight);
+            exact.merge(key, weight, Long::sum);
+            total += weight;
+            if (i % 5_000 == 4_999) {
+                checkGuarantees(counter, exact, total);
+            }
+        }
+    }
+
+    private static void checkGuarantees(SpaceSaving<Integer> counter, Map<Integer, Long> exact, long total) {
+        int m = counter.capacity();
+        List<SpaceSaving.Counter<Integer>> top = counter.top(m);
+        assertEquals(Math.min(m, exact.size()), counter.size());
+        assertEquals(counter.size(), top.size());
+        long bound = total / m;
+        long sum = 0;
+        Map<Integer, Long> reported = new HashMap<>();
+        for (int i = 0; i < top.size(); i++) {
+            SpaceSaving.Counter<Integer> c = top.get(i);
+            if (i > 0) {
+                assertTrue(top.get(i - 1).count() >= c.count(), "top is not ordered");
+            }
+            long truth = exact.get(c.key());
+            assertTrue(c.count() >= truth, "count below the true total for " + c.key());
+            assertTrue(c.count() - c.error() <= truth, "error understates the overcount for " + c.key());
+            assertTrue(c.error() <= bound, "error above N/m for " + c.key());
+            reported.put(c.key(), c.count());
+            sum += c.count();
+        }
+        // Every unit of the stream is counted exactly once by some counter
+        assertEquals(total, sum);
+        exact.forEach((key, truth) -> {
+            if (truth > bound) {
+                assertTrue(reported.containsKey(key), "heavy key " + key + " not monitored");
+            }
+        });
+    }
+}
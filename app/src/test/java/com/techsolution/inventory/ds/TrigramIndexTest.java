@@ -0,0 +1,67 @@
+package com.techsolution.inventory.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks TrigramIndex against a scan of every indexed text under long random sequences of
+ * adds and removals, so that posting sets growing, shrinking and emptying never lose an item.
+ */
+class TrigramIndexTest {
+    // Operations per random run
+    private static final int OPERATIONS = 20_000;
+    // Items are drawn from 0..ITEMS-1, so items are often already indexed
+    private static final int ITEMS = 400;
+    private static final String[] WORDS = {"Widget", "gadget", "bolt", "BOLT", "naïve", "Ärger", "nut", "gearbox"};
+
+    @Test
+    void searchMatchesScan() {
+        for (long seed = 1; seed <= 3; seed++) {
+            runAgainstModel(seed);
+        }
+    }
+
+    @Test
+    void shortQueriesAreRejected() {
+        TrigramIndex index = new TrigramIndex(item -> "abc");
+        index.add(0);
+        assertArrayEquals(new int[] {0}, index.search("ABC", 5));
+        assertThrows(IllegalArgumentException.class, () -> index.search("ab", 5));
+    }
+
+    private static void runAgainstModel(long seed) {
+        Random random = new Random(seed);
+        Map<Integer, String> texts = new HashMap<>();
+        TrigramIndex index = new TrigramIndex(texts::get);
+        for (int op = 0; op < OPERATIONS; op++) {
+            int item = random.nextInt(ITEMS);
+            if (texts.containsKey(item)) {
+                index.remove(item);
+                texts.remove(item);
+            } else {
+                texts.put(item, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+                index.add(item);
+            }
+            if (op % 50 == 0) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                String query = word.substring(random.nextInt(word.length() - 2)).toUpperCase(Locale.ROOT);
+                int[] expected = texts.entrySet().stream()
+                    .filter(e -> e.getValue().toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT)))
+                    .mapToInt(Map.Entry::getKey).sorted().toArray();
+                int[] actual = index.search(query, ITEMS);
+                Arrays.sort(actual);
+                assertArrayEquals(expected, actual, "search " + query + " after op " + op);
+                assertEquals(Math.min(3, expected.length), index.search(query, 3).length);
+            }
+        }
+    }
+}
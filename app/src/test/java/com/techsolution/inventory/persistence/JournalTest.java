@@ -0,0 +1,85 @@
+package com.techsolution.inventory.persistence;
+
+import com.techsolution.inventory.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that replay only truncates records that fail to decode: a record the visitor
+ * rejects is not corruption, so opening fails and the journal is left as it was.
+ */
+class JournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void visitorFailureFailsOpenWithoutTruncating() throws IOException {
+        Path file = dir.resolve("inventory.journal");
+        Journal journal = Journal.open(file, FsyncPolicy.EVERY_OP, 0, new Recorder());
+        journal.commit(journal.logAddProduct(new Product("P1", "Widget", "Tools", 2.5, 10, 1), 1_000));
+        journal.commit(journal.logUpdateStock("P1", 20, 2_000));
+        journal.commit(journal.logSale("P1", 3, 0, 3_000));
+        journal.close();
+        long size = Files.size(file);
+
+        Recorder failing = new Recorder() {
+            @Override
+            public void onUpdateStock(String id, int quantity, long timeMillis) {
+                throw new IllegalArgumentException("rejected by the service");
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> Journal.open(file, FsyncPolicy.EVERY_OP, 0, failing));
+        assertEquals(List.of("add P1"), failing.calls);
+        assertEquals(size, Files.size(file), "journal was shortened");
+
+        Recorder replayed = new Recorder();
+        Journal.open(file, FsyncPolicy.EVERY_OP, 0, replayed).close();
+        assertEquals(List.of("add P1", "stock P1 20", "sale P1 3"), replayed.calls);
+    }
+
+    /**
+     * Records the visitor calls it receives.
+     */
+    private static class Recorder implements JournalVisitor {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void onAddProduct(Product p, long timeMillis) {
+            calls.add("add " + p.getId());
+        }
+
+        @Override
+        public void onUpdateStock(String id, int quantity, long timeMillis) {
+            calls.add("stock " + id + " " + quantity);
+        }
+
+        @Override
+        public void onRemoveProduct(String id, long timeMillis) {
+            calls.add("remove " + id);
+        }
+
+        @Override
+        public void onSale(String id, int quantity, double discount, long timeMillis) {
+            calls.add("sale " + id + " " + quantity);
+        }
+
+        @Override
+        public void onProcessBackOrders(long timeMillis) {
+            calls.add("process");
+        }
+
+        @Override
+        public void onEndOfDay(long timeMillis) {
+            calls.add("end of day");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.model.OffHeapProductStore;
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.persistence.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the same random operations against a service over the heap HashTable and one over an
+ * OffHeapProductStore, and checks that every query answers alike: the off-heap service keys
+ * its indexes by store ordinal and compares names and IDs in the arena, so this covers those
+ * comparisons (including non-ASCII and mixed-case names), removal and re-adding of IDs,
+ * renames that outgrow their strings' arena span, and snapshot reloads with lazy loading.
+ * A product the store cannot hold must be rejected before the service changes anything.
+ */
+class OffHeapServiceTest {
+    // Operations per random run
+    private static final int OPERATIONS = 5_000;
+    // Product IDs are drawn from this many, so IDs are often re-added
+    private static final int IDS = 200;
+    private static final String[] WORDS = {"Widget", "widget", "gadget", "Ünïcode", "naïve", "Ärger", "_under", "ZED", "zeta"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void offHeapServiceAnswersLikeHeapService() throws IOException {
+        for (long seed = 1; seed <= 3; seed++) {
+            runBoth(seed);
+        }
+    }
+
+    @Test
+    void storeKeepsOrdinalsAndReusesStringSpans() {
+        OffHeapProductStore store = new OffHeapProductStore();
+        store.put("A", new Product("A", "a long name", "C", 1, 5, 1));
+        store.put("B", new Product("B", "b", "C", 1, 5, 1));
+        store.put("A", new Product("A", "short", "C", 2, 5, 1));
+        assertEquals(0, store.abandonedArenaBytes(), "a shorter name must reuse the span");
+        store.put("A", new Product("A", "a much longer name", "C", 2, 5, 1));
+        assertEquals("A".length() + "a long name".length(), store.abandonedArenaBytes());
+        assertEquals("a much longer name", store.get("A").getName());
+
+        store.remove("A");
+        assertNull(store.get("A"));
+        assertEquals(0, store.ordinalOf("A"), "a removed ID keeps its ordinal");
+        store.put("A", new Product("A", "back", "C", 3, 7, 1));
+        assertEquals(0, store.ordinalOf("A"));
+        assertEquals(2, store.ordinalCount());
+        assertEquals(2, store.size());
+        assertEquals(7, store.get("A").getQuantity());
+    }
+
+    @Test
+    void productTooLongToStoreChangesNothing() throws IOException {
+        Path journal = dir.resolve("inventory.journal");
+        for (boolean journaled : new boolean[] {false, true}) {
+            InventoryService service = newService(true);
+            if (journaled) {
+                service.openJournal(journal, FsyncPolicy.EVERY_OP, 0);
+            }
+            service.addProduct(new Product("P1", "Widget", "Tools", 2.5, 10, 1));
+            String huge = "x".repeat(17 << 20); // More than one arena chunk
+            assertThrows(IllegalArgumentException.class,
+                () -> service.addProduct(new Product("P1", huge, "Tools", 3, 99, 1)));
+            assertEquals(List.of("Widget [P1] - Tools: 10 @2.50"), text(service.getProductsByPrice(0, 10, false)));
+            assertEquals(1, service.searchByName("widget", 10).size());
+            service.close();
+        }
+
+        InventoryService replayed = newService(true);
+        replayed.openJournal(journal, FsyncPolicy.EVERY_OP, 0); // The rejected add was never journaled
+        assertEquals(text(List.of(new Product("P1", "Widget", "Tools", 2.5, 10, 1))), text(replayed.getAllProducts()));
+        replayed.close();
+    }
+
+    private void runBoth(long seed) throws IOException {
+        Random random = new Random(seed);
+        InventoryService heap = newService(false);
+        InventoryService offHeap = newService(true);
+        for (int op = 0; op < OPERATIONS; op++) {
+            String id = (random.nextInt(5) == 0 ? "É" : "P") + random.nextInt(IDS);
+            int choice = random.nextInt(100);
+            if (choice < 30) {
+                Product p = randomProduct(random, id);
+                Product same = copy(p); // Taken first: adding p fulfills back-orders from its stock
+                heap.addProduct(p);
+                offHeap.addProduct(same);
+            } else if (choice < 40) {
+                assertEquals(heap.removeProduct(id), offHeap.removeProduct(id));
+            } else if (choice < 55) {
+                int quantity = random.nextInt(40);
+                assertEquals(heap.updateStock(id, quantity), offHeap.updateStock(id, quantity));
+            } else if (choice < 80) {
+                int qty = 1 + random.nextInt(5);
+                assertEquals(heap.recordSale(id, qty, 0), offHeap.recordSale(id, qty, 0));
+            } else if (choice < 82) {
+                heap.processBackOrders();
+                offHeap.processBackOrders();
+            } else if (choice < 84) {
+                // Reload both from one snapshot; products then load lazily, by snapshot ordinal
+                Path file = dir.resolve("catalog.snap");
+                (random.nextBoolean() ? heap : offHeap).saveSnapshot(file);
+                heap = newService(false);
+                offHeap = newService(true);
+                heap.loadSnapshot(file);
+                offHeap.loadSnapshot(file);
+            } else {
+                compare(heap, offHeap, random, "op " + op + " of seed " + seed);
+            }
+        }
+        compare(heap, offHeap, random, "end of seed " + seed);
+    }
+
+    private static void compare(InventoryService heap, InventoryService offHeap, Random random, String when) {
+        int page = random.nextInt(3);
+        boolean descending = random.nextBoolean();
+        assertEquals(text(heap.getProductsByPrice(page, 20, descending)),
+            text(offHeap.getProductsByPrice(page, 20, descending)), "by price, " + when);
+        assertEquals(text(heap.getProductsByName(page, 20, descending)),
+            text(offHeap.getProductsByName(page, 20, descending)), "by name, " + when);
+        assertEquals(text(heap.getProductsInPriceRange(2, 8, 0, 15)),
+            text(offHeap.getProductsInPriceRange(2, 8, 0, 15)), "price range, " + when);
+        String word = WORDS[random.nextInt(WORDS.length)];
+        String keyword = word.substring(0, Math.min(word.length(), 3 + random.nextInt(2))).toUpperCase(Locale.ROOT);
+        assertEquals(sorted(heap.searchByName(keyword, 1_000)), sorted(offHeap.searchByName(keyword, 1_000)),
+            "search " + keyword + ", " + when);
+        assertEquals(sorted(heap.getAllProducts()), sorted(offHeap.getAllProducts()), "all products, " + when);
+        assertEquals(text(heap.getLowStockProducts(10)), text(offHeap.getLowStockProducts(10)), "low stock, " + when);
+        assertEquals(heap.getTopSellers(5), offHeap.getTopSellers(5), "top sellers, " + when);
+    }
+
+    private static Product randomProduct(Random random, String id) {
+        StringBuilder name = new StringBuilder();
+        for (int w = 1 + random.nextInt(4); w > 0; w--) {
+            name.append(WORDS[random.nextInt(WORDS.length)]).append(w > 1 ? " " : "");
+        }
+        double price = random.nextInt(5) * 2.5 + random.nextInt(3); // Few prices, so ties are common
+        return new Product(id, name.toString(), "C" + random.nextInt(4), price, random.nextInt(30), 5);
+    }
+
+    private static Product copy(Product p) {
+        return new Product(p.getId(), p.getName(), p.getCategory(), p.getPrice(), p.getQuantity(), p.getReorderLevel());
+    }
+
+    private static List<String> text(List<Product> products) {
+        List<String> result = new ArrayList<>();
+        for (Product p : products) {
+            result.add(p.toString());
+        }
+        return result;
+    }
+
+    private static List<String> sorted(List<Product> products) {
+        List<String> result = text(products);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static InventoryService newService(boolean offHeap) {
+        InventoryService service = offHeap ? new InventoryService(new OffHeapProductStore()) : new InventoryService();
+        service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        return service;
+    }
+}
@@ -0,0 +1,142 @@
+package com.techsolution.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the columnar SalesLog (growth, iteration, aggregation and reuse after clear) and
+ * SalesHistory's use of it for the open hour: the hour's sales read back the same before and
+ * after the log is folded into a bucket, and after a writeTo/readFrom round trip.
+ */
+class SalesLogTest {
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    @Test
+    void logKeepsSalesInColumns() {
+        SalesLog log = new SalesLog(2);
+        Random random = new Random(1);
+        long[] byProduct = new long[10];
+        long quantity = 0;
+        long cents = 0;
+        for (int i = 0; i < 1_000; i++) {
+            int ordinal = random.nextInt(byProduct.length);
+            int qty = 1 + random.nextInt(5);
+            long amount = qty * 250L;
+            log.append(ordinal, qty, amount);
+            byProduct[ordinal] += qty;
+            quantity += qty;
+            cents += amount;
+        }
+        log.appendAll(new int[] {3, 4, 99}, new int[] {2, 1, 99}, new long[] {500, 250, 99}, 2);
+        byProduct[3] += 2;
+        byProduct[4] += 1;
+        quantity += 3;
+        cents += 750;
+
+        assertEquals(1_002, log.size());
+        assertEquals(quantity, log.totalQuantity());
+        assertEquals(cents, log.totalAmountCents());
+        assertArrayEquals(byProduct, log.quantityByProduct(byProduct.length));
+        assertEquals(4, log.productOrdinal(1_001));
+        assertEquals(250, log.amountCents(1_001));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.quantity(1_002));
+
+        List<Integer> visited = new ArrayList<>();
+        log.forEach((ordinal, qty, amount) -> visited.add(ordinal));
+        assertEquals(1_002, visited.size());
+        assertEquals(3, visited.get(1_000));
+
+        log.clear();
+        assertTrue(log.isEmpty());
+        log.append(7, 1, 100);
+        assertEquals(1, log.totalQuantity());
+    }
+
+    @Test
+    void historyFoldsTheOpenHourLog() throws IOException {
+        MutableClock clock = new MutableClock(10 * 24 * HOUR_MILLIS);
+        SalesHistory history = new SalesHistory(clock, 4, 2, 2);
+        long now = clock.millis();
+        history.record(5, "Tools", 2, 500, now);
+        history.record(1, "Toys", 1, 199, now + 1);
+        history.record(5, "Tools", 3, 750, now + 2);
+        history.record(40, "Tools", 1, 100, now + 3);
+        assertSeries(history, 5, 5, 1_250);
+        assertSeries(history, 40, 1, 100);
+
+        // Round trip before the hour is folded: the log comes back as it was
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        history.writeTo(new DataOutputStream(bytes));
+        SalesHistory restored = new SalesHistory(clock, 4, 2, 2);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (SalesHistory h : new SalesHistory[] {history, restored}) {
+            clock.millis = now;
+            assertSeries(h, 5, 5, 1_250);
+            clock.millis = now + HOUR_MILLIS;
+            h.record(1, "Toys", 4, 796, clock.millis); // Folds the first hour into a bucket
+            SalesTotals[] series = h.productSeries(5, HistoryResolution.HOUR, 2);
+            assertEquals(new SalesTotals(5, 1_250), series[0]);
+            assertEquals(new SalesTotals(0, 0), series[1]);
+            series = h.productSeries(1, HistoryResolution.HOUR, 2);
+            assertEquals(List.of(new SalesTotals(1, 199), new SalesTotals(4, 796)), Arrays.asList(series));
+            long day = now / (24 * HOUR_MILLIS) * 24;
+            assertEquals(new SalesTotals(6, 1_350), h.categoryTotals(day, day + 24).get("Tools"));
+            assertEquals(new SalesTotals(5, 995), h.categoryTotals(day, day + 24).get("Toys"));
+        }
+    }
+
+    private static void assertSeries(SalesHistory history, int ordinal, long units, long cents) {
+        SalesTotals[] series = history.productSeries(ordinal, HistoryResolution.HOUR, 1);
+        assertEquals(new SalesTotals(units, cents), series[0]);
+    }
+
+    /**
+     * A UTC clock the test moves by hand.
+     */
+    private static class MutableClock extends Clock {
+        long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
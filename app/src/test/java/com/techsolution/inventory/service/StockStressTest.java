@@ -0,0 +1,321 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.ds.ConcurrentHashTable;
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers stock from many threads at once and checks that nothing is oversold and no sale is
+ * lost: on a single Product, through InventoryService.recordSale and recordSales on a few hot
+ * products, and while other threads remove and re-add the products being sold. The exact
+ * interleavings of a sale with a removal or replacement are also forced deterministically,
+ * through a product table that runs the other operation right after the sale's lookup.
+ */
+class StockStressTest {
+    // Worker threads; more than the processors, so that threads are preempted mid-sale
+    private static final int THREADS = 8;
+    // Sales (or decrement attempts) per thread
+    private static final int SALES_PER_THREAD = 20_000;
+    // Products sold through the service; few, so that threads collide on the same stock
+    private static final int PRODUCTS = 8;
+    // Opening stock of each product sold through the service
+    private static final int STOCK = 10_000;
+
+    @Test
+    void tryDecrementNeverOversells() throws InterruptedException {
+        int stock = THREADS * SALES_PER_THREAD; // Demand averages twice the supply
+        Product p = new Product("P", "Stressed", "Test", 1, stock, 0);
+        AtomicLong taken = new AtomicLong();
+        runThreads(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mine = 0;
+            for (int i = 0; i < SALES_PER_THREAD; i++) {
+                int qty = 1 + random.nextInt(3);
+                int left = p.tryDecrement(qty);
+                if (left >= 0) {
+                    mine += qty;
+                }
+                check(left >= -1, "negative stock returned: " + left);
+            }
+            taken.addAndGet(mine);
+        });
+        assertTrue(p.getQuantity() >= 0, "stock went negative: " + p.getQuantity());
+        assertEquals(stock - p.getQuantity(), taken.get(), "units taken differ from the stock that disappeared");
+    }
+
+    @Test
+    void concurrentSalesNeverOversellOrLoseASale() throws InterruptedException {
+        InventoryService service = newService();
+        Product[] products = new Product[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            products[i] = new Product("P" + i, "Hot " + i, "Test", 1, STOCK, 10);
+            service.addProduct(products[i]);
+        }
+        AtomicLong requested = new AtomicLong();
+        AtomicLong lines = new AtomicLong();
+        runThreads(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mine = 0;
+            for (int i = 0; i < SALES_PER_THREAD; i++) {
+                int qty = 1 + random.nextInt(3);
+                if (i % 10 == 0) {
+                    // Every tenth sale is a two-line batch
+                    int other = 1 + random.nextInt(3);
+                    byte[] outcomes = service.recordSales(List.of(
+                        new SaleLine("P" + random.nextInt(PRODUCTS), qty, 0),
+                        new SaleLine("P" + random.nextInt(PRODUCTS), other, 0)));
+                    for (byte outcome : outcomes) {
+                        check(outcome != SaleLine.UNKNOWN_PRODUCT, "batch line rejected");
+                    }
+                    mine += qty + other;
+                    lines.addAndGet(2);
+                } else {
+                    check(service.recordSale("P" + random.nextInt(PRODUCTS), qty, 0), "sale rejected");
+                    mine += qty;
+                    lines.incrementAndGet();
+                }
+            }
+            requested.addAndGet(mine);
+        });
+
+        for (TopSeller t : service.getTopSellers(PRODUCTS)) {
+            Product p = products[Integer.parseInt(t.productId().substring(1))];
+            assertTrue(p.getQuantity() >= 0, p.getId() + " stock went negative: " + p.getQuantity());
+            assertEquals(STOCK - p.getQuantity(), t.units(), p.getId() + " units sold differ from the stock taken");
+        }
+        long recorded = counter(service, "sales.recorded");
+        long queued = counter(service, "backOrders.queued");
+        long fulfilled = counter(service, "backOrders.fulfilled");
+        assertEquals(lines.get(), recorded - fulfilled + queued, "sales unaccounted for");
+        assertEquals(queued - fulfilled, service.getPendingBackOrderCount(), "pending back-order count drifted");
+
+        // Restock everything generously: every waiting back-order must now be fulfilled
+        for (int i = 0; i < PRODUCTS; i++) {
+            service.updateStock("P" + i, Integer.MAX_VALUE / 2);
+        }
+        assertEquals(0, service.getPendingBackOrderCount(), "back-orders left after restock");
+        long total = 0;
+        for (TopSeller t : service.getTopSellers(PRODUCTS)) {
+            total += t.units();
+        }
+        assertEquals(requested.get(), total, "units sold after restock differ from units requested");
+    }
+
+    @Test
+    void salesRacingRemovalNeverTouchRemovedProducts() throws InterruptedException {
+        InventoryService service = newService();
+        for (int i = 0; i < PRODUCTS; i++) {
+            service.addProduct(new Product("P" + i, "Hot " + i, "Test", 1, 50, 10));
+        }
+        AtomicBoolean selling = new AtomicBoolean(true);
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        // One thread keeps removing, replacing and restocking the products the others sell
+        Thread churn = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (selling.get()) {
+                String id = "P" + random.nextInt(PRODUCTS);
+                switch (random.nextInt(3)) {
+                    case 0 -> service.removeProduct(id);
+                    case 1 -> service.addProduct(new Product(id, "Again", "Test", 1, random.nextInt(20), 10));
+                    default -> service.updateStock(id, random.nextInt(20));
+                }
+            }
+        });
+        churn.start();
+        try {
+            runThreads(THREADS - 1, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long mine = 0;
+                long unknown = 0;
+                for (int i = 0; i < SALES_PER_THREAD; i++) {
+                    String id = "P" + random.nextInt(PRODUCTS);
+                    if (i % 10 == 0) {
+                        for (byte outcome : service.recordSales(List.of(new SaleLine(id, 1 + random.nextInt(3), 0)))) {
+                            unknown += outcome == SaleLine.UNKNOWN_PRODUCT ? 1 : 0;
+                        }
+                    } else if (!service.recordSale(id, 1 + random.nextInt(3), 0)) {
+                        unknown++;
+                    }
+                    mine++;
+                }
+                attempts.addAndGet(mine);
+                rejected.addAndGet(unknown);
+            });
+        } finally {
+            selling.set(false);
+            churn.join();
+        }
+
+        long recorded = counter(service, "sales.recorded");
+        long queued = counter(service, "backOrders.queued");
+        long fulfilled = counter(service, "backOrders.fulfilled");
+        assertEquals(rejected.get(), counter(service, "sales.unknownProduct"), "unknown sales miscounted");
+        assertEquals(attempts.get(), recorded - fulfilled + queued + rejected.get(), "sales unaccounted for");
+
+        // Only current products may be indexed, and a restock of every product must fulfill
+        // every back-order (one queued for a removed product would wait forever)
+        Set<String> current = new HashSet<>();
+        for (Product p : service.getAllProducts()) {
+            current.add(p.getId());
+        }
+        for (Product p : service.getLowStockProducts(PRODUCTS * 2)) {
+            assertTrue(current.contains(p.getId()), "removed product " + p.getId() + " still indexed");
+            assertTrue(p.getQuantity() <= p.getReorderLevel(), p.getId() + " indexed with stale stock");
+        }
+        for (String id : current) {
+            service.updateStock(id, Integer.MAX_VALUE / 2);
+        }
+        assertEquals(0, service.getPendingBackOrderCount(), "back-orders left for removed products");
+    }
+
+    @Test
+    void saleOfAProductRemovedAfterItsLookupIsUnknown() {
+        for (int stock : new int[] {10, 1}) {
+            RacingTable table = new RacingTable();
+            InventoryService service = newService(table);
+            Product old = new Product("P1", "Old", "Test", 1, stock, 5);
+            service.addProduct(old);
+            table.runAfterLookups(1, () -> service.removeProduct("P1"));
+            assertFalse(service.recordSale("P1", 2, 0), "sold from a removed product (stock " + stock + ")");
+            assertEquals(0, old.getQuantity(), "removed product kept its stock");
+            assertEquals(0, service.getPendingBackOrderCount(), "back-order queued for a removed product");
+            assertTrue(service.getLowStockProducts(10).isEmpty(), "removed product re-indexed");
+            assertTrue(service.getTopSellers(10).isEmpty(), "sale of a removed product counted");
+        }
+    }
+
+    @Test
+    void saleOfAProductReplacedAfterItsLookupIsServedByTheNewProduct() {
+        RacingTable table = new RacingTable();
+        InventoryService service = newService(table);
+        Product old = new Product("P1", "Old", "Test", 1, 10, 5);
+        Product replacement = new Product("P1", "New", "Test", 1, 20, 5);
+        service.addProduct(old);
+        table.runAfterLookups(1, () -> service.addProduct(replacement));
+        assertTrue(service.recordSale("P1", 3, 0));
+        assertEquals(0, old.getQuantity(), "replaced product kept its stock");
+        assertEquals(17, replacement.getQuantity(), "sale not served by the replacement");
+        assertEquals(List.of(new TopSeller("P1", 3, 0)), service.getTopSellers(1));
+    }
+
+    @Test
+    void batchLinesOfRemovedOrReplacedProductsAreSettledAgainstTheCurrentOne() {
+        RacingTable table = new RacingTable();
+        InventoryService service = newService(table);
+        service.addProduct(new Product("P1", "Gone", "Test", 1, 10, 0));
+        Product old = new Product("P2", "Old", "Test", 1, 10, 0);
+        Product replacement = new Product("P2", "New", "Test", 1, 20, 0);
+        service.addProduct(old);
+        // Both lines' products are looked up before either changes
+        table.runAfterLookups(2, () -> {
+            service.removeProduct("P1");
+            service.addProduct(replacement);
+        });
+        byte[] outcomes = service.recordSales(List.of(new SaleLine("P1", 2, 0), new SaleLine("P2", 4, 0)));
+        assertArrayEquals(new byte[] {SaleLine.UNKNOWN_PRODUCT, SaleLine.SOLD}, outcomes);
+        assertEquals(16, replacement.getQuantity(), "line not served by the replacement");
+        assertEquals(0, service.getPendingBackOrderCount(), "back-order queued for a removed product");
+        assertEquals(List.of(new TopSeller("P2", 4, 0)), service.getTopSellers(10));
+    }
+
+    /**
+     * Product table that runs an action right after a given lookup, between a sale finding
+     * its product and taking the stock, as another thread could.
+     */
+    private static final class RacingTable extends HashTable<String, Product> {
+        private Runnable action;
+        private int lookupsLeft;
+
+        RacingTable() {
+            super(16);
+        }
+
+        void runAfterLookups(int lookups, Runnable action) {
+            this.lookupsLeft = lookups;
+            this.action = action;
+        }
+
+        @Override
+        public Product get(String key) {
+            Product p = super.get(key);
+            if (action != null && --lookupsLeft == 0) {
+                Runnable run = action;
+                action = null;
+                run.run();
+            }
+            return p;
+        }
+    }
+
+    private static InventoryService newService(HashTable<String, Product> table) {
+        InventoryService service = new InventoryService(table);
+        service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        return service;
+    }
+
+    private static InventoryService newService() {
+        InventoryService service = new InventoryService(new ConcurrentHashTable<>(64));
+        service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        return service;
+    }
+
+    private static long counter(InventoryService service, String name) {
+        return service.getMetrics().counter(name).sum();
+    }
+
+    /**
+     * Starts the threads together and waits for all of them.
+     * @throws IllegalStateException the first failure of any thread
+     */
+    private static void runThreads(int threads, Runnable work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    work.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
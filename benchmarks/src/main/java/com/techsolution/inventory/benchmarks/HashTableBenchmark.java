@@ -0,0 +1,98 @@
+package com.techsolution.inventory.benchmarks;
+
+import com.techsolution.inventory.ds.ConcurrentHashTable;
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.RobinHoodHashTable;
+import com.techsolution.inventory.ds.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * put/get cost of the product tables at several sizes and access patterns, up to the
+ * 10,000,000-entry catalog the chained and robin-hood tables are compared at.
+ * Keys are product-style IDs; lookups follow the chosen KeyDistribution.
+ * Retained heap per entry at the same sizes is measured by bench.ProductStoreFootprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class HashTableBenchmark {
+    // Number of precomputed lookup indexes (a power of two)
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"chained", "robin-hood", "concurrent"})
+    String table;
+
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPF"})
+    KeyDistribution distribution;
+
+    private Table<String, Integer> filled;
+    private String[] keys;
+    private String[] missing;
+    private int[] order;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        keys = KeyDistribution.ids(size, "P");
+        missing = KeyDistribution.ids(Math.min(size, LOOKUPS), "Q");
+        order = distribution.indexes(size, LOOKUPS, 42);
+        filled = newTable();
+        for (String key : keys) {
+            filled.put(key, 1);
+        }
+    }
+
+    @Benchmark
+    public Integer getHit() {
+        return filled.get(keys[order[next++ & (LOOKUPS - 1)]]);
+    }
+
+    @Benchmark
+    public Integer getMiss() {
+        return filled.get(missing[next++ % missing.length]);
+    }
+
+    /** Overwrites existing keys: the steady-state cost of a stock update. */
+    @Benchmark
+    public void putExisting() {
+        filled.put(keys[order[next++ & (LOOKUPS - 1)]], next);
+    }
+
+    /** Builds a table of size entries from empty, including every resize. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Table<String, Integer> fill() {
+        Table<String, Integer> t = newTable();
+        for (String key : keys) {
+            t.put(key, 1);
+        }
+        return t;
+    }
+
+    private Table<String, Integer> newTable() {
+        return switch (table) {
+            case "chained" -> new HashTable<>(16);
+            case "robin-hood" -> new RobinHoodHashTable<>(16);
+            case "concurrent" -> new ConcurrentHashTable<>(16);
+            default -> throw new IllegalArgumentException(table);
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.techsolution.inventory.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * How benchmark workloads pick which of n keys to touch next.
+ * Each distribution precomputes a fixed array of indexes so that drawing a key inside a
+ * measured method costs one array read.
+ */
+public enum KeyDistribution {
+    /** Keys in insertion order, wrapping around. */
+    SEQUENTIAL,
+    /** Every key equally likely. */
+    UNIFORM,
+    /**
+     * Zipf with exponent 1: a few hot keys take most of the traffic, like best-selling SKUs.
+     * Ranks map one-to-one onto keys through a seeded shuffle, so every key can be drawn.
+     */
+    ZIPF;
+
+    /**
+     * Draws count indexes in [0, n).
+     * @param n     number of keys
+     * @param count number of indexes to draw
+     * @param seed  random seed, so runs are repeatable
+     * @return the indexes
+     */
+    public int[] indexes(int n, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] out = new int[count];
+        switch (this) {
+            case SEQUENTIAL -> {
+                for (int i = 0; i < count; i++) {
+                    out[i] = i % n;
+                }
+            }
+            case UNIFORM -> {
+                for (int i = 0; i < count; i++) {
+                    out[i] = random.nextInt(n);
+                }
+            }
+            case ZIPF -> {
+                // Inverse-CDF sampling over the cumulative harmonic weights 1/1, 1/2, ..., 1/n
+                double[] cdf = new double[n];
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += 1.0 / (k + 1);
+                    cdf[k] = sum;
+                }
+                // Scatter hot ranks across the key space so they are not all neighbours:
+                // a seeded Fisher-Yates shuffle maps every rank to a distinct key
+                int[] keyOfRank = new int[n];
+                for (int k = 0; k < n; k++) {
+                    keyOfRank[k] = k;
+                }
+                for (int k = n - 1; k > 0; k--) {
+                    int j = random.nextInt(k + 1);
+                    int t = keyOfRank[k];
+                    keyOfRank[k] = keyOfRank[j];
+                    keyOfRank[j] = t;
+                }
+                for (int i = 0; i < count; i++) {
+                    double u = random.nextDouble() * sum;
+                    int lo = 0;
+                    int hi = n - 1;
+                    while (lo < hi) {
+                        int mid = (lo + hi) >>> 1;
+                        if (cdf[mid] < u) lo = mid + 1; else hi = mid;
+                    }
+                    out[i] = keyOfRank[lo];
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Builds product-style IDs ("P0000001") for keys 0..n-1.
+     * @param n      number of IDs
+     * @param prefix leading letter
+     * @return the IDs
+     */
+    public static String[] ids(int n, String prefix) {
+        String[] ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = String.format("%s%07d", prefix, i);
+        }
+        return ids;
+    }
+}
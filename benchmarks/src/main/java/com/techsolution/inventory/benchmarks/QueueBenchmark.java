@@ -0,0 +1,56 @@
+package com.techsolution.inventory.benchmarks;
+
+import com.techsolution.inventory.ds.ArrayQueue;
+import com.techsolution.inventory.ds.Queue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enqueue/dequeue cycles on the linked Queue and the circular ArrayQueue:
+ * each invocation enqueues batch items and then dequeues them all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+    @Param({"1", "16", "1024"})
+    int batch;
+
+    private final Queue<Integer> linked = new Queue<>();
+    private final ArrayQueue<Integer> array = new ArrayQueue<>();
+    private final Integer item = 7;
+
+    @Benchmark
+    public void linkedQueue(Blackhole bh) {
+        for (int i = 0; i < batch; i++) {
+            linked.enqueue(item);
+        }
+        while (!linked.isEmpty()) {
+            bh.consume(linked.dequeue());
+        }
+    }
+
+    @Benchmark
+    public void arrayQueue(Blackhole bh) {
+        for (int i = 0; i < batch; i++) {
+            array.enqueue(item);
+        }
+        while (!array.isEmpty()) {
+            bh.consume(array.dequeue());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.techsolution.inventory.benchmarks;
+
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.service.InventoryService;
+import com.techsolution.inventory.service.SaleLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventoryService hot paths on a realistic catalog: recordSale throughput with Zipf-skewed
+ * product popularity (one sale at a time and in point-of-sale batches through recordSales),
+ * and the latency of the day's report after a given number of sales.
+ * Service output is discarded so console I/O is not measured.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ServiceBenchmark {
+    // Number of precomputed product picks (a power of two)
+    private static final int PICKS = 1 << 20;
+    // Line items per recordSales batch, and number of distinct precomputed batches
+    private static final int BATCH = 256;
+    private static final int BATCHES = 64;
+    private static final String[] CATEGORIES = {
+        "Electronics", "Hardware", "Grocery", "Toys", "Garden", "Books", "Clothing", "Sports"
+    };
+
+    /**
+     * A catalog with effectively unlimited stock, so every sale succeeds.
+     */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"10000", "1000000"})
+        int products;
+
+        InventoryService service;
+        String[] ids;
+        int[] picks;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = new InventoryService();
+            service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+            ids = KeyDistribution.ids(products, "P");
+            for (int i = 0; i < products; i++) {
+                service.addProduct(new Product(ids[i], "Product " + i, CATEGORIES[i % CATEGORIES.length],
+                    1 + (i % 1000) * 0.25, Integer.MAX_VALUE, 10));
+            }
+            picks = KeyDistribution.ZIPF.indexes(products, PICKS, 11);
+        }
+
+        String nextId() {
+            return ids[picks[next++ & (PICKS - 1)]];
+        }
+    }
+
+    /**
+     * Starts each iteration with an empty day, so every iteration sells into the same state.
+     */
+    @State(Scope.Benchmark)
+    public static class FreshDay {
+        @Setup(Level.Iteration)
+        public void newDay(Catalog catalog) {
+            catalog.service.generateEndOfDayReport();
+        }
+    }
+
+    /**
+     * Point-of-sale batches of one-unit line items drawn from the catalog's picks.
+     */
+    @State(Scope.Benchmark)
+    public static class SaleBatches {
+        List<List<SaleLine>> batches;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalog catalog) {
+            batches = new ArrayList<>();
+            for (int b = 0; b < BATCHES; b++) {
+                List<SaleLine> batch = new ArrayList<>(BATCH);
+                for (int i = 0; i < BATCH; i++) {
+                    batch.add(new SaleLine(catalog.nextId(), 1, 0));
+                }
+                batches.add(batch);
+            }
+        }
+
+        List<SaleLine> nextBatch() {
+            return batches.get(next++ & (BATCHES - 1));
+        }
+    }
+
+    /**
+     * A catalog plus a day's worth of recorded sales.
+     */
+    @State(Scope.Benchmark)
+    public static class TradingDay {
+        @Param({"100000", "1000000"})
+        int sales;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalog catalog) {
+            for (int i = 0; i < sales; i++) {
+                catalog.service.recordSale(catalog.nextId(), 1 + (i % 5), i % 3 == 0 ? 10 : 0);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean recordSale(Catalog catalog, FreshDay day) {
+        return catalog.service.recordSale(catalog.nextId(), 1, 0);
+    }
+
+    /**
+     * Throughput per line item, comparable with recordSale.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    public byte[] recordSales(Catalog catalog, FreshDay day, SaleBatches batches) {
+        return catalog.service.recordSales(batches.nextBatch());
+    }
+
+    /**
+     * The end-of-day report without the reset (generateSnapshotReport prints the same report),
+     * so every invocation sees the same day of sales.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void endOfDayReport(TradingDay day, Catalog catalog) {
+        catalog.service.generateSnapshotReport();
+    }
+}
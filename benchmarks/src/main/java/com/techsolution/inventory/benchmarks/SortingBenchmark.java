@@ -0,0 +1,126 @@
+package com.techsolution.inventory.benchmarks;
+
+import com.techsolution.inventory.algorithms.Sorting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting.mergeSort and the other Sorting variants against Arrays.sort and Arrays.parallelSort
+ * on int keys, and the stable Sorting.sort against Arrays.sort on objects ordered by a key.
+ * Every method sorts a fresh copy of the same input, so the copy is part of every score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortingBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int n;
+
+    /**
+     * "random" keys, "nearly-sorted" (sorted with 1% of elements swapped), "reversed", or
+     * "few-keys" (16 distinct values, so most comparisons are ties).
+     */
+    @Param({"random", "nearly-sorted", "reversed", "few-keys"})
+    String input;
+
+    private int[] data;
+    // The same keys as {key, original position} pairs, for the stable object sorts
+    private long[][] objects;
+    private static final Comparator<long[]> BY_KEY = Comparator.comparingLong(v -> v[0]);
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        data = new int[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = switch (input) {
+                case "reversed" -> n - i;
+                case "few-keys" -> random.nextInt(16);
+                default -> random.nextInt(1 << 30);
+            };
+        }
+        if (input.equals("nearly-sorted")) {
+            Arrays.sort(data);
+            for (int i = 0; i < n / 100; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                int t = data[a]; data[a] = data[b]; data[b] = t;
+            }
+        }
+        objects = new long[n][];
+        for (int i = 0; i < n; i++) {
+            objects[i] = new long[] {data[i], i};
+        }
+    }
+
+    @Benchmark
+    public int[] mergeSort() {
+        return Sorting.mergeSort(data.clone());
+    }
+
+    @Benchmark
+    public int[] bottomUpMergeSort() {
+        int[] a = data.clone();
+        Sorting.bottomUpMergeSort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] parallelMergeSort() {
+        int[] a = data.clone();
+        Sorting.parallelMergeSort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] radixSort() {
+        int[] a = data.clone();
+        Sorting.radixSort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] a = data.clone();
+        Arrays.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        int[] a = data.clone();
+        Arrays.parallelSort(a);
+        return a;
+    }
+
+    @Benchmark
+    public long[][] stableSortObjects() {
+        long[][] a = objects.clone();
+        Sorting.sort(a, BY_KEY);
+        return a;
+    }
+
+    @Benchmark
+    public long[][] arraysSortObjects() {
+        long[][] a = objects.clone();
+        Arrays.sort(a, BY_KEY);
+        return a;
+    }
+}
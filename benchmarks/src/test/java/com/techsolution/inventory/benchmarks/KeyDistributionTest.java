@@ -0,0 +1,58 @@
+package com.techsolution.inventory.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the benchmark key distributions reach the keys they claim to, so a skewed
+ * benchmark does not quietly run against a fraction of the table.
+ */
+class KeyDistributionTest {
+    @Test
+    void zipfReachesEveryKey() {
+        for (int n : new int[] {100, 1_000}) {
+            int[] hits = counts(KeyDistribution.ZIPF.indexes(n, 1_000 * n, 42), n);
+            for (int key = 0; key < n; key++) {
+                assertTrue(hits[key] > 0, "key " + key + " of " + n + " never drawn");
+            }
+        }
+    }
+
+    @Test
+    void zipfHottestKeyTakesItsShare() {
+        int n = 1_000;
+        int draws = 1_000_000;
+        int[] hits = counts(KeyDistribution.ZIPF.indexes(n, draws, 7), n);
+        int hottest = 0;
+        for (int h : hits) {
+            hottest = Math.max(hottest, h);
+        }
+        // Rank 1 of Zipf(1) over n keys has probability 1/H(n), about 13.4% for n = 1000
+        double harmonic = 0;
+        for (int k = 1; k <= n; k++) {
+            harmonic += 1.0 / k;
+        }
+        assertEquals(draws / harmonic, hottest, draws * 0.005);
+    }
+
+    @Test
+    void uniformAndSequentialReachEveryKey() {
+        int n = 500;
+        for (KeyDistribution d : new KeyDistribution[] {KeyDistribution.UNIFORM, KeyDistribution.SEQUENTIAL}) {
+            int[] hits = counts(d.indexes(n, 100 * n, 3), n);
+            for (int key = 0; key < n; key++) {
+                assertTrue(hits[key] > 0, d + " never drew key " + key);
+            }
+        }
+    }
+
+    private static int[] counts(int[] indexes, int n) {
+        int[] hits = new int[n];
+        for (int i : indexes) {
+            hits[i]++;
+        }
+        return hits;
+    }
+}
@@ -1,26 +1,112 @@
 package com.techsolution.inventory;
 
+import com.techsolution.inventory.metrics.FlightRecording;
+import com.techsolution.inventory.model.OffHeapProductStore;
 import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.persistence.CsvCatalog;
+import com.techsolution.inventory.persistence.FsyncPolicy;
+import com.techsolution.inventory.service.HistoryResolution;
 import com.techsolution.inventory.service.InventoryService;
-
+import com.techsolution.inventory.service.ProductFilter;
+import com.techsolution.inventory.service.SalesTotals;
+import com.techsolution.inventory.service.TopSeller;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.IntFunction;
 
 /**
  * Main console application for Inventory Management.
  * Supports adding, updating, removing products;
  * recording sales with back-order queuing;
- * processing pending back-orders;
+ * automatic back-order fulfillment on restock (with a manual retry option);
  * viewing products with sorting/search filters;
- * and generating end-of-day reports.
+ * generating end-of-day and mid-day snapshot reports;
+ * bulk CSV import/export of the catalog;
+ * and operational stats (operation latencies, counters, hash table health).
+ * <p>
+ * Command-line options:
+ * <pre>
+ *   --journal=FILE          restore state from FILE and journal every change to it
+ *   --fsync=every-op|interval|os   journal fsync policy (default: interval)
+ *   --fsync-interval=MS     flush interval for interval/os policies (default: 10)
+ *   --snapshot=FILE         load the catalog from FILE at startup (if it exists) and save it on exit;
+ *                           with --journal the saved snapshot is a checkpoint and the journal
+ *                           restarts empty, so only later changes are replayed at startup
+ *   --top-seller-counters=N track per-product sales approximately with N counters (large catalogs)
+ *   --batch=FILE|-          run the commands in FILE (or standard input) instead of the menu;
+ *                           see {@link BatchRunner} for the command set
+ *   --metrics-file=FILE     write the metrics as JSON to FILE on exit
+ *   --jfr=FILE              record JDK and inventory Flight Recorder events, written to FILE on exit
+ *   --off-heap[=DIR]        keep products outside the Java heap (very large catalogs), in direct
+ *                           memory or in files memory-mapped from DIR
+ * </pre>
  */
 public class App {
     // Scanner for reading user input from console
     private static final Scanner scanner = new Scanner(System.in);
     // Service layer instance that uses custom data structures and algorithms
-    private static final InventoryService service = new InventoryService();
+    private static InventoryService service;
+    // Number of products shown per page in sorted views
+    private static final int PAGE_SIZE = 20;
+    // Maximum number of results shown by a name or category search
+    private static final int SEARCH_LIMIT = 100;
+    // Bytes of output buffered between writes in batch mode
+    private static final int BATCH_OUTPUT_BUFFER = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        String jfr = option(args, "--jfr=");
+        FlightRecording recording = jfr != null ? FlightRecording.start(Path.of(jfr)) : null;
+        service = createService(args);
+        // The tracking mode has to be chosen before the snapshot and journal bring back sales
+        String counters = option(args, "--top-seller-counters=");
+        if (counters != null) {
+            service.trackTopSellersApproximately(Integer.parseInt(counters));
+        }
+        Path snapshot = loadSnapshot(args);
+        openJournal(args);
+        String batch = option(args, "--batch=");
+        try {
+            if (batch != null) {
+                runBatch(batch);
+            } else {
+                runInteractive();
+            }
+            if (snapshot != null) {
+                service.saveSnapshot(snapshot); // A checkpoint of the journal, if any
+                System.out.println("Catalog saved to " + snapshot);
+            }
+        } finally {
+            service.close(); // Flush the journal, if any, even after end of input or an error
+        }
+        String metricsFile = option(args, "--metrics-file=");
+        if (metricsFile != null) {
+            service.getMetrics().dump(Path.of(metricsFile));
+        }
+        if (recording != null) {
+            recording.close();
+            System.out.println("Flight recording written to " + jfr);
+        }
+    }
 
-    public static void main(String[] args) {
+    /**
+     * Runs the menu loop until the user chooses to exit.
+     */
+    private static void runInteractive() {
         System.out.println("=== Inventory Management System ===");
         boolean exit = false;
         // Main application loop: show menu until user chooses to exit
@@ -32,16 +118,117 @@ public class App {
                 case "2" -> updateProduct();       // Update stock for an existing product
                 case "3" -> removeProduct();       // Remove a product by ID
                 case "4" -> recordSale();          // Record a sale or enqueue back-order
-                case "5" -> processBackOrders();   // Process all pending back-orders
+                case "5" -> processBackOrders();   // Retry all pending back-orders (restocks do this automatically)
                 case "6" -> viewProducts();        // View or search products
                 case "7" -> service.generateEndOfDayReport(); // Show end-of-day financial report
-                case "8" -> exit = true;           // Exit the application
-                default -> System.out.println("Invalid option. Please choose 1-8.");
+                case "8" -> service.generateSnapshotReport(); // Show today's figures so far
+                case "9" -> importExport();        // Bulk CSV import or export
+                case "10" -> showStats();          // Latencies, counters and table health
+                case "11" -> exit = true;          // Exit the application
+                default -> System.out.println("Invalid option. Please choose 1-11.");
             }
         }
         System.out.println("Goodbye!");
     }
 
+    /**
+     * Runs a command script (see BatchRunner) with all output going through one large
+     * buffer to standard output; a summary line goes to standard error.
+     * @param source script file, or "-" for standard input
+     * @throws IOException if the script cannot be read
+     */
+    private static void runBatch(String source) throws IOException {
+        PrintStream out = new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_OUTPUT_BUFFER), false);
+        BatchRunner runner = new BatchRunner(service, out);
+        long start = System.nanoTime();
+        long errors;
+        if (source.equals("-")) {
+            errors = runner.run(System.in);
+        } else {
+            try (InputStream in = Files.newInputStream(Path.of(source))) {
+                errors = runner.run(in);
+            }
+        }
+        System.err.printf("%d commands (%d rejected) in %d ms%n",
+            runner.getCommandCount(), errors, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the value of the last command-line option with the given prefix.
+     * @param args   command-line arguments
+     * @param prefix option name including '='
+     * @return the text after the prefix, or null if the option is absent
+     */
+    private static String option(String[] args, String prefix) {
+        String value = null;
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                value = arg.substring(prefix.length());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Creates the service, backed by an OffHeapProductStore if the --off-heap option is given.
+     * @param args command-line arguments
+     * @return the service
+     * @throws IOException if the store's files cannot be created
+     */
+    private static InventoryService createService(String[] args) throws IOException {
+        String dir = option(args, "--off-heap=");
+        if (dir != null) {
+            return new InventoryService(OffHeapProductStore.mapped(Path.of(dir)));
+        }
+        if (List.of(args).contains("--off-heap")) {
+            return new InventoryService(new OffHeapProductStore());
+        }
+        return new InventoryService();
+    }
+
+    /**
+     * Loads the snapshot named by the --snapshot option, if present and the file exists.
+     * @param args command-line arguments
+     * @return the snapshot file to save on exit, or null if none was given
+     * @throws IOException if the snapshot cannot be read
+     */
+    private static Path loadSnapshot(String[] args) throws IOException {
+        String name = option(args, "--snapshot=");
+        Path file = name != null ? Path.of(name) : null;
+        if (file != null && Files.exists(file)) {
+            long start = System.nanoTime();
+            service.loadSnapshot(file);
+            System.out.printf("Snapshot %s loaded: %d products in %d ms.%n",
+                file, service.getProductCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return file;
+    }
+
+    /**
+     * Opens the journal named by the --journal option, if present, replaying it into the service.
+     * @param args command-line arguments
+     * @throws IOException if the journal cannot be read or opened
+     */
+    private static void openJournal(String[] args) throws IOException {
+        String file = null;
+        FsyncPolicy policy = FsyncPolicy.INTERVAL;
+        long intervalMillis = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--journal=")) {
+                file = arg.substring("--journal=".length());
+            } else if (arg.startsWith("--fsync=")) {
+                policy = FsyncPolicy.valueOf(arg.substring("--fsync=".length()).toUpperCase(Locale.ROOT).replace('-', '_'));
+            } else if (arg.startsWith("--fsync-interval=")) {
+                intervalMillis = Long.parseLong(arg.substring("--fsync-interval=".length()));
+            }
+        }
+        if (file != null) {
+            service.openJournal(Path.of(file), policy, intervalMillis);
+            System.out.println("Journal " + file + " restored: " + service.getProductCount() + " products.");
+        }
+    }
+
     /**
      * Displays the main menu options to the console.
      */
@@ -54,9 +241,12 @@ public class App {
         System.out.println("5. Process back-orders");
         System.out.println("6. View products");
         System.out.println("7. End-of-day report");
-        System.out.println("8. Exit");
+        System.out.println("8. Mid-day snapshot report");
+        System.out.println("9. Import/export CSV");
+        System.out.println("10. Stats");
+        System.out.println("11. Exit");
         System.out.println();
-        System.out.print("Select (1-8): ");
+        System.out.print("Select (1-11): ");
     }
 
     /**
@@ -223,72 +413,228 @@ public class App {
     }
 
     /**
-     * Processes all pending back-orders in FIFO order.
-     * Calls the service layer to attempt fulfillment of each queued sale.
+     * Retries all pending back-orders.
+     * Restocking a product already fulfills its waiting orders, so this is only a manual catch-up.
      */
     private static void processBackOrders() {
         System.out.println("-- Process Back-Orders --");
         service.processBackOrders();
     }
 
+    /**
+     * Imports products from, or exports the catalog to, a CSV file
+     * (id,name,category,price,quantity,reorderLevel).
+     */
+    private static void importExport() {
+        System.out.println("-- Import/Export CSV --");
+        System.out.print("1.Import  2.Export  3.Back: ");
+        String choice = scanner.nextLine().trim();
+        if (!choice.equals("1") && !choice.equals("2")) {
+            return;
+        }
+        System.out.print("File: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        long start = System.nanoTime();
+        try {
+            if (choice.equals("1")) {
+                CsvCatalog.ImportResult result = service.importCsv(file);
+                System.out.printf("Imported %d of %d rows in %d ms.%n",
+                    result.imported(), result.rows(), (System.nanoTime() - start) / 1_000_000);
+                if (result.rejected() > 0) {
+                    System.out.println(result.rejected() + " row(s) rejected:");
+                    result.errors().forEach(e -> System.out.println("  " + e));
+                }
+            } else {
+                long written = service.exportCsv(file);
+                System.out.printf("Exported %d products in %d ms.%n", written, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints operation latency percentiles, sale and back-order counters and product table
+     * health, then optionally writes them as JSON for a monitoring script.
+     */
+    private static void showStats() {
+        System.out.println("-- Stats --");
+        service.getMetrics().print(System.out);
+        System.out.print("Dump to file (blank to skip): ");
+        String file = scanner.nextLine().trim();
+        if (file.isEmpty()) {
+            return;
+        }
+        try {
+            service.getMetrics().dump(Path.of(file));
+            System.out.println("Metrics written to " + file);
+        } catch (IOException e) {
+            System.out.println("Failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Displays a menu for viewing products with various filters:
-     * - Sort by price ascending/descending
-     * - Sort by name ascending/descending
+     * - Sort by price ascending/descending (paginated)
+     * - Sort by name ascending/descending (paginated)
      * - Search by name keyword
      * - Search by category
+     * - Filter by price range (paginated)
+     * - Top sellers of the day so far
+     * - Low-stock products, most urgent first
+     * - Sales history of a product, or of every category this month
      * Repeats until user chooses to go back.
      */
     private static void viewProducts() {
         while (true) {
             System.out.println();
             System.out.println("-- View Products --");
-            System.out.println("1.Price ↑  2.Price ↓  3.Name ↑  4.Name ↓  5.Search Name  6.Search Category  7.Back");
+            System.out.println("1.Price ↑  2.Price ↓  3.Name ↑  4.Name ↓  5.Search Name  6.Search Category  7.Price Range  8.Top Sellers  9.Low Stock  10.Sales History  11.Back");
             System.out.print("Select: ");
             String choice = scanner.nextLine().trim();
 
-            // Exit this view menu if user selects "7"
-            if (choice.equals("7")) return;
-
-            // Fetch the list of all products for filtering/sorting
-            List<Product> list = service.getAllProducts();
+            // Exit this view menu if user selects "11"
+            if (choice.equals("11")) return;
 
             switch (choice) {
                 case "1" -> // Sort by price ascending
-                    list.stream()
-                        .sorted((a, b) -> Double.compare(a.getPrice(), b.getPrice()))
-                        .forEach(System.out::println);
+                    browse(service.getProductCount(), page -> service.getProductsByPrice(page, PAGE_SIZE, false));
                 case "2" -> // Sort by price descending
-                    list.stream()
-                        .sorted((a, b) -> Double.compare(b.getPrice(), a.getPrice()))
-                        .forEach(System.out::println);
+                    browse(service.getProductCount(), page -> service.getProductsByPrice(page, PAGE_SIZE, true));
                 case "3" -> // Sort by name ascending (A–Z)
-                    list.stream()
-                        .sorted((a, b) -> a.getName().compareToIgnoreCase(b.getName()))
-                        .forEach(System.out::println);
+                    browse(service.getProductCount(), page -> service.getProductsByName(page, PAGE_SIZE, false));
                 case "4" -> // Sort by name descending (Z–A)
-                    list.stream()
-                        .sorted((a, b) -> b.getName().compareToIgnoreCase(a.getName()))
-                        .forEach(System.out::println);
-                case "5" -> { // Search products by name keyword
+                    browse(service.getProductCount(), page -> service.getProductsByName(page, PAGE_SIZE, true));
+                case "5" -> { // Search products by name keyword (trigram index)
                     System.out.print("Keyword: ");
-                    String kw = scanner.nextLine().trim().toLowerCase();
-                    list.stream()
-                        .filter(p -> p.getName().toLowerCase().contains(kw))
-                        .forEach(System.out::println);
+                    String kw = scanner.nextLine().trim();
+                    List<Product> found = service.searchByName(kw, SEARCH_LIMIT);
+                    found.forEach(System.out::println);
+                    if (found.size() == SEARCH_LIMIT) {
+                        System.out.println("(showing first " + SEARCH_LIMIT + " matches; refine the keyword)");
+                    }
                 }
-                case "6" -> { // Search products by exact category match
+                case "6" -> { // Search products by exact category match (category bitmap)
                     System.out.print("Category: ");
-                    String cat = scanner.nextLine().trim().toLowerCase();
-                    list.stream()
-                        .filter(p -> p.getCategory().toLowerCase().equals(cat))
-                        .forEach(System.out::println);
+                    ProductFilter filter = ProductFilter.category(scanner.nextLine().trim());
+                    List<Product> found = service.findProducts(filter, SEARCH_LIMIT);
+                    found.forEach(System.out::println);
+                    int total = service.countProducts(filter);
+                    if (total > found.size()) {
+                        System.out.println("(showing " + found.size() + " of " + total + " products)");
+                    }
+                }
+                case "7" -> { // Filter products by price range, cheapest first
+                    System.out.print("Min price: ");
+                    double min = parseDouble(true);
+                    if (min < 0) continue; // User typed 'exit'
+                    System.out.print("Max price: ");
+                    double max = parseDouble(true);
+                    if (max < 0) continue; // User typed 'exit'
+                    browse(service.countProductsInPriceRange(min, max),
+                        page -> service.getProductsInPriceRange(min, max, page, PAGE_SIZE));
+                }
+                case "8" -> { // Today's best sellers so far (maintained heap, no rescan)
+                    List<TopSeller> top = service.getTopSellers(SEARCH_LIMIT);
+                    if (top.isEmpty()) {
+                        System.out.println("No sales recorded today.");
+                    }
+                    for (int i = 0; i < top.size(); i++) {
+                        TopSeller t = top.get(i);
+                        System.out.printf("%3d. %s: %d units%s%n", i + 1, t.productId(), t.units(),
+                            t.maxOvercount() > 0 ? " (at most " + t.maxOvercount() + " over)" : "");
+                    }
                 }
+                case "9" -> { // Products at or below their reorder level, most urgent first
+                    List<Product> low = service.getLowStockProducts(SEARCH_LIMIT);
+                    if (low.isEmpty()) {
+                        System.out.println("No products at or below their reorder level.");
+                    }
+                    low.forEach(p -> System.out.println(p + " (reorder at " + p.getReorderLevel() + ")"));
+                }
+                case "10" -> salesHistory(); // Past days' sales from the history rollups
                 default -> System.out.println("Invalid option.");
             }
         }
     }
 
+    /**
+     * Shows a product's units and revenue per hour, day or week, most recent last, or with no
+     * product ID the sales per category since the first of the month.
+     */
+    private static void salesHistory() {
+        System.out.print("Product ID (blank for category sales this month): ");
+        String id = scanner.nextLine().trim();
+        LocalDateTime now = LocalDateTime.now();
+        if (id.isEmpty()) {
+            LocalDate today = now.toLocalDate();
+            Map<String, SalesTotals> byCategory = service.getCategorySales(today.withDayOfMonth(1), today);
+            if (byCategory.isEmpty()) {
+                System.out.println("No sales this month.");
+            }
+            byCategory.forEach((category, t) ->
+                System.out.printf("%s: %d units, %.2f revenue%n", category, t.units(), t.revenueCents() / 100.0));
+            return;
+        }
+        System.out.print("1.Hourly  2.Daily  3.Weekly: ");
+        HistoryResolution resolution = switch (scanner.nextLine().trim()) {
+            case "1" -> HistoryResolution.HOUR;
+            case "3" -> HistoryResolution.WEEK;
+            default -> HistoryResolution.DAY;
+        };
+        System.out.print("Number of periods: ");
+        int periods = parseInt(true);
+        if (periods <= 0) return; // User typed 'exit' (or asked for nothing)
+        int max = service.getMaxHistoryPeriods(resolution);
+        if (periods > max) {
+            System.out.println("Showing the last " + max + " periods (older sales are no longer kept).");
+            periods = max;
+        }
+        SalesTotals[] series = service.getProductHistory(id, resolution, periods);
+        if (series == null) {
+            System.out.println("Product not found.");
+            return;
+        }
+        for (int i = 0; i < periods; i++) {
+            int ago = periods - 1 - i;
+            String label = switch (resolution) {
+                case HOUR -> now.truncatedTo(ChronoUnit.HOURS).minusHours(ago).toString();
+                case DAY -> now.toLocalDate().minusDays(ago).toString();
+                case WEEK -> "week of " + now.toLocalDate().with(DayOfWeek.MONDAY).minusWeeks(ago);
+            };
+            System.out.printf("%-20s %8d units %12.2f%n", label, series[i].units(), series[i].revenueCents() / 100.0);
+        }
+    }
+
+    /**
+     * Prints a result set one page at a time. After each page the user may type
+     * 'n' for the next page, 'p' for the previous page, or anything else to stop.
+     * @param total   number of products in the whole result set
+     * @param fetcher returns the products on a given zero-based page
+     */
+    private static void browse(int total, IntFunction<List<Product>> fetcher) {
+        if (total == 0) {
+            System.out.println("No products.");
+            return;
+        }
+        int pages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+        int page = 0;
+        while (true) {
+            fetcher.apply(page).forEach(System.out::println);
+            System.out.printf("-- Page %d of %d (%d products) --%n", page + 1, pages, total);
+            if (pages == 1) return;
+            System.out.print("n=next, p=previous, other=back: ");
+            String nav = scanner.nextLine().trim().toLowerCase(Locale.ROOT);
+            if (nav.equals("n") && page + 1 < pages) {
+                page++;
+            } else if (nav.equals("p") && page > 0) {
+                page--;
+            } else if (!nav.equals("n") && !nav.equals("p")) {
+                return;
+            }
+        }
+    }
+
     /**
      * Parses an integer from user input. If allowExit is true,
      * typing 'exit' returns -1. Otherwise, loops until a valid integer is entered.
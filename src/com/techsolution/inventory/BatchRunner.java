@@ -0,0 +1,329 @@
+package com.techsolution.inventory;
+
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.persistence.CsvCatalog;
+import com.techsolution.inventory.service.HistoryResolution;
+import com.techsolution.inventory.service.InventoryService;
+import com.techsolution.inventory.service.SalesTotals;
+import com.techsolution.inventory.service.TopSeller;
+import com.techsolution.inventory.util.AsciiNumbers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs inventory commands from a script instead of the interactive menu.
+ * One command per line; blank lines and lines starting with '#' are ignored, command names
+ * are case-insensitive and arguments containing spaces can be double-quoted:
+ * <pre>
+ *   ADD id name category price quantity reorderLevel
+ *   STOCK id quantity
+ *   REMOVE id
+ *   SALE id quantity [discount]
+ *   BACKORDERS            process pending back-orders
+ *   REPORT                end-of-day report (resets the day)
+ *   MIDDAY                snapshot report of the day so far
+ *   TOP n                 the n best sellers of the day so far
+ *   LOWSTOCK n            up to n products at or below their reorder level, most urgent first
+ *   HISTORY id HOUR|DAY|WEEK n   a product's units and revenue (cents) per period, most recent last
+ *   CATEGORYSALES from to        units and revenue (cents) per category for dates from..to (yyyy-mm-dd)
+ *   IMPORT file / EXPORT file
+ *   STATS [file]          print the service metrics, or write them to file as JSON
+ * </pre>
+ * Lines are tokenized in place in a reused byte buffer and numbers are parsed from the bytes,
+ * so only product IDs and names become Strings. All output, including the service's own
+ * messages, goes to one caller-supplied (normally large, non-auto-flushing) buffered stream.
+ */
+public final class BatchRunner {
+    // Bytes read from the input at a time
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+    // Most tokens a command can have
+    private static final int MAX_TOKENS = 8;
+
+    private final InventoryService service;
+    private final PrintStream out;
+
+    // Input buffer and the unread range within it
+    private final byte[] in = new byte[READ_BUFFER_BYTES];
+    private int inPos;
+    private int inEnd;
+    // Current line, with quotes removed, and the bounds of its tokens
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private final int[] tokenStart = new int[MAX_TOKENS];
+    private final int[] tokenEnd = new int[MAX_TOKENS];
+    private int tokens;
+    // Number of commands executed and rejected so far
+    private long commands;
+    private long errors;
+
+    /**
+     * Creates a runner that sends service messages and its own errors to out.
+     * @param service service the commands run against
+     * @param out     destination of all output
+     */
+    public BatchRunner(InventoryService service, PrintStream out) {
+        this.service = service;
+        this.out = out;
+    }
+
+    /**
+     * Executes every command in the input, reporting bad lines and failed commands (such as
+     * an IMPORT of a missing file) and carrying on. The service's output is redirected to
+     * this runner's stream for the run and restored afterwards, even if reading fails.
+     * @param input command script (not closed)
+     * @return number of lines that were rejected or failed
+     * @throws IOException if the input cannot be read
+     */
+    public long run(InputStream input) throws IOException {
+        PrintStream previous = service.getOutput();
+        service.setOutput(out);
+        try {
+            long lineNumber = 0;
+            while (readLine(input)) {
+                lineNumber++;
+                tokenize();
+                if (tokens == 0 || line[tokenStart[0]] == '#') {
+                    continue;
+                }
+                commands++;
+                String error;
+                try {
+                    error = execute();
+                } catch (IOException | RuntimeException e) {
+                    error = "failed: " + e; // One bad command must not end the run
+                }
+                if (error != null) {
+                    errors++;
+                    out.println("line " + lineNumber + ": " + error);
+                }
+            }
+        } finally {
+            out.flush();
+            service.setOutput(previous);
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the number of commands executed (including rejected ones).
+     * @return command count
+     */
+    public long getCommandCount() {
+        return commands;
+    }
+
+    /**
+     * Runs the command on the current line.
+     * @return null on success, otherwise the reason the command was rejected
+     */
+    private String execute() throws IOException {
+        String command = new String(line, tokenStart[0], tokenEnd[0] - tokenStart[0], StandardCharsets.US_ASCII)
+            .toUpperCase(Locale.ROOT);
+        switch (command) {
+            case "SALE" -> {
+                if (tokens != 3 && tokens != 4) return "usage: SALE id quantity [discount]";
+                long qty = number(2);
+                double discount = tokens == 4 ? AsciiNumbers.parseDecimal(line, tokenStart[3], tokenEnd[3]) : 0;
+                if (qty <= 0) return "invalid quantity";
+                if (!(discount >= 0 && discount <= 100)) return "invalid discount";
+                return service.recordSale(text(1), (int) qty, discount) ? null : "unknown product " + text(1);
+            }
+            case "STOCK" -> {
+                if (tokens != 3) return "usage: STOCK id quantity";
+                long qty = number(2);
+                if (qty < 0) return "invalid quantity";
+                return service.updateStock(text(1), (int) qty) ? null : "unknown product " + text(1);
+            }
+            case "ADD" -> {
+                if (tokens != 7) return "usage: ADD id name category price quantity reorderLevel";
+                double price = AsciiNumbers.parseDecimal(line, tokenStart[4], tokenEnd[4]);
+                long qty = number(5);
+                long reorderLevel = number(6);
+                if (!(price >= 0) || qty < 0 || reorderLevel < 0) return "invalid number";
+                service.addProduct(new Product(text(1), text(2), text(3), price, (int) qty, (int) reorderLevel));
+                return null;
+            }
+            case "REMOVE" -> {
+                if (tokens != 2) return "usage: REMOVE id";
+                return service.removeProduct(text(1)) ? null : "unknown product " + text(1);
+            }
+            case "BACKORDERS" -> {
+                if (tokens != 1) return "usage: BACKORDERS";
+                service.processBackOrders();
+            }
+            case "REPORT" -> {
+                if (tokens != 1) return "usage: REPORT";
+                service.generateEndOfDayReport();
+            }
+            case "MIDDAY" -> {
+                if (tokens != 1) return "usage: MIDDAY";
+                service.generateSnapshotReport();
+            }
+            case "TOP" -> {
+                if (tokens != 2) return "usage: TOP n";
+                long n = number(1);
+                if (n < 0) return "invalid count";
+                // No more sellers than products, so the count always fits an int
+                for (TopSeller t : service.getTopSellers((int) Math.min(n, service.getProductCount()))) {
+                    out.println(t.productId() + " " + t.units());
+                }
+            }
+            case "LOWSTOCK" -> {
+                if (tokens != 2) return "usage: LOWSTOCK n";
+                long n = number(1);
+                if (n < 0) return "invalid count";
+                service.getLowStockProducts((int) Math.min(n, service.getProductCount())).forEach(out::println);
+            }
+            case "HISTORY" -> {
+                if (tokens != 4) return "usage: HISTORY id HOUR|DAY|WEEK n";
+                HistoryResolution resolution;
+                try {
+                    resolution = HistoryResolution.valueOf(text(2).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    return "invalid resolution " + text(2);
+                }
+                long n = number(3);
+                if (n <= 0 || n > service.getMaxHistoryPeriods(resolution)) {
+                    return "invalid count (1 to " + service.getMaxHistoryPeriods(resolution) + ")";
+                }
+                SalesTotals[] series = service.getProductHistory(text(1), resolution, (int) n);
+                if (series == null) return "unknown product " + text(1);
+                for (SalesTotals t : series) {
+                    out.println(t.units() + " " + t.revenueCents());
+                }
+            }
+            case "CATEGORYSALES" -> {
+                if (tokens != 3) return "usage: CATEGORYSALES from to";
+                Map<String, SalesTotals> byCategory;
+                try {
+                    byCategory = service.getCategorySales(LocalDate.parse(text(1)), LocalDate.parse(text(2)));
+                } catch (DateTimeParseException e) {
+                    return "invalid date";
+                }
+                byCategory.forEach((category, t) -> out.println(category + " " + t.units() + " " + t.revenueCents()));
+            }
+            case "IMPORT" -> {
+                if (tokens != 2) return "usage: IMPORT file";
+                CsvCatalog.ImportResult result = service.importCsv(Path.of(text(1)));
+                out.println("Imported " + result.imported() + " of " + result.rows() + " rows");
+                result.errors().forEach(e -> out.println("  " + e));
+            }
+            case "EXPORT" -> {
+                if (tokens != 2) return "usage: EXPORT file";
+                out.println("Exported " + service.exportCsv(Path.of(text(1))) + " products");
+            }
+            case "STATS" -> {
+                if (tokens > 2) return "usage: STATS [file]";
+                if (tokens == 2) {
+                    service.getMetrics().dump(Path.of(text(1)));
+                } else {
+                    service.getMetrics().print(out);
+                }
+            }
+            default -> {
+                return "unknown command " + command;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses token i as a non-negative int.
+     * @return the value, or -1 if it is not a valid int
+     */
+    private long number(int i) {
+        long v = AsciiNumbers.parseLong(line, tokenStart[i], tokenEnd[i]);
+        return v > Integer.MAX_VALUE ? -1 : v;
+    }
+
+    private String text(int i) {
+        return new String(line, tokenStart[i], tokenEnd[i] - tokenStart[i], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the next line (without its line terminator) into line.
+     * @return false at end of input
+     */
+    private boolean readLine(InputStream input) throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (inPos == inEnd) {
+                inEnd = input.read(in, 0, in.length);
+                inPos = 0;
+                if (inEnd <= 0) {
+                    inEnd = 0;
+                    return lineLength > 0; // Last line without a newline
+                }
+            }
+            int start = inPos;
+            while (inPos < inEnd && in[inPos] != '\n') {
+                inPos++;
+            }
+            append(start, inPos);
+            if (inPos < inEnd) {
+                inPos++; // Consume the newline
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int to) {
+        int n = to - from;
+        if (lineLength + n > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + n));
+        }
+        System.arraycopy(in, from, line, lineLength, n);
+        lineLength += n;
+    }
+
+    /**
+     * Splits the current line at spaces and tabs. A token starting with a quote runs to the
+     * closing quote; the quotes are removed by shifting the token's bytes left in place.
+     * Tokens past MAX_TOKENS are counted but not recorded.
+     */
+    private void tokenize() {
+        tokens = 0;
+        int pos = 0;
+        while (true) {
+            while (pos < lineLength && (line[pos] == ' ' || line[pos] == '\t')) {
+                pos++;
+            }
+            if (pos >= lineLength) {
+                return;
+            }
+            int start = pos;
+            int end;
+            if (line[pos] == '"') {
+                int write = pos;
+                pos++;
+                while (pos < lineLength && line[pos] != '"') {
+                    line[write++] = line[pos++];
+                }
+                end = write;
+                pos++; // Skip the closing quote (or step past the end if it is missing)
+            } else {
+                while (pos < lineLength && line[pos] != ' ' && line[pos] != '\t') {
+                    pos++;
+                }
+                end = pos;
+            }
+            if (tokens < MAX_TOKENS) {
+                tokenStart[tokens] = start;
+                tokenEnd[tokens] = end;
+            }
+            tokens++;
+        }
+    }
+}
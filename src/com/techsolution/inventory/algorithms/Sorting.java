@@ -1,12 +1,27 @@
 package com.techsolution.inventory.algorithms;
 
+import java.io.Serial;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * Provides a merge sort implementation for integer arrays.
+ * Provides sorting algorithms for integer arrays and object arrays.
  * Merge sort is a divide-and-conquer algorithm with O(n log n) time complexity.
+ * <ul>
+ *   <li>{@link #mergeSort(int[])} - classic top-down merge sort returning a new array</li>
+ *   <li>{@link #bottomUpMergeSort(int[])} - in-place iterative merge sort with a single scratch buffer</li>
+ *   <li>{@link #parallelMergeSort(int[])} - fork/join merge sort for large arrays</li>
+ *   <li>{@link #radixSort(int[])} - LSD radix sort for non-negative keys, O(n) per byte pass</li>
+ *   <li>{@link #sort(Object[], Comparator)} - stable natural merge sort for objects</li>
+ * </ul>
  */
 public class Sorting {
+    // Below this length, sub-arrays are sorted with insertion sort
+    private static final int INSERTION_CUTOFF = 32;
+    // Below this length, the parallel sort stops forking and sorts sequentially
+    private static final int PARALLEL_CUTOFF = 1 << 13;
     /**
      * Recursively sorts an integer array using merge sort.
      * @param arr the input array to sort
@@ -59,4 +74,266 @@ public class Sorting {
         
         return result; // Return the merged, sorted array
     }
+
+    /**
+     * Sorts an integer array in place using iterative (bottom-up) merge sort.
+     * Short runs are first sorted with insertion sort, then merged in passes of doubling width,
+     * alternating between the array and one scratch buffer of the same length.
+     * Allocates O(n) memory in total, instead of O(n log n) for the recursive version.
+     * @param arr the array to sort (modified in place)
+     */
+    public static void bottomUpMergeSort(int[] arr) {
+        if (arr.length <= 1) return;
+        bottomUpMergeSort(arr, new int[arr.length], 0, arr.length);
+    }
+
+    /**
+     * Sorts arr[lo, hi) in place, using scratch[lo, hi) as the merge buffer.
+     */
+    private static void bottomUpMergeSort(int[] arr, int[] scratch, int lo, int hi) {
+        // Sort small fixed-size runs first
+        for (int start = lo; start < hi; start += INSERTION_CUTOFF) {
+            insertionSort(arr, start, Math.min(start + INSERTION_CUTOFF, hi));
+        }
+        int[] src = arr;
+        int[] dst = scratch;
+        for (int width = INSERTION_CUTOFF; width < hi - lo; width <<= 1) {
+            // Merge adjacent runs of length width from src into dst
+            for (int start = lo; start < hi; start += width << 1) {
+                int mid = Math.min(start + width, hi);
+                int end = Math.min(start + (width << 1), hi);
+                mergeRuns(src, start, mid, end, dst);
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != arr) {
+            // Result ended up in the scratch buffer
+            System.arraycopy(src, lo, arr, lo, hi - lo);
+        }
+    }
+
+    /**
+     * Sorts an integer array in place using a fork/join parallel merge sort on the common pool.
+     * Halves are sorted in parallel until they are shorter than a sequential cutoff,
+     * and all merges share one scratch buffer.
+     * @param arr the array to sort (modified in place)
+     */
+    public static void parallelMergeSort(int[] arr) {
+        if (arr.length < PARALLEL_CUTOFF) {
+            bottomUpMergeSort(arr);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new MergeSortTask(arr, new int[arr.length], 0, arr.length));
+    }
+
+    /**
+     * Fork/join task sorting arr[lo, hi) using scratch[lo, hi) as merge space.
+     */
+    private static class MergeSortTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int[] scratch;
+        private final int lo;
+        private final int hi;
+
+        MergeSortTask(int[] arr, int[] scratch, int lo, int hi) {
+            this.arr = arr;
+            this.scratch = scratch;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < PARALLEL_CUTOFF) {
+                bottomUpMergeSort(arr, scratch, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new MergeSortTask(arr, scratch, lo, mid), new MergeSortTask(arr, scratch, mid, hi));
+            if (arr[mid - 1] <= arr[mid]) return; // Halves already in order
+            System.arraycopy(arr, lo, scratch, lo, hi - lo);
+            mergeRuns(scratch, lo, mid, hi, arr);
+        }
+    }
+
+    /**
+     * Sorts an array of non-negative integers in place using LSD (least significant digit)
+     * radix sort with 8-bit digits. Runs in O(n) per byte of the largest key, and skips
+     * byte positions where every key has the same digit.
+     * @param arr the array to sort (modified in place); every element must be &gt;= 0
+     * @throws IllegalArgumentException if arr contains a negative value
+     */
+    public static void radixSort(int[] arr) {
+        int n = arr.length;
+        if (n <= 1) return;
+        int max = 0;
+        for (int v : arr) {
+            if (v < 0) {
+                throw new IllegalArgumentException("radixSort requires non-negative keys: " + v);
+            }
+            max = Math.max(max, v);
+        }
+        int[] src = arr;
+        int[] dst = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32 && (max >>> shift) != 0; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int v : src) {
+                count[((v >>> shift) & 0xFF) + 1]++;
+            }
+            if (count[((src[0] >>> shift) & 0xFF) + 1] == n) {
+                continue; // Every key shares this digit: the pass would not move anything
+            }
+            // Prefix sums turn counts into starting offsets
+            for (int d = 0; d < 256; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int v : src) {
+                dst[count[(v >>> shift) & 0xFF]++] = v;
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    /**
+     * Sorts an object array in place using a stable natural merge sort.
+     * Existing ascending runs (and strictly descending runs, which are reversed) are detected
+     * first, so already-sorted or nearly-sorted input costs close to O(n). Short runs are
+     * extended with insertion sort, then runs are merged pairwise through one scratch buffer.
+     * Equal elements keep their original relative order.
+     * @param arr the array to sort (modified in place)
+     * @param cmp comparator defining the order
+     * @param <T> the element type
+     */
+    public static <T> void sort(T[] arr, Comparator<? super T> cmp) {
+        int n = arr.length;
+        if (n <= 1) return;
+        // Find run boundaries: runEnds[i] is the exclusive end of run i
+        int[] runEnds = new int[n / INSERTION_CUTOFF + 2];
+        int runs = 0;
+        int lo = 0;
+        while (lo < n) {
+            int hi = countRunAndMakeAscending(arr, lo, n, cmp);
+            if (hi - lo < INSERTION_CUTOFF) {
+                // Extend short runs to a minimum length with insertion sort
+                int forced = Math.min(lo + INSERTION_CUTOFF, n);
+                insertionSort(arr, lo, hi, forced, cmp);
+                hi = forced;
+            }
+            if (runs == runEnds.length) {
+                runEnds = Arrays.copyOf(runEnds, runs << 1);
+            }
+            runEnds[runs++] = hi;
+            lo = hi;
+        }
+        if (runs == 1) return;
+
+        @SuppressWarnings("unchecked")
+        T[] scratch = (T[]) new Object[n];
+        T[] src = arr;
+        T[] dst = scratch;
+        while (runs > 1) {
+            // Merge run pairs from src into dst
+            int merged = 0;
+            int start = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int mid = runEnds[r];
+                int end = r + 1 < runs ? runEnds[r + 1] : mid;
+                mergeRuns(src, start, mid, end, dst, cmp);
+                runEnds[merged++] = end;
+                start = end;
+            }
+            runs = merged;
+            T[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+        }
+    }
+
+    /**
+     * Merges sorted ranges src[lo, mid) and src[mid, hi) into dst[lo, hi).
+     */
+    private static void mergeRuns(int[] src, int lo, int mid, int hi, int[] dst) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            dst[k++] = src[i] <= src[j] ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    /**
+     * Stable merge of src[lo, mid) and src[mid, hi) into dst[lo, hi); ties take the left element.
+     */
+    private static <T> void mergeRuns(T[] src, int lo, int mid, int hi, T[] dst, Comparator<? super T> cmp) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            dst[k++] = cmp.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    /**
+     * Sorts arr[lo, hi) with insertion sort.
+     */
+    private static void insertionSort(int[] arr, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int v = arr[i];
+            int j = i - 1;
+            while (j >= lo && arr[j] > v) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = v;
+        }
+    }
+
+    /**
+     * Stable insertion sort of arr[lo, hi), where arr[lo, sorted) is already in order.
+     */
+    private static <T> void insertionSort(T[] arr, int lo, int sorted, int hi, Comparator<? super T> cmp) {
+        for (int i = Math.max(sorted, lo + 1); i < hi; i++) {
+            T v = arr[i];
+            int j = i - 1;
+            while (j >= lo && cmp.compare(arr[j], v) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = v;
+        }
+    }
+
+    /**
+     * Returns the exclusive end of the run starting at lo. A strictly descending run
+     * is reversed so that every run ends up ascending; strictness keeps the sort stable.
+     */
+    private static <T> int countRunAndMakeAscending(T[] arr, int lo, int n, Comparator<? super T> cmp) {
+        int hi = lo + 1;
+        if (hi == n) return hi;
+        if (cmp.compare(arr[hi++], arr[lo]) < 0) {
+            while (hi < n && cmp.compare(arr[hi], arr[hi - 1]) < 0) hi++;
+            for (int i = lo, j = hi - 1; i < j; i++, j--) {
+                T tmp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = tmp;
+            }
+        } else {
+            while (hi < n && cmp.compare(arr[hi], arr[hi - 1]) >= 0) hi++;
+        }
+        return hi;
+    }
 }
@@ -0,0 +1,444 @@
+package com.techsolution.inventory.bench;
+
+import com.techsolution.inventory.ds.ConcurrentHashTable;
+import com.techsolution.inventory.metrics.LatencyHistogram;
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.service.InventoryService;
+import com.techsolution.inventory.service.TopSeller;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Black-Friday-style load against one InventoryService: tens of thousands of virtual threads
+ * act as checkout clients, each repeatedly picking an operation by weight and a product from
+ * a Zipfian or uniform distribution, until the run ends.
+ * <p>
+ * Operations: SALE (recordSale of 1-3 units), RESTOCK (updateStock back to the opening
+ * stock), BACKORDERS (processBackOrders) and REPORT (the mid-day snapshot report; the
+ * end-of-day report is left out because it resets the day's totals the checks rely on).
+ * updateStock sets an absolute level, so to know exactly how many units it supplied a client
+ * restocks only a sold-out product (nothing can take stock from it meanwhile), and only one
+ * client restocks a given product at a time; a RESTOCK that picks a product still in stock
+ * does nothing.
+ * Throughput is printed every second; after the run comes client-side latency per operation
+ * (including lock waits and scheduling, unlike the service's own metrics), then these checks:
+ * <ul>
+ *   <li>no oversell: no client ever saw a negative stock, and none is left at the end;</li>
+ *   <li>no lost sale: every accepted sale was either sold or back-ordered, and the pending
+ *       back-order count matches;</li>
+ *   <li>no lost update: for every product,
+ *       opening stock + units restocked - final stock = units sold;</li>
+ *   <li>after a final generous restock no back-order is left and units sold = units accepted.</li>
+ * </ul>
+ * Exits with status 1 if any check fails.
+ * <p>
+ * Usage: java com.techsolution.inventory.bench.LoadGenerator [--option=value ...]
+ * <pre>
+ *   --clients=20000        concurrent checkout clients (one virtual thread each)
+ *   --seconds=10           measured duration, after --warmup=2 seconds
+ *   --products=10000       catalog size; --stock=1000 opening stock per product
+ *   --dist=zipf            zipf or uniform; --zipf-exponent=1.0
+ *   --sale=90 --restock=3 --backorders=2 --report=1   operation weights
+ *   --think-us=0           mean pause between a client's operations, in microseconds
+ * </pre>
+ */
+public class LoadGenerator {
+    // Operations in the mix, indexing weights, histograms and counters
+    private static final String[] OPERATIONS = {"SALE", "RESTOCK", "BACKORDERS", "REPORT"};
+    private static final int SALE = 0;
+    private static final int RESTOCK = 1;
+    private static final int BACKORDERS = 2;
+    private static final int REPORT = 3;
+
+    // Run settings, from the command line
+    private final int clients;
+    private final int seconds;
+    private final int warmup;
+    private final int productCount;
+    private final int stock;
+    private final int[] weights = new int[OPERATIONS.length];
+    private final int totalWeight;
+    private final long thinkNanos;
+    // Cumulative Zipf weights for inverse-CDF sampling, or null for uniform picks
+    private final double[] zipfCdf;
+    // Product index of each Zipf rank: a fixed shuffle, so hot products are not neighbours
+    private final int[] rankToIndex;
+
+    private final InventoryService service;
+    private final Product[] products;
+    // 1 while a client is restocking the product, and units restocked per product
+    private final AtomicIntegerArray restocking;
+    private final AtomicLongArray restocked;
+
+    // Client-side latency per operation, measured after the warmup
+    private final LatencyHistogram[] latency = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder operations = new LongAdder();
+    // Sales the service accepted (sold or back-ordered), and the units they asked for
+    private final LongAdder salesAccepted = new LongAdder();
+    private final LongAdder unitsAccepted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder negativeStockSeen = new LongAdder();
+    // First exception thrown by the service to any client, which then stops
+    private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+    private volatile boolean running = true;
+    private volatile boolean measuring;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                System.err.println("Bad argument (expected --option=value): " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadGenerator generator = new LoadGenerator(options);
+        if (!options.isEmpty()) {
+            System.err.println("Unknown options: " + options.keySet());
+            System.exit(2);
+        }
+        boolean passed = generator.run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Reads the settings (removing each recognised option from the map) and builds the catalog.
+     */
+    private LoadGenerator(Map<String, String> options) {
+        clients = intOption(options, "clients", 20_000);
+        seconds = intOption(options, "seconds", 10);
+        warmup = intOption(options, "warmup", 2);
+        productCount = intOption(options, "products", 10_000);
+        stock = intOption(options, "stock", 1_000);
+        weights[SALE] = intOption(options, "sale", 90);
+        weights[RESTOCK] = intOption(options, "restock", 3);
+        weights[BACKORDERS] = intOption(options, "backorders", 2);
+        weights[REPORT] = intOption(options, "report", 1);
+        thinkNanos = intOption(options, "think-us", 0) * 1_000L;
+        String dist = options.getOrDefault("dist", "zipf");
+        options.remove("dist");
+        double exponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        options.remove("zipf-exponent");
+        zipfCdf = switch (dist) {
+            case "zipf" -> zipfCdf(productCount, exponent);
+            case "uniform" -> null;
+            default -> throw new IllegalArgumentException("--dist must be zipf or uniform");
+        };
+        rankToIndex = shuffledIndexes(productCount, 42);
+        int sum = 0;
+        for (int w : weights) {
+            sum += w;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("at least one operation weight must be positive");
+        }
+        totalWeight = sum;
+
+        service = new InventoryService(new ConcurrentHashTable<>(productCount * 2));
+        service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        products = new Product[productCount];
+        restocking = new AtomicIntegerArray(productCount);
+        restocked = new AtomicLongArray(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products[i] = new Product(String.format("P%07d", i), "Item " + i, "Cat" + i % 16, 1 + i % 100,
+                stock, stock / 10);
+            service.addProduct(products[i]);
+        }
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            latency[op] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Runs the load, prints throughput, latency and the checks.
+     * @return true if every check passed
+     */
+    private boolean run() throws InterruptedException {
+        System.out.printf("%d clients, %d products (%s), %d s after %d s warmup, mix %s%n",
+            clients, productCount, zipfCdf == null ? "uniform" : "zipf", seconds, warmup, mix());
+        long measuredOps;
+        long measuredNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(this::client);
+            }
+            TimeUnit.SECONDS.sleep(warmup);
+            measuring = true;
+            long begin = System.nanoTime();
+            long startOps = operations.sum();
+            long last = startOps;
+            long slowest = Long.MAX_VALUE;
+            for (int s = 1; s <= seconds; s++) {
+                TimeUnit.SECONDS.sleep(1);
+                long now = operations.sum();
+                slowest = Math.min(slowest, now - last);
+                System.out.printf("%5d s %12d ops/s   pending back-orders %d%n",
+                    s, now - last, service.getPendingBackOrderCount());
+                last = now;
+            }
+            measuredNanos = System.nanoTime() - begin;
+            measuredOps = last - startOps;
+            running = false;
+            System.out.printf("sustained %.0f ops/s (slowest second %d)%n",
+                measuredOps / (measuredNanos / 1e9), slowest == Long.MAX_VALUE ? 0 : slowest);
+        } // Waits for every client to finish its current operation
+
+        System.out.println();
+        System.out.printf("%-12s %10s %10s %10s %10s %10s%n", "Latency (us)", "count", "p50", "p99", "p999", "max");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            LatencyHistogram h = latency[op];
+            System.out.printf("%-12s %10d %10.1f %10.1f %10.1f %10.1f%n", OPERATIONS[op], h.count(),
+                h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.percentile(0.999) / 1e3, h.max() / 1e3);
+        }
+        System.out.println();
+        return check();
+    }
+
+    /**
+     * One checkout client: picks an operation and a product, calls the service, repeats.
+     * Executor tasks swallow exceptions, so the first one is kept for the checks.
+     */
+    private void client() {
+        try {
+            runClient();
+        } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    private void runClient() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            int op = pickOperation(random);
+            int index = pickProduct(random);
+            Product p = products[index];
+            long start = System.nanoTime();
+            switch (op) {
+                case SALE -> {
+                    int qty = 1 + random.nextInt(3);
+                    if (service.recordSale(p.getId(), qty, 0)) {
+                        salesAccepted.increment();
+                        unitsAccepted.add(qty);
+                    } else {
+                        failures.increment();
+                    }
+                }
+                case RESTOCK -> {
+                    if (!restock(index)) {
+                        continue; // Still in stock or being restocked: nothing to do
+                    }
+                }
+                case BACKORDERS -> service.processBackOrders();
+                default -> service.generateSnapshotReport();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (measuring) {
+                latency[op].record(elapsed);
+            }
+            operations.increment();
+            if (p.getQuantity() < 0) {
+                negativeStockSeen.increment();
+            }
+            if (thinkNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(random.nextLong(2 * thinkNanos));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Restocks a product to the opening stock if it is sold out and no other client is
+     * restocking it, adding the units to its restocked total.
+     * @return true if updateStock was called
+     */
+    private boolean restock(int index) {
+        Product p = products[index];
+        if (p.getQuantity() != 0 || !restocking.compareAndSet(index, 0, 1)) {
+            return false;
+        }
+        try {
+            if (p.getQuantity() != 0) {
+                return false; // Another client restocked it first
+            }
+            restocked.addAndGet(index, stock);
+            if (!service.updateStock(p.getId(), stock)) {
+                failures.increment();
+            }
+            return true;
+        } finally {
+            restocking.set(index, 0);
+        }
+    }
+
+    /**
+     * Checks the service's books against what the clients did, once every client has stopped.
+     * @return true if every check passed
+     */
+    private boolean check() {
+        List<String> problems = new ArrayList<>();
+        if (error.get() != null) {
+            problems.add("a client failed: " + error.get());
+            error.get().printStackTrace();
+        }
+        if (failures.sum() > 0) {
+            problems.add(failures.sum() + " calls rejected a known product");
+        }
+        if (negativeStockSeen.sum() > 0) {
+            problems.add("clients saw negative stock " + negativeStockSeen.sum() + " times");
+        }
+        Map<String, Long> sold = unitsSold();
+        long restocks = 0;
+        for (int i = 0; i < productCount; i++) {
+            Product p = products[i];
+            long supplied = stock + restocked.get(i);
+            long units = sold.getOrDefault(p.getId(), 0L);
+            restocks += restocked.get(i) / Math.max(1, stock);
+            if (p.getQuantity() < 0) {
+                problems.add(p.getId() + " oversold: stock " + p.getQuantity());
+            } else if (supplied - p.getQuantity() != units) {
+                problems.add(p.getId() + " sold " + units + " units but stock fell by " + (supplied - p.getQuantity()));
+            }
+        }
+        long recorded = service.getMetrics().counter("sales.recorded").sum();
+        long queued = service.getMetrics().counter("backOrders.queued").sum();
+        long fulfilled = service.getMetrics().counter("backOrders.fulfilled").sum();
+        if (recorded - fulfilled + queued != salesAccepted.sum()) {
+            problems.add(salesAccepted.sum() + " sales accepted but " + recorded + " recorded, " + queued
+                + " back-ordered and " + fulfilled + " of those fulfilled");
+        }
+        if (service.getPendingBackOrderCount() != queued - fulfilled) {
+            problems.add("pending back-orders " + service.getPendingBackOrderCount() + ", expected " + (queued - fulfilled));
+        }
+        System.out.printf("%d sales accepted (%d units), %d back-ordered, %d still pending, %d restocks%n",
+            salesAccepted.sum(), unitsAccepted.sum(), queued, service.getPendingBackOrderCount(), restocks);
+
+        // Restock everything far beyond demand: every waiting back-order must now be served
+        for (Product p : products) {
+            service.updateStock(p.getId(), Integer.MAX_VALUE / 2);
+        }
+        long total = 0;
+        for (long units : unitsSold().values()) {
+            total += units;
+        }
+        if (service.getPendingBackOrderCount() != 0) {
+            problems.add(service.getPendingBackOrderCount() + " back-orders left after the final restock");
+        }
+        if (total != unitsAccepted.sum()) {
+            problems.add("after the final restock " + total + " units sold of " + unitsAccepted.sum() + " accepted");
+        }
+
+        if (problems.isEmpty()) {
+            System.out.println("PASS: no oversell, no lost sale, no lost stock update");
+            return true;
+        }
+        System.out.println("FAIL:");
+        for (int i = 0; i < Math.min(problems.size(), 20); i++) {
+            System.out.println("  " + problems.get(i));
+        }
+        if (problems.size() > 20) {
+            System.out.println("  ... and " + (problems.size() - 20) + " more");
+        }
+        return false;
+    }
+
+    /**
+     * Units sold so far of every product that sold any, by product ID.
+     */
+    private Map<String, Long> unitsSold() {
+        Map<String, Long> sold = new HashMap<>();
+        for (TopSeller t : service.getTopSellers(productCount)) {
+            sold.put(t.productId(), t.units());
+        }
+        return sold;
+    }
+
+    private int pickOperation(ThreadLocalRandom random) {
+        int r = random.nextInt(totalWeight);
+        int op = 0;
+        while (r >= weights[op]) {
+            r -= weights[op++];
+        }
+        return op;
+    }
+
+    /**
+     * Draws a product index, uniformly or by inverse-CDF sampling of the Zipf weights.
+     */
+    private int pickProduct(ThreadLocalRandom random) {
+        if (zipfCdf == null) {
+            return random.nextInt(productCount);
+        }
+        double u = random.nextDouble() * zipfCdf[productCount - 1];
+        int lo = 0;
+        int hi = productCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (zipfCdf[mid] < u) lo = mid + 1; else hi = mid;
+        }
+        return rankToIndex[lo];
+    }
+
+    /**
+     * A seeded random permutation of 0..n-1 (Fisher-Yates).
+     */
+    private static int[] shuffledIndexes(int n, long seed) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    /**
+     * Cumulative weights 1/1^s, 1/2^s, ..., 1/n^s.
+     */
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += Math.pow(k + 1, -exponent);
+            cdf[k] = sum;
+        }
+        return cdf;
+    }
+
+    private String mix() {
+        StringBuilder sb = new StringBuilder();
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            if (op > 0) sb.append(' ');
+            sb.append(OPERATIONS[op].toLowerCase(Locale.ROOT)).append('=').append(weights[op]);
+        }
+        return sb.toString();
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.remove(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.techsolution.inventory.bench;
+
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.RobinHoodHashTable;
+import com.techsolution.inventory.ds.Table;
+import com.techsolution.inventory.model.OffHeapProductStore;
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.service.InventoryService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Compares a catalog held as Product objects in the chained HashTable and in the
+ * open-addressing RobinHoodHashTable with the same catalog in an OffHeapProductStore.
+ * For each catalog size it reports the heap retained per product by the table alone and by
+ * an InventoryService over it (with every secondary index built), the bytes held off-heap
+ * per product, the time of a full collection with the service live, and the average time
+ * to look a product up and take one unit of its stock.
+ * <p>
+ * Usage: java -Xmx8g -XX:MaxDirectMemorySize=8g com.techsolution.inventory.bench.ProductStoreFootprint [n ...]
+ * (defaults to 1,000,000 and 5,000,000 products).
+ */
+public class ProductStoreFootprint {
+    // Lookups timed per measurement round
+    private static final int LOOKUPS = 2_000_000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0
+            ? new int[] {1_000_000, 5_000_000}
+            : java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%-12s %10s %12s %14s %14s %12s %12s%n", "store", "products",
+            "table B/prod", "service B/prod", "off-heap B/prod", "full GC ms", "sale ns/op");
+        for (int n : sizes) {
+            String[] keys = new String[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = String.format("P%08d", i);
+            }
+            run("chained", keys, () -> new HashTable<>(16));
+            run("robin-hood", keys, () -> new RobinHoodHashTable<>(16));
+            run("off-heap", keys, OffHeapProductStore::new);
+        }
+    }
+
+    private static void run(String name, String[] keys, Supplier<Table<String, Product>> factory) {
+        int n = keys.length;
+        long before = usedHeap();
+        Table<String, Product> table = factory.get();
+        for (int i = 0; i < n; i++) {
+            table.put(keys[i], product(keys[i], i));
+        }
+        long tableRetained = usedHeap() - before;
+        if (table.size() != n) {
+            throw new IllegalStateException(name + " size mismatch: " + table.size());
+        }
+        table = null; // Let the table-only catalog go before measuring the service
+
+        before = usedHeap();
+        table = factory.get();
+        InventoryService service = new InventoryService(table);
+        service.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        for (int i = 0; i < n; i++) {
+            service.addProduct(product(keys[i], i));
+        }
+        service.getProductsByPrice(0, 1, false); // Make sure every secondary index is built
+        long serviceRetained = usedHeap() - before;
+        long gcMillis = fullGcMillis();
+        long offHeap = table instanceof OffHeapProductStore store ? store.offHeapBytes() : 0;
+
+        sales(table, keys); // Warm up
+        long saleNanos = sales(table, keys);
+
+        System.out.printf("%-12s %10d %12.1f %14.1f %14.1f %12d %12.1f%n", name, n, (double) tableRetained / n,
+            (double) serviceRetained / n, (double) offHeap / n, gcMillis, (double) saleNanos / LOOKUPS);
+        if (service.getProductCount() != n) {
+            throw new IllegalStateException(name + " size mismatch: " + service.getProductCount());
+        }
+    }
+
+    /**
+     * Creates product i with new name and category strings, as a CSV import would.
+     */
+    private static Product product(String id, int i) {
+        return new Product(id, "Product number " + i, "Category " + (i % 200), 1 + i % 1000 / 100.0, 1_000_000, 10);
+    }
+
+    /**
+     * Looks up random products and takes one unit of each.
+     * @return elapsed nanoseconds
+     */
+    private static long sales(Table<String, Product> table, String[] keys) {
+        long sink = 0;
+        int x = 0x9E3779B9;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            sink += table.get(keys[(x & Integer.MAX_VALUE) % keys.length]).tryDecrement(1);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink < 0) {
+            System.out.println(sink); // Keep the JIT from discarding the loop
+        }
+        return elapsed;
+    }
+
+    /**
+     * @return collection time of one System.gc, as reported by the collectors
+     */
+    private static long fullGcMillis() {
+        long before = collectionMillis();
+        System.gc();
+        return collectionMillis() - before;
+    }
+
+    private static long collectionMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,197 @@
+package com.techsolution.inventory.ds;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A generic FIFO (first-in, first-out) queue backed by a growable circular array.
+ * Offers the same enqueue/dequeue/isEmpty/size operations as Queue, but stores elements
+ * directly in the array, so enqueueing allocates nothing unless the array has to grow.
+ * Enqueue and dequeue run in O(1) time (amortized for enqueue); peek and forEach let the
+ * back-order code inspect the queue without removing anything.
+ * <p>
+ * Besides single-element operations it supports bulk enqueueAll/drainTo and an in-place
+ * single pass, removeMatching(), which removes the elements a predicate accepts and keeps
+ * the rest in their original order, without dequeueing and re-enqueueing them.
+ * @param <T> the type of elements held in the queue
+ */
+public class ArrayQueue<T> {
+    // Capacity used when none is given
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Circular element storage; length is always a power of two
+    private Object[] elements;
+    // Index of the front (head) element
+    private int head;
+    // Number of elements currently in the queue
+    private int size;
+
+    /**
+     * Constructs an empty queue with a default initial capacity of 16.
+     */
+    public ArrayQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty queue able to hold the given number of elements before growing.
+     * @param capacity initial capacity (should be a positive integer)
+     */
+    public ArrayQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        elements = new Object[capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+    }
+
+    /**
+     * Adds an item to the rear of the queue.
+     * @param item the element to enqueue
+     */
+    public void enqueue(T item) {
+        ensureCapacity(size + 1);
+        elements[(head + size) & (elements.length - 1)] = item;
+        size++;
+    }
+
+    /**
+     * Adds every item of the collection to the rear of the queue, in iteration order.
+     * The array grows at most once for the whole batch.
+     * @param items the elements to enqueue
+     */
+    public void enqueueAll(Collection<? extends T> items) {
+        ensureCapacity(size + items.size());
+        int mask = elements.length - 1;
+        for (T item : items) {
+            elements[(head + size) & mask] = item;
+            size++;
+        }
+    }
+
+    /**
+     * Removes and returns the item at the front of the queue.
+     * @return the dequeued element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T dequeue() {
+        if (size == 0) {
+            return null; // Queue is empty
+        }
+        T data = (T) elements[head];
+        elements[head] = null; // Let the element be garbage collected
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return data;
+    }
+
+    /**
+     * Returns the item at the front of the queue without removing it.
+     * @return the front element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) elements[head];
+    }
+
+    /**
+     * Removes up to maxItems elements from the front of the queue and adds them to target
+     * in FIFO order.
+     * @param target   collection receiving the drained elements
+     * @param maxItems maximum number of elements to move
+     * @return the number of elements moved
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super T> target, int maxItems) {
+        int n = Math.min(maxItems, size);
+        int mask = elements.length - 1;
+        for (int i = 0; i < n; i++) {
+            target.add((T) elements[head]);
+            elements[head] = null;
+            head = (head + 1) & mask;
+        }
+        size -= n;
+        return n;
+    }
+
+    /**
+     * Calls action for every element in FIFO order without removing anything.
+     * The action must not modify this queue.
+     * @param action receives each element
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        int mask = elements.length - 1;
+        for (int i = 0; i < size; i++) {
+            action.accept((T) elements[(head + i) & mask]);
+        }
+    }
+
+    /**
+     * Visits every element once in FIFO order and removes those for which remove returns true.
+     * Remaining elements are compacted in place and keep their relative order, as if every
+     * element had been dequeued and the survivors re-enqueued, but without moving them
+     * through the ends of the queue. The predicate must not modify this queue.
+     * @param remove predicate deciding whether an element leaves the queue
+     * @return the number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    public int removeMatching(Predicate<? super T> remove) {
+        int mask = elements.length - 1;
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            T item = (T) elements[(head + read) & mask];
+            if (!remove.test(item)) {
+                // Keep the element: slide it back over any removed slots
+                elements[(head + write) & mask] = item;
+                write++;
+            }
+        }
+        // Clear the slots vacated at the rear
+        for (int i = write; i < size; i++) {
+            elements[(head + i) & mask] = null;
+        }
+        int removed = size - write;
+        size = write;
+        return removed;
+    }
+
+    /**
+     * Returns true if the queue has no elements.
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of items currently in the queue.
+     * @return the size of the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grows the array (doubling) until it can hold minCapacity elements, unwrapping
+     * the circular contents so that the head moves to index 0.
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= elements.length) {
+            return;
+        }
+        if (minCapacity < 0 || minCapacity > (1 << 30)) {
+            throw new IllegalStateException("ArrayQueue cannot hold " + minCapacity + " elements");
+        }
+        int capacity = elements.length;
+        while (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        Object[] grown = new Object[capacity];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.techsolution.inventory.ds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe generic hash table using lock striping and separate chaining.
+ * The key space is split into a fixed number of stripes, each with its own bucket array
+ * and lock, so writers to different stripes never contend.
+ * <p>
+ * Reads never lock: bucket heads are published through an AtomicReferenceArray and chain
+ * links and values are volatile, so get() sees every completed put/remove. Writers lock only
+ * their stripe. The entry count is kept in a LongAdder so that concurrent inserts do not
+ * fight over a single counter.
+ * <p>
+ * values() is weakly consistent: it never throws and never blocks writers, and it reflects
+ * every update completed before it started, but it may or may not see updates made while
+ * it runs.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class ConcurrentHashTable<K, V> implements Table<K, V> {
+    /**
+     * Represents a key-value pair stored in a bucket chain.
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V val;
+        volatile Node<K, V> next;
+
+        Node(K key, int hash, V val, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.val = val;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One independently locked portion of the table.
+     * Each stripe grows its own bucket array when its entry count passes its threshold.
+     */
+    private static final class Stripe<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        // Bucket heads; replaced (never mutated in place) when the stripe grows
+        volatile AtomicReferenceArray<Node<K, V>> buckets;
+        // Entries in this stripe; only read and written under lock
+        int count;
+        // Entry count at which this stripe doubles its bucket array
+        int threshold;
+
+        Stripe(int capacity) {
+            buckets = new AtomicReferenceArray<>(capacity);
+            threshold = capacity * 3 / 4;
+        }
+    }
+
+    // Default number of stripes (independent locks)
+    private static final int DEFAULT_STRIPES = 64;
+
+    // Fixed array of stripes; the top bits of a key's hash pick its stripe
+    private final Stripe<K, V>[] stripes;
+    // Number of high hash bits used to pick a stripe
+    private final int stripeShift;
+    // Number of key-value pairs currently stored, striped across cells
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs a new ConcurrentHashTable with the given initial total capacity
+     * spread over 64 stripes.
+     * @param capacity expected number of buckets overall (should be a positive integer)
+     */
+    public ConcurrentHashTable(int capacity) {
+        this(capacity, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructs a new ConcurrentHashTable with the given initial total capacity and stripe count.
+     * Both values are rounded up to powers of two.
+     * @param capacity    expected number of buckets overall (should be a positive integer)
+     * @param stripeCount number of independent locks (should be a positive integer)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentHashTable(int capacity, int stripeCount) {
+        if (capacity <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("Capacity and stripe count must be positive");
+        }
+        int n = powerOfTwo(Math.min(stripeCount, 1 << 16));
+        stripes = (Stripe<K, V>[]) new Stripe[n];
+        int perStripe = powerOfTwo(Math.max(2, capacity / n));
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+        stripeShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * Mixes the key's hashCode with the MurmurHash3 32-bit finalizer.
+     * @param key the key to hash
+     * @return the mixed hash value
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private Stripe<K, V> stripeFor(int h) {
+        // Shifting an int by 32 is a no-op in Java, so a single stripe needs a special case
+        return stripes.length == 1 ? stripes[0] : stripes[h >>> stripeShift];
+    }
+
+    /**
+     * Inserts or updates a key-value pair, locking only the key's stripe.
+     * @param key the key to insert or update
+     * @param value the value to associate with the key
+     */
+    @Override
+    public void put(K key, V value) {
+        int h = hash(key);
+        Stripe<K, V> stripe = stripeFor(h);
+        stripe.lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> buckets = stripe.buckets;
+            int index = h & (buckets.length() - 1);
+            Node<K, V> head = buckets.get(index);
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                if (node.hash == h && node.key.equals(key)) {
+                    // Overwrite the existing value
+                    node.val = value;
+                    return;
+                }
+            }
+            // Key not found: publish a new head node for this bucket
+            buckets.set(index, new Node<>(key, h, value, head));
+            size.increment();
+            if (++stripe.count > stripe.threshold) {
+                grow(stripe);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the value associated with the given key without locking.
+     * @param key the key to look up
+     * @return the value associated with the key, or null if not found
+     */
+    @Override
+    public V get(K key) {
+        int h = hash(key);
+        AtomicReferenceArray<Node<K, V>> buckets = stripeFor(h).buckets;
+        for (Node<K, V> node = buckets.get(h & (buckets.length() - 1)); node != null; node = node.next) {
+            if (node.hash == h && node.key.equals(key)) {
+                return node.val;
+            }
+        }
+        return null; // Key not found
+    }
+
+    /**
+     * Removes the key-value pair for the specified key, locking only the key's stripe.
+     * A reader already positioned on the removed node can still follow its next link.
+     * @param key the key to remove
+     * @return the removed value, or null if the key was not present
+     */
+    @Override
+    public V remove(K key) {
+        int h = hash(key);
+        Stripe<K, V> stripe = stripeFor(h);
+        stripe.lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> buckets = stripe.buckets;
+            int index = h & (buckets.length() - 1);
+            Node<K, V> prev = null;
+            for (Node<K, V> node = buckets.get(index); node != null; prev = node, node = node.next) {
+                if (node.hash == h && node.key.equals(key)) {
+                    if (prev == null) {
+                        buckets.set(index, node.next);
+                    } else {
+                        prev.next = node.next;
+                    }
+                    stripe.count--;
+                    size.decrement();
+                    return node.val;
+                }
+            }
+            return null; // Key not found
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent snapshot list of all values, without locking any stripe.
+     * @return a List containing every value seen while traversing the table
+     */
+    @Override
+    public List<V> values() {
+        List<V> allValues = new ArrayList<>(size());
+        for (Stripe<K, V> stripe : stripes) {
+            AtomicReferenceArray<Node<K, V>> buckets = stripe.buckets;
+            for (int i = 0; i < buckets.length(); i++) {
+                for (Node<K, V> node = buckets.get(i); node != null; node = node.next) {
+                    allValues.add(node.val);
+                }
+            }
+        }
+        return allValues;
+    }
+
+    /**
+     * Returns the number of key-value pairs currently in the hash table.
+     * Under concurrent updates this is a moment-in-time estimate.
+     * @return size of the hash table
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, size.sum());
+    }
+
+    /**
+     * Doubles a stripe's bucket array. Called with the stripe lock held.
+     * Nodes are copied rather than relinked so that lock-free readers still traversing
+     * the old array keep seeing intact chains.
+     */
+    private static <K, V> void grow(Stripe<K, V> stripe) {
+        AtomicReferenceArray<Node<K, V>> old = stripe.buckets;
+        int capacity = old.length() << 1;
+        if (capacity <= 0) {
+            stripe.threshold = Integer.MAX_VALUE;
+            return;
+        }
+        AtomicReferenceArray<Node<K, V>> grown = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < old.length(); i++) {
+            for (Node<K, V> node = old.get(i); node != null; node = node.next) {
+                int index = node.hash & (capacity - 1);
+                grown.set(index, new Node<>(node.key, node.hash, node.val, grown.get(index)));
+            }
+        }
+        stripe.buckets = grown;
+        stripe.threshold = capacity * 3 / 4;
+    }
+
+    private static int powerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
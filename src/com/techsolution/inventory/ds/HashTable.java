@@ -7,49 +7,135 @@ import java.util.List;
  * A simple generic hash table implementation using separate chaining for collision handling.
  * Keys are hashed to an index to determine which bucket (linked list) stores the key-value pair.
  * Provides average-case O(1) time for insert, lookup, and removal, assuming a good hash distribution.
+ * <p>
+ * The table grows automatically once the number of entries exceeds {@code capacity * loadFactor}.
+ * Growth is incremental: a bucket array of twice the size is allocated, and every subsequent
+ * put/get/remove migrates a few buckets from the old array to the new one. No single operation
+ * ever pays for rehashing the whole table.
  * @param <K> the type of keys
  * @param <V> the type of values
  */
-public class HashTable<K, V> {
+public class HashTable<K, V> implements Table<K, V> {
     /**
      * Represents a key-value pair stored in a bucket.
      */
     private static class Node<K, V> {
-        K key;
+        final K key;
+        final int hash;
         V val;
 
-        Node(K key, V val) {
+        Node(K key, int hash, V val) {
             this.key = key;
+            this.hash = hash;
             this.val = val;
         }
     }
 
-    // Array of buckets; each bucket is a linked list of Node<K, V>
-    @SuppressWarnings("unchecked")
-    private final List<Node<K, V>>[] buckets;
+    /**
+     * Bucket occupancy of a table at one moment, for monitoring.
+     * @param buckets         bucket count of the current array (old array excluded)
+     * @param nonEmptyBuckets buckets holding at least one entry, in either array
+     * @param longestChain    entries in the fullest bucket
+     * @param loadFactor      entries per bucket of the current array
+     */
+    public record ChainStats(int buckets, int nonEmptyBuckets, int longestChain, double loadFactor) {}
+
+    /**
+     * Told when an incremental resize starts and when its migration ends, for monitoring.
+     * Called on the thread whose operation started or finished the resize.
+     */
+    public interface ResizeListener {
+        /**
+         * @param oldCapacity bucket count of the array being drained
+         * @param newCapacity bucket count of the new array
+         * @param entries     entries in the table when the resize started
+         */
+        void resizeStarted(int oldCapacity, int newCapacity, int entries);
+
+        /**
+         * @param steps table operations that each migrated part of the old array
+         */
+        void resizeFinished(int steps);
+    }
+
+    // Load factor used when none is given
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    // Number of buckets migrated from the old array per operation while resizing
+    private static final int REHASH_STEP = 4;
+    // Largest power-of-two bucket count an array can hold
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Array of buckets; each bucket is a linked list of Node<K, V> (null until first used)
+    private List<Node<K, V>>[] buckets;
+    // Bucket array being drained during an incremental resize, or null when not resizing
+    private List<Node<K, V>>[] oldBuckets;
+    // Next bucket index of oldBuckets to migrate
+    private int rehashIndex;
+    // Operations that have migrated part of the old array in the resize in progress
+    private int rehashSteps;
+    // Told about every resize, or null
+    private ResizeListener resizeListener;
+    // Maximum entries / buckets ratio before the table grows
+    private final double loadFactor;
+    // Entry count at which the next resize starts
+    private int threshold;
     // Number of key-value pairs currently stored in the hash table
     private int size;
 
     /**
-     * Constructs a new HashTable with the specified initial bucket capacity.
+     * Constructs a new HashTable with the specified initial bucket capacity
+     * and the default load factor of 0.75.
      * @param capacity number of buckets (should be a positive integer)
      */
-    @SuppressWarnings("unchecked")
     public HashTable(int capacity) {
-        buckets = new LinkedList[capacity];
-        for (int i = 0; i < capacity; i++) {
-            buckets[i] = new LinkedList<>();
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new HashTable with the specified initial bucket capacity and load factor.
+     * The capacity is rounded up to the next power of two.
+     * @param capacity   number of buckets (should be a positive integer)
+     * @param loadFactor entries-per-bucket ratio that triggers growth (must be positive)
+     */
+    public HashTable(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
         }
+        if (!(loadFactor > 0)) {
+            throw new IllegalArgumentException("Load factor must be positive: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        buckets = newBuckets(tableSizeFor(capacity));
+        threshold = thresholdFor(buckets.length);
         size = 0;
     }
 
     /**
-     * Computes the bucket index for a given key by hashing the key and taking modulus by bucket count.
+     * Mixes the bits of the key's hashCode so that keys differing only in their low bits
+     * (such as sequential IDs "P001", "P002", ...) spread across the whole table.
+     * Uses the MurmurHash3 32-bit finalizer.
      * @param key the key to hash
+     * @return the mixed hash value
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Computes the bucket index for a hash in a power-of-two sized array.
+     * Masking keeps the index non-negative for every hash, including Integer.MIN_VALUE.
+     * @param hash   mixed hash of the key
+     * @param length bucket array length (a power of two)
      * @return index of the bucket where this key should reside
      */
-    private int hash(K key) {
-        return Math.abs(key.hashCode()) % buckets.length;
+    private static int indexFor(int hash, int length) {
+        return hash & (length - 1);
     }
 
     /**
@@ -58,20 +144,22 @@ public class HashTable<K, V> {
      * @param key the key to insert or update
      * @param value the value to associate with the key
      */
+    @Override
     public void put(K key, V value) {
-        int index = hash(key);
-        List<Node<K, V>> bucket = buckets[index];
-        // Check if the key already exists in this bucket
-        for (Node<K, V> node : bucket) {
-            if (node.key.equals(key)) {
-                // Overwrite the existing value
-                node.val = value;
-                return;
-            }
+        rehashStep();
+        int h = hash(key);
+        Node<K, V> node = findNode(key, h);
+        if (node != null) {
+            // Overwrite the existing value
+            node.val = value;
+            return;
         }
-        // Key not found: add new node to this bucket
-        bucket.add(new Node<>(key, value));
+        // Key not found: add new node to the current bucket array
+        addNode(buckets, new Node<>(key, h, value));
         size++;
+        if (oldBuckets == null && size > threshold) {
+            startResize();
+        }
     }
 
     /**
@@ -79,14 +167,11 @@ public class HashTable<K, V> {
      * @param key the key to look up
      * @return the value associated with the key, or null if not found
      */
+    @Override
     public V get(K key) {
-        int index = hash(key);
-        for (Node<K, V> node : buckets[index]) {
-            if (node.key.equals(key)) {
-                return node.val;
-            }
-        }
-        return null; // Key not found
+        rehashStep();
+        Node<K, V> node = findNode(key, hash(key));
+        return node == null ? null : node.val; // null if key not found
     }
 
     /**
@@ -94,18 +179,18 @@ public class HashTable<K, V> {
      * @param key the key to remove
      * @return the removed value, or null if the key was not present
      */
+    @Override
     public V remove(K key) {
-        int index = hash(key);
-        List<Node<K, V>> bucket = buckets[index];
-        for (Node<K, V> node : bucket) {
-            if (node.key.equals(key)) {
-                V removedValue = node.val;
-                bucket.remove(node);
-                size--;
-                return removedValue;
-            }
+        rehashStep();
+        int h = hash(key);
+        V removedValue = removeNode(oldBuckets, key, h);
+        if (removedValue == null) {
+            removedValue = removeNode(buckets, key, h);
         }
-        return null; // Key not found
+        if (removedValue != null) {
+            size--;
+        }
+        return removedValue;
     }
 
     /**
@@ -113,13 +198,11 @@ public class HashTable<K, V> {
      * Useful for iterating, e.g., to display all stored products.
      * @return a List containing every value in the hash table
      */
+    @Override
     public List<V> values() {
         List<V> allValues = new LinkedList<>();
-        for (List<Node<K, V>> bucket : buckets) {
-            for (Node<K, V> node : bucket) {
-                allValues.add(node.val);
-            }
-        }
+        collectValues(oldBuckets, allValues);
+        collectValues(buckets, allValues);
         return allValues;
     }
 
@@ -127,7 +210,193 @@ public class HashTable<K, V> {
      * Returns the number of key-value pairs currently in the hash table.
      * @return size of the hash table
      */
+    @Override
     public int size() {
         return size;
     }
+
+    /**
+     * Returns the number of buckets in the current (newest) bucket array.
+     * @return bucket count
+     */
+    public int capacity() {
+        return buckets.length;
+    }
+
+    /**
+     * Returns true while an incremental resize is still migrating buckets.
+     * @return true if resizing, false otherwise
+     */
+    public boolean isResizing() {
+        return oldBuckets != null;
+    }
+
+    /**
+     * Sets the listener told about each resize from now on; null removes it. A listener set
+     * while a resize is in progress is told only when it finishes.
+     * @param listener the listener, or null
+     */
+    public void setResizeListener(ResizeListener listener) {
+        resizeListener = listener;
+    }
+
+    /**
+     * Measures chain lengths by visiting every bucket, including those of an old array still
+     * being migrated; costs O(capacity), so it is meant for occasional monitoring only.
+     * @return the table's current chain statistics
+     */
+    public ChainStats chainStats() {
+        int[] counts = new int[2]; // Non-empty buckets, longest chain
+        countChains(buckets, counts);
+        countChains(oldBuckets, counts);
+        return new ChainStats(buckets.length, counts[0], counts[1], (double) size / buckets.length);
+    }
+
+    /**
+     * Looks the key up in the not-yet-migrated part of the old array, then in the current array.
+     */
+    private Node<K, V> findNode(K key, int h) {
+        if (oldBuckets != null) {
+            int index = indexFor(h, oldBuckets.length);
+            if (index >= rehashIndex) {
+                Node<K, V> node = findInBucket(oldBuckets[index], key, h);
+                if (node != null) {
+                    return node;
+                }
+            }
+        }
+        return findInBucket(buckets[indexFor(h, buckets.length)], key, h);
+    }
+
+    private static <K, V> Node<K, V> findInBucket(List<Node<K, V>> bucket, K key, int h) {
+        if (bucket == null) {
+            return null;
+        }
+        for (Node<K, V> node : bucket) {
+            // Compare cached hashes first to skip most equals() calls
+            if (node.hash == h && node.key.equals(key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static <K, V> V removeNode(List<Node<K, V>>[] table, K key, int h) {
+        if (table == null) {
+            return null;
+        }
+        List<Node<K, V>> bucket = table[indexFor(h, table.length)];
+        Node<K, V> node = findInBucket(bucket, key, h);
+        if (node == null) {
+            return null;
+        }
+        bucket.remove(node);
+        return node.val;
+    }
+
+    private static <K, V> void addNode(List<Node<K, V>>[] table, Node<K, V> node) {
+        int index = indexFor(node.hash, table.length);
+        if (table[index] == null) {
+            table[index] = new LinkedList<>();
+        }
+        table[index].add(node);
+    }
+
+    private static <K, V> void countChains(List<Node<K, V>>[] table, int[] counts) {
+        if (table == null) {
+            return;
+        }
+        for (List<Node<K, V>> bucket : table) {
+            if (bucket != null && !bucket.isEmpty()) {
+                counts[0]++;
+                counts[1] = Math.max(counts[1], bucket.size());
+            }
+        }
+    }
+
+    private static <K, V> void collectValues(List<Node<K, V>>[] table, List<V> out) {
+        if (table == null) {
+            return;
+        }
+        for (List<Node<K, V>> bucket : table) {
+            if (bucket == null) {
+                continue;
+            }
+            for (Node<K, V> node : bucket) {
+                out.add(node.val);
+            }
+        }
+    }
+
+    /**
+     * Begins an incremental resize by allocating a bucket array twice as large.
+     * Existing entries stay in the old array until rehashStep() moves them.
+     */
+    private void startResize() {
+        if (buckets.length >= MAX_CAPACITY) {
+            threshold = Integer.MAX_VALUE; // Cannot grow further; let chains lengthen
+            return;
+        }
+        oldBuckets = buckets;
+        rehashIndex = 0;
+        rehashSteps = 0;
+        buckets = newBuckets(oldBuckets.length << 1);
+        threshold = thresholdFor(buckets.length);
+        if (resizeListener != null) {
+            resizeListener.resizeStarted(oldBuckets.length, buckets.length, size);
+        }
+    }
+
+    /**
+     * Migrates up to REHASH_STEP non-empty buckets from the old array into the current one.
+     * Empty buckets are skipped cheaply, but at most REHASH_STEP * 10 of them per call so that
+     * a sparse old array cannot turn one operation into a long scan.
+     */
+    private void rehashStep() {
+        if (oldBuckets == null) {
+            return;
+        }
+        rehashSteps++;
+        int moved = 0;
+        int emptyVisits = REHASH_STEP * 10;
+        while (moved < REHASH_STEP && rehashIndex < oldBuckets.length) {
+            List<Node<K, V>> bucket = oldBuckets[rehashIndex];
+            if (bucket == null || bucket.isEmpty()) {
+                oldBuckets[rehashIndex++] = null;
+                if (--emptyVisits == 0) {
+                    break;
+                }
+                continue;
+            }
+            for (Node<K, V> node : bucket) {
+                addNode(buckets, node);
+            }
+            oldBuckets[rehashIndex++] = null;
+            moved++;
+        }
+        if (rehashIndex >= oldBuckets.length) {
+            // Migration finished: release the old array
+            oldBuckets = null;
+            rehashIndex = 0;
+            if (resizeListener != null) {
+                resizeListener.resizeFinished(rehashSteps);
+            }
+        }
+    }
+
+    private int thresholdFor(int capacity) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (capacity * loadFactor));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> List<Node<K, V>>[] newBuckets(int capacity) {
+        return (List<Node<K, V>>[]) new List[capacity];
+    }
 }
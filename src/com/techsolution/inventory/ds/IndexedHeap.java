@@ -0,0 +1,278 @@
+package com.techsolution.inventory.ds;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of non-negative int keys (such as product ordinals), each with a long
+ * priority, that also records every key's position in the heap. The position index lets
+ * a key's priority be changed or the key be removed in O(log n) without searching for it,
+ * which a plain priority queue cannot do.
+ * <p>
+ * The heap is a min-heap or a max-heap depending on the constructor; "best" below means
+ * smallest or largest priority accordingly. Ties between equal priorities are broken by
+ * the smaller key, so the order is deterministic.
+ */
+public class IndexedHeap {
+    // True for a max-heap, false for a min-heap
+    private final boolean maxFirst;
+    // Keys in heap order (heap[0] is the best)
+    private int[] heap = new int[16];
+    // Priority of heap[i]
+    private long[] priorities = new long[16];
+    // Position of each key in heap, or -1 if the key is absent
+    private int[] positions = new int[0];
+    // Number of keys in the heap
+    private int size;
+
+    /**
+     * Constructs an empty heap.
+     * @param maxFirst true to keep the largest priority on top, false for the smallest
+     */
+    public IndexedHeap(boolean maxFirst) {
+        this.maxFirst = maxFirst;
+    }
+
+    /**
+     * Inserts a key, or changes its priority if it is already present.
+     * @param key      a non-negative key
+     * @param priority the key's new priority
+     */
+    public void set(int key, long priority) {
+        if (key >= positions.length) {
+            int old = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(key + 1, old << 1));
+            Arrays.fill(positions, old, positions.length, -1);
+        }
+        int i = positions[key];
+        if (i < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size << 1);
+                priorities = Arrays.copyOf(priorities, size << 1);
+            }
+            i = size++;
+            heap[i] = key;
+            positions[key] = i;
+        }
+        priorities[i] = priority;
+        siftDown(siftUp(i));
+    }
+
+    /**
+     * Removes a key if present.
+     * @param key the key to remove
+     * @return true if the key was in the heap
+     */
+    public boolean remove(int key) {
+        if (!contains(key)) {
+            return false;
+        }
+        int i = positions[key];
+        positions[key] = -1;
+        size--;
+        if (i != size) {
+            // Fill the hole with the last element and restore the heap around it
+            heap[i] = heap[size];
+            priorities[i] = priorities[size];
+            positions[heap[i]] = i;
+            siftDown(siftUp(i));
+        }
+        return true;
+    }
+
+    /**
+     * @param key a key
+     * @return true if the key is in the heap
+     */
+    public boolean contains(int key) {
+        return key >= 0 && key < positions.length && positions[key] >= 0;
+    }
+
+    /**
+     * @param key a key in the heap
+     * @return the key's priority
+     * @throws IllegalArgumentException if the key is not in the heap
+     */
+    public long priority(int key) {
+        if (!contains(key)) {
+            throw new IllegalArgumentException("Key not in heap: " + key);
+        }
+        return priorities[positions[key]];
+    }
+
+    /**
+     * @return the best key, or -1 if the heap is empty
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * @return the best priority (only meaningful when the heap is not empty)
+     */
+    public long peekPriority() {
+        return priorities[0];
+    }
+
+    /**
+     * @return number of keys in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the heap has no keys
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns up to k keys in best-first order without modifying the heap. Explores the heap
+     * from the root with a small frontier heap of candidate positions, so the cost is
+     * O(k log k) however large the heap is.
+     * @param k maximum number of keys returned
+     * @return the best keys, best first
+     */
+    public int[] top(int k) {
+        k = Math.min(k, size);
+        int[] result = new int[k];
+        if (k == 0) {
+            return result;
+        }
+        // Frontier of heap positions, itself a binary heap ordered like this one
+        int[] frontier = new int[2 * k + 1];
+        int frontierSize = 0;
+        frontier[frontierSize++] = 0;
+        for (int n = 0; n < k; n++) {
+            int pos = frontier[0];
+            result[n] = heap[pos];
+            // Replace the taken position with its children
+            frontier[0] = frontier[--frontierSize];
+            siftDownPositions(frontier, frontierSize, 0);
+            for (int child = 2 * pos + 1; child <= 2 * pos + 2 && child < size; child++) {
+                frontier[frontierSize] = child;
+                siftUpPositions(frontier, frontierSize++);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns every key whose priority equals the best priority. Only the part of the heap
+     * holding tied keys is visited, so the cost is O(number of ties).
+     * @return the tied best keys in no particular order (empty if the heap is empty)
+     */
+    public int[] topTies() {
+        if (size == 0) {
+            return new int[0];
+        }
+        long best = priorities[0];
+        int[] result = new int[4];
+        int count = 0;
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int pos = stack[--depth];
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count << 1);
+            }
+            result[count++] = heap[pos];
+            for (int child = 2 * pos + 1; child <= 2 * pos + 2 && child < size; child++) {
+                if (priorities[child] == best) {
+                    // A child that differs from the best can have no tied descendants
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth << 1);
+                    }
+                    stack[depth++] = child;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns true if the entry at position a belongs above the entry at position b.
+     */
+    private boolean better(int a, int b) {
+        if (priorities[a] != priorities[b]) {
+            return maxFirst ? priorities[a] > priorities[b] : priorities[a] < priorities[b];
+        }
+        return heap[a] < heap[b];
+    }
+
+    private int siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+        return i;
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int child = left + 1 < size && better(left + 1, left) ? left + 1 : left;
+            if (!better(child, i)) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int key = heap[a];
+        heap[a] = heap[b];
+        heap[b] = key;
+        long priority = priorities[a];
+        priorities[a] = priorities[b];
+        priorities[b] = priority;
+        positions[heap[a]] = a;
+        positions[heap[b]] = b;
+    }
+
+    private void siftUpPositions(int[] f, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(f[i], f[parent])) {
+                break;
+            }
+            int t = f[i]; f[i] = f[parent]; f[parent] = t;
+            i = parent;
+        }
+    }
+
+    private void siftDownPositions(int[] f, int n, int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) {
+                return;
+            }
+            int child = left + 1 < n && better(f[left + 1], f[left]) ? left + 1 : left;
+            if (!better(f[child], f[i])) {
+                return;
+            }
+            int t = f[i]; f[i] = f[child]; f[child] = t;
+            i = child;
+        }
+    }
+}
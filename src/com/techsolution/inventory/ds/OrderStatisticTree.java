@@ -0,0 +1,291 @@
+package com.techsolution.inventory.ds;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A sorted collection of distinct elements backed by a treap (a randomized balanced binary
+ * search tree) whose nodes also record their subtree size. The sizes make positional queries
+ * cheap: finding the element at a given rank, or counting the elements below a bound, takes
+ * O(log n) expected time, so a page of k elements starting anywhere costs O(log n + k).
+ * <p>
+ * Elements are ordered by the comparator given at construction, which must be consistent
+ * for the lifetime of each element and must never report two distinct elements as equal.
+ * @param <T> the type of elements held in the tree
+ */
+public class OrderStatisticTree<T> {
+    /**
+     * Tree node holding one element, its random heap priority and its subtree size.
+     */
+    private static class Node<T> {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    // Defines the order of elements
+    private final Comparator<? super T> comparator;
+    // Root of the treap (null when empty)
+    private Node<T> root;
+    // State of the xorshift generator producing node priorities
+    private int seed = 0x2545F491;
+
+    /**
+     * Constructs an empty tree ordered by the given comparator.
+     * @param comparator total order over the elements
+     */
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Inserts an element. Does nothing if an equal element is already present.
+     * @param value the element to insert
+     * @return true if the element was added
+     */
+    public boolean add(T value) {
+        int before = size();
+        root = insert(root, value);
+        return size() > before;
+    }
+
+    /**
+     * Removes the element equal to value, if present.
+     * @param value the element to remove
+     * @return true if an element was removed
+     */
+    public boolean remove(T value) {
+        int before = size();
+        root = delete(root, value);
+        return size() < before;
+    }
+
+    /**
+     * Returns the number of elements in the tree.
+     * @return size of the tree
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the element at the given zero-based rank in ascending order.
+     * @param rank position of the element (0 = smallest)
+     * @return the element at that rank
+     * @throws IndexOutOfBoundsException if rank is not in [0, size)
+     */
+    public T get(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of range for size " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.value;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Counts the elements that lie below a bound. The bound is described by a function that
+     * returns a negative number for elements below it and zero or more otherwise; it must be
+     * monotone with respect to the tree's order.
+     * @param belowBound probe returning &lt; 0 for elements under the bound
+     * @return number of elements under the bound (also the rank of the first element at or above it)
+     */
+    public int countBelow(ToIntFunction<? super T> belowBound) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (belowBound.applyAsInt(node.value) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns up to limit elements in ascending order, starting at the given rank.
+     * Runs in O(log n + limit).
+     * @param fromRank rank of the first element returned
+     * @param limit    maximum number of elements returned
+     * @return the elements, smallest first
+     */
+    public List<T> ascending(int fromRank, int limit) {
+        List<T> out = new ArrayList<>(Math.max(0, Math.min(limit, size() - fromRank)));
+        if (fromRank < 0 || fromRank >= size() || limit <= 0) {
+            return out;
+        }
+        // Path from the root to the start element; nodes still to visit after their left subtree
+        List<Node<T>> stack = new ArrayList<>();
+        Node<T> node = root;
+        int rank = fromRank;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                stack.add(node);
+                node = node.left;
+            } else if (rank == leftSize) {
+                stack.add(node);
+                break;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        while (!stack.isEmpty() && out.size() < limit) {
+            node = stack.remove(stack.size() - 1);
+            out.add(node.value);
+            // In-order successor: leftmost node of the right subtree
+            for (Node<T> n = node.right; n != null; n = n.left) {
+                stack.add(n);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns up to limit elements in descending order, starting at the given rank counted
+     * from the largest element (rank 0 = largest). Runs in O(log n + limit).
+     * @param fromRank rank, from the top, of the first element returned
+     * @param limit    maximum number of elements returned
+     * @return the elements, largest first
+     */
+    public List<T> descending(int fromRank, int limit) {
+        List<T> out = new ArrayList<>(Math.max(0, Math.min(limit, size() - fromRank)));
+        if (fromRank < 0 || fromRank >= size() || limit <= 0) {
+            return out;
+        }
+        List<Node<T>> stack = new ArrayList<>();
+        Node<T> node = root;
+        int rank = fromRank;
+        while (node != null) {
+            int rightSize = size(node.right);
+            if (rank < rightSize) {
+                stack.add(node);
+                node = node.right;
+            } else if (rank == rightSize) {
+                stack.add(node);
+                break;
+            } else {
+                rank -= rightSize + 1;
+                node = node.left;
+            }
+        }
+        while (!stack.isEmpty() && out.size() < limit) {
+            node = stack.remove(stack.size() - 1);
+            out.add(node.value);
+            // In-order predecessor: rightmost node of the left subtree
+            for (Node<T> n = node.left; n != null; n = n.right) {
+                stack.add(n);
+            }
+        }
+        return out;
+    }
+
+    private Node<T> insert(Node<T> node, T value) {
+        if (node == null) {
+            return new Node<>(value, nextPriority());
+        }
+        int c = comparator.compare(value, node.value);
+        if (c == 0) {
+            return node; // Already present
+        }
+        if (c < 0) {
+            node.left = insert(node.left, value);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, value);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null; // Not present
+        }
+        int c = comparator.compare(value, node.value);
+        if (c < 0) {
+            node.left = delete(node.left, value);
+        } else if (c > 0) {
+            node.right = delete(node.right, value);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two treaps where every element of a precedes every element of b.
+     */
+    private Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> l = node.left;
+        node.left = l.right;
+        l.right = node;
+        update(node);
+        update(l);
+        return l;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> r = node.right;
+        node.right = r.left;
+        r.left = node;
+        update(node);
+        update(r);
+        return r;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static <T> int size(Node<T> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
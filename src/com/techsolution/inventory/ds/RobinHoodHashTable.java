@@ -0,0 +1,273 @@
+package com.techsolution.inventory.ds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generic hash table using open addressing with Robin Hood linear probing.
+ * Keys, cached hashes and values live in three parallel flat arrays, so a lookup touches
+ * a few adjacent slots instead of following linked-list nodes, and no per-entry objects
+ * are allocated on insert.
+ * <p>
+ * Robin Hood probing: while inserting, an entry that has travelled further from its home
+ * slot than the resident entry takes that slot, and the resident continues probing. This
+ * keeps probe lengths short and lets a failed lookup stop as soon as it meets an entry
+ * closer to home than the search distance. Removal uses backward-shift deletion, so no
+ * tombstones are left behind.
+ * <p>
+ * The table doubles when it exceeds its load factor. Unlike HashTable, growth rehashes all
+ * entries at once, so callers expecting large tables should pass a suitable initial capacity.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class RobinHoodHashTable<K, V> implements Table<K, V> {
+    // Load factor used when none is given
+    private static final double DEFAULT_LOAD_FACTOR = 0.8;
+    // Largest power-of-two slot count an array can hold
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Key stored in each slot (null when the slot is empty)
+    private Object[] keys;
+    // Cached mixed hash of each slot's key; 0 marks an empty slot
+    private int[] hashes;
+    // Value stored in each slot
+    private Object[] vals;
+    // Slot count minus one (slot count is a power of two)
+    private int mask;
+    // Maximum entries / slots ratio before the table grows
+    private final double loadFactor;
+    // Entry count at which the next resize happens
+    private int threshold;
+    // Number of key-value pairs currently stored in the hash table
+    private int size;
+
+    /**
+     * Constructs a new RobinHoodHashTable with the specified initial slot capacity
+     * and the default load factor of 0.8.
+     * @param capacity number of slots (should be a positive integer)
+     */
+    public RobinHoodHashTable(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new RobinHoodHashTable with the specified initial slot capacity and load factor.
+     * The capacity is rounded up to the next power of two.
+     * @param capacity   number of slots (should be a positive integer)
+     * @param loadFactor entries-per-slot ratio that triggers growth (between 0 and 1, exclusive of 0)
+     */
+    public RobinHoodHashTable(int capacity, double loadFactor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(capacity));
+    }
+
+    /**
+     * Mixes the key's hashCode with the MurmurHash3 32-bit finalizer.
+     * Zero is reserved for empty slots, so a mixed hash of zero is remapped to one.
+     * @param key the key to hash
+     * @return a non-zero mixed hash value
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Returns how many slots past its home slot the entry with hash h sits at slot index.
+     */
+    private int probeDistance(int h, int index) {
+        return (index - (h & mask)) & mask;
+    }
+
+    /**
+     * Inserts or updates a key-value pair in the hash table.
+     * If the key already exists, its associated value is overwritten.
+     * @param key the key to insert or update
+     * @param value the value to associate with the key
+     */
+    @Override
+    public void put(K key, V value) {
+        int h = hash(key);
+        int index = findSlot(key, h);
+        if (index >= 0) {
+            // Overwrite the existing value
+            vals[index] = value;
+            return;
+        }
+        if (size >= threshold) {
+            resize();
+        }
+        insert(key, h, value);
+        size++;
+    }
+
+    /**
+     * Retrieves the value associated with the given key, or null if the key is not present.
+     * @param key the key to look up
+     * @return the value associated with the key, or null if not found
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int index = findSlot(key, hash(key));
+        return index < 0 ? null : (V) vals[index]; // null if key not found
+    }
+
+    /**
+     * Removes the key-value pair for the specified key from the hash table.
+     * Later entries of the same probe run are shifted back one slot to close the gap.
+     * @param key the key to remove
+     * @return the removed value, or null if the key was not present
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int index = findSlot(key, hash(key));
+        if (index < 0) {
+            return null; // Key not found
+        }
+        V removedValue = (V) vals[index];
+        // Backward-shift deletion: pull following displaced entries one slot closer to home
+        int next = (index + 1) & mask;
+        while (hashes[next] != 0 && probeDistance(hashes[next], next) > 0) {
+            keys[index] = keys[next];
+            hashes[index] = hashes[next];
+            vals[index] = vals[next];
+            index = next;
+            next = (next + 1) & mask;
+        }
+        keys[index] = null;
+        hashes[index] = 0;
+        vals[index] = null;
+        size--;
+        return removedValue;
+    }
+
+    /**
+     * Returns a list of all values currently stored in the hash table.
+     * @return a List containing every value in the hash table
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> allValues = new ArrayList<>(size);
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != 0) {
+                allValues.add((V) vals[i]);
+            }
+        }
+        return allValues;
+    }
+
+    /**
+     * Returns the number of key-value pairs currently in the hash table.
+     * @return size of the hash table
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the backing arrays.
+     * @return slot count
+     */
+    public int capacity() {
+        return hashes.length;
+    }
+
+    /**
+     * Finds the slot holding key, or returns -1 if absent.
+     * The probe stops early at an empty slot or at an entry closer to home than the current distance.
+     */
+    private int findSlot(Object key, int h) {
+        int index = h & mask;
+        for (int dist = 0; ; dist++) {
+            int slotHash = hashes[index];
+            if (slotHash == 0 || probeDistance(slotHash, index) < dist) {
+                return -1;
+            }
+            if (slotHash == h && key.equals(keys[index])) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Places a key known to be absent, displacing entries that are closer to home.
+     */
+    private void insert(Object key, int h, Object value) {
+        int index = h & mask;
+        int dist = 0;
+        while (true) {
+            int slotHash = hashes[index];
+            if (slotHash == 0) {
+                keys[index] = key;
+                hashes[index] = h;
+                vals[index] = value;
+                return;
+            }
+            int slotDist = probeDistance(slotHash, index);
+            if (slotDist < dist) {
+                // Resident is "richer" (closer to home): take its slot and carry it onward
+                Object k = keys[index];
+                Object v = vals[index];
+                keys[index] = key;
+                hashes[index] = h;
+                vals[index] = value;
+                key = k;
+                h = slotHash;
+                value = v;
+                dist = slotDist;
+            }
+            index = (index + 1) & mask;
+            dist++;
+        }
+    }
+
+    /**
+     * Doubles the slot arrays and re-inserts every entry.
+     */
+    private void resize() {
+        if (hashes.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("RobinHoodHashTable cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldVals = vals;
+        allocate(oldHashes.length << 1);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                insert(oldKeys[i], oldHashes[i], oldVals[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        vals = new Object[capacity];
+        mask = capacity - 1;
+        // Always leave at least one empty slot so probes terminate
+        threshold = (int) Math.min(capacity - 1L, (long) (capacity * loadFactor));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+}
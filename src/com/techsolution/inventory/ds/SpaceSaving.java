@@ -0,0 +1,146 @@
+package com.techsolution.inventory.ds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate heavy-hitter counting in fixed memory (the Space-Saving algorithm of
+ * Metwally, Agrawal and El Abbadi). At most m keys are monitored at a time; when a new key
+ * arrives and all m counters are taken, the key with the smallest count is evicted and the
+ * newcomer inherits that count as its possible overestimate.
+ * <p>
+ * Guarantees, for a stream whose weights sum to N: every key whose true total exceeds N/m is
+ * monitored, and a monitored key's reported count overestimates its true total by at most
+ * its reported error (which is at most N/m). Each update costs O(log m).
+ * @param <K> the type of keys counted
+ */
+public class SpaceSaving<K> {
+    /**
+     * A monitored key with its estimated total and the most that estimate can exceed the truth.
+     * @param <K> the type of the key
+     */
+    public record Counter<K>(K key, long count, long error) {}
+
+    // Maximum number of monitored keys
+    private final int capacity;
+    // Counter slot of each monitored key
+    private final Table<K, Integer> slots;
+    // Key, count and overestimate per slot
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    // Slots ordered by count, smallest first, to find the eviction victim
+    private final IndexedHeap byCount = new IndexedHeap(false);
+    // Number of slots in use
+    private int used;
+
+    /**
+     * Constructs a counter monitoring at most capacity keys.
+     * @param capacity number of counters (should be a positive integer)
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        slots = new HashTable<>(capacity * 2);
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+    }
+
+    /**
+     * Adds weight occurrences of key to the stream.
+     * @param key    the key observed
+     * @param weight a positive weight (e.g. units sold)
+     */
+    public void add(K key, long weight) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            if (used < capacity) {
+                slot = used++;
+                errors[slot] = 0;
+                counts[slot] = 0;
+            } else {
+                // Evict the smallest counter; the newcomer may have had up to its count before
+                slot = byCount.peek();
+                @SuppressWarnings("unchecked")
+                K evicted = (K) keys[slot];
+                slots.remove(evicted);
+                errors[slot] = counts[slot];
+            }
+            keys[slot] = key;
+            slots.put(key, slot);
+        }
+        counts[slot] += weight;
+        byCount.set(slot, counts[slot]);
+    }
+
+    /**
+     * Monitors a key with a count and error taken from another counter, as when reloading a
+     * saved one. Restoring every counter of a counter with the same capacity, in any order,
+     * gives a counter that continues the same stream with the same guarantees.
+     * @param key   a key not yet monitored
+     * @param count its estimated total
+     * @param error the most count can exceed the true total
+     * @throws IllegalStateException if the key is already monitored or every counter is taken
+     */
+    public void restore(K key, long count, long error) {
+        if (used == capacity || slots.get(key) != null) {
+            throw new IllegalStateException("Cannot restore counter for " + key);
+        }
+        int slot = used++;
+        keys[slot] = key;
+        counts[slot] = count;
+        errors[slot] = error;
+        slots.put(key, slot);
+        byCount.set(slot, count);
+    }
+
+    /**
+     * Returns up to k monitored keys with the largest estimated counts, largest first.
+     * Costs O(m + k log m).
+     * @param k maximum number of counters returned
+     * @return the counters
+     */
+    @SuppressWarnings("unchecked")
+    public List<Counter<K>> top(int k) {
+        // Re-rank the slots largest first; m is small by construction
+        IndexedHeap largest = new IndexedHeap(true);
+        for (int s = 0; s < used; s++) {
+            largest.set(s, counts[s]);
+        }
+        List<Counter<K>> result = new ArrayList<>();
+        for (int s : largest.top(k)) {
+            result.add(new Counter<>((K) keys[s], counts[s], errors[s]));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of keys currently monitored
+     */
+    public int size() {
+        return used;
+    }
+
+    /**
+     * @return maximum number of keys monitored
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Forgets every key.
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        for (int s = 0; s < used; s++) {
+            slots.remove((K) keys[s]);
+            keys[s] = null;
+        }
+        byCount.clear();
+        used = 0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.techsolution.inventory.ds;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative integers stored as a paged bitmap.
+ * The bit space is split into pages of 65,536 bits (1,024 longs); a page is only allocated
+ * once one of its bits is set and is released again when its last bit is cleared, so long
+ * empty stretches cost one null reference per page instead of 8 KB.
+ * <p>
+ * The set operations (and, or, andNot) work a 64-bit word at a time and skip pages that
+ * are empty on the relevant side, which makes combining large sets far cheaper than testing
+ * elements one by one.
+ */
+public class SparseBitmap {
+    // log2 of the number of bits in a page
+    private static final int PAGE_SHIFT = 16;
+    // Number of 64-bit words in a page
+    private static final int WORDS_PER_PAGE = 1 << (PAGE_SHIFT - 6);
+
+    // Lazily allocated pages of words (null = all bits clear)
+    private long[][] pages;
+    // Number of set bits in each page
+    private int[] pageCounts;
+    // Total number of set bits
+    private int cardinality;
+
+    /**
+     * Constructs an empty bitmap.
+     */
+    public SparseBitmap() {
+        pages = new long[1][];
+        pageCounts = new int[1];
+    }
+
+    /**
+     * Adds a value to the set.
+     * @param value a non-negative integer
+     * @return true if the value was not already present
+     */
+    public boolean set(int value) {
+        int p = value >>> PAGE_SHIFT;
+        if (p >= pages.length) {
+            int length = Math.max(p + 1, pages.length << 1);
+            pages = Arrays.copyOf(pages, length);
+            pageCounts = Arrays.copyOf(pageCounts, length);
+        }
+        long[] page = pages[p];
+        if (page == null) {
+            page = pages[p] = new long[WORDS_PER_PAGE];
+        }
+        int w = (value >>> 6) & (WORDS_PER_PAGE - 1);
+        long bit = 1L << value; // Shift distance is taken mod 64
+        if ((page[w] & bit) != 0) {
+            return false;
+        }
+        page[w] |= bit;
+        pageCounts[p]++;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes a value from the set, releasing its page if it becomes empty.
+     * @param value a non-negative integer
+     * @return true if the value was present
+     */
+    public boolean clear(int value) {
+        int p = value >>> PAGE_SHIFT;
+        if (p >= pages.length || pages[p] == null) {
+            return false;
+        }
+        long[] page = pages[p];
+        int w = (value >>> 6) & (WORDS_PER_PAGE - 1);
+        long bit = 1L << value;
+        if ((page[w] & bit) == 0) {
+            return false;
+        }
+        page[w] &= ~bit;
+        cardinality--;
+        if (--pageCounts[p] == 0) {
+            pages[p] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the value is in the set.
+     * @param value a non-negative integer
+     * @return true if present
+     */
+    public boolean get(int value) {
+        int p = value >>> PAGE_SHIFT;
+        if (p >= pages.length || pages[p] == null) {
+            return false;
+        }
+        return (pages[p][(value >>> 6) & (WORDS_PER_PAGE - 1)] & (1L << value)) != 0;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     * @return set size
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns true if the set has no values.
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in both this and other.
+     * @param other the bitmap to intersect with
+     * @return the intersection
+     */
+    public SparseBitmap and(SparseBitmap other) {
+        SparseBitmap result = new SparseBitmap(Math.min(pages.length, other.pages.length));
+        for (int p = 0; p < result.pages.length; p++) {
+            long[] a = pages[p];
+            long[] b = other.pages[p];
+            if (a == null || b == null) {
+                continue;
+            }
+            long[] page = new long[WORDS_PER_PAGE];
+            int count = 0;
+            for (int w = 0; w < WORDS_PER_PAGE; w++) {
+                page[w] = a[w] & b[w];
+                count += Long.bitCount(page[w]);
+            }
+            result.putPage(p, page, count);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in this, other, or both.
+     * @param other the bitmap to unite with
+     * @return the union
+     */
+    public SparseBitmap or(SparseBitmap other) {
+        SparseBitmap result = new SparseBitmap(Math.max(pages.length, other.pages.length));
+        for (int p = 0; p < result.pages.length; p++) {
+            long[] a = p < pages.length ? pages[p] : null;
+            long[] b = p < other.pages.length ? other.pages[p] : null;
+            if (a == null && b == null) {
+                continue;
+            }
+            if (a == null || b == null) {
+                long[] only = a == null ? b : a;
+                result.putPage(p, only.clone(), a == null ? other.pageCounts[p] : pageCounts[p]);
+                continue;
+            }
+            long[] page = new long[WORDS_PER_PAGE];
+            int count = 0;
+            for (int w = 0; w < WORDS_PER_PAGE; w++) {
+                page[w] = a[w] | b[w];
+                count += Long.bitCount(page[w]);
+            }
+            result.putPage(p, page, count);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap holding the values present in this but not in other.
+     * @param other the bitmap whose values are excluded
+     * @return the difference
+     */
+    public SparseBitmap andNot(SparseBitmap other) {
+        SparseBitmap result = new SparseBitmap(pages.length);
+        for (int p = 0; p < pages.length; p++) {
+            long[] a = pages[p];
+            if (a == null) {
+                continue;
+            }
+            long[] b = p < other.pages.length ? other.pages[p] : null;
+            if (b == null) {
+                result.putPage(p, a.clone(), pageCounts[p]);
+                continue;
+            }
+            long[] page = new long[WORDS_PER_PAGE];
+            int count = 0;
+            for (int w = 0; w < WORDS_PER_PAGE; w++) {
+                page[w] = a[w] & ~b[w];
+                count += Long.bitCount(page[w]);
+            }
+            result.putPage(p, page, count);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an independent copy of this bitmap.
+     * @return the copy
+     */
+    public SparseBitmap copy() {
+        SparseBitmap result = new SparseBitmap(pages.length);
+        for (int p = 0; p < pages.length; p++) {
+            if (pages[p] != null) {
+                result.putPage(p, pages[p].clone(), pageCounts[p]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls action for each value in ascending order, stopping after limit values.
+     * @param action receives each value
+     * @param limit  maximum number of values visited
+     * @return the number of values visited
+     */
+    public int forEach(IntConsumer action, int limit) {
+        int visited = 0;
+        for (int p = 0; p < pages.length && visited < limit; p++) {
+            long[] page = pages[p];
+            if (page == null) {
+                continue;
+            }
+            int base = p << PAGE_SHIFT;
+            for (int w = 0; w < WORDS_PER_PAGE && visited < limit; w++) {
+                long word = page[w];
+                while (word != 0 && visited < limit) {
+                    action.accept(base + (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1; // Clear the lowest set bit
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    private SparseBitmap(int pageCount) {
+        pages = new long[Math.max(1, pageCount)][];
+        pageCounts = new int[pages.length];
+    }
+
+    /**
+     * Installs a computed page, or leaves the slot empty if the page has no bits set.
+     */
+    private void putPage(int p, long[] page, int count) {
+        if (count == 0) {
+            return;
+        }
+        pages[p] = page;
+        pageCounts[p] = count;
+        cardinality += count;
+    }
+}
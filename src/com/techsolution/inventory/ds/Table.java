@@ -0,0 +1,46 @@
+package com.techsolution.inventory.ds;
+
+import java.util.List;
+
+/**
+ * Common contract for the key-value tables in this package.
+ * Lets the service layer choose between the chained HashTable and the
+ * open-addressing RobinHoodHashTable without changing any calling code.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public interface Table<K, V> {
+    /**
+     * Inserts or updates a key-value pair.
+     * If the key already exists, its associated value is overwritten.
+     * @param key the key to insert or update
+     * @param value the value to associate with the key
+     */
+    void put(K key, V value);
+
+    /**
+     * Retrieves the value associated with the given key, or null if the key is not present.
+     * @param key the key to look up
+     * @return the value associated with the key, or null if not found
+     */
+    V get(K key);
+
+    /**
+     * Removes the key-value pair for the specified key.
+     * @param key the key to remove
+     * @return the removed value, or null if the key was not present
+     */
+    V remove(K key);
+
+    /**
+     * Returns a list of all values currently stored.
+     * @return a List containing every value in the table
+     */
+    List<V> values();
+
+    /**
+     * Returns the number of key-value pairs currently stored.
+     * @return size of the table
+     */
+    int size();
+}
@@ -0,0 +1,212 @@
+package com.techsolution.inventory.ds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * An inverted index from character trigrams to the items whose text contains them,
+ * used for case-insensitive substring search. Items are identified by non-negative ints
+ * (such as product ordinals), and each trigram's posting set is an open-addressing int set,
+ * so an indexed trigram costs a few bytes rather than a node object.
+ * <p>
+ * A query of three or more characters can only match items whose text contains every
+ * trigram of the query. The search therefore intersects the posting sets of the query's
+ * trigrams, starting from the smallest, and verifies each surviving candidate with a real
+ * substring test (the trigrams could appear in a different order). Work is proportional to
+ * the smallest posting set rather than to the number of indexed items.
+ * <p>
+ * Queries shorter than three characters have no trigrams and cannot use the index;
+ * {@link #search(String, int)} rejects them and callers should fall back to a scan.
+ */
+public class TrigramIndex {
+    // Shortest query the index can answer
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Extracts the searchable text of an item
+    private final IntFunction<String> textOf;
+    // Posting sets keyed by packed lowercase trigram
+    private final Table<Long, Posting> postings = new HashTable<>(1024);
+
+    /**
+     * Constructs an empty index over the text returned by textOf.
+     * @param textOf function returning the searchable text of an item; must not change while indexed
+     */
+    public TrigramIndex(IntFunction<String> textOf) {
+        this.textOf = textOf;
+    }
+
+    /**
+     * Adds an item under every trigram of its text.
+     * @param item the item to index (non-negative)
+     */
+    public void add(int item) {
+        String text = normalize(textOf.apply(item));
+        for (int i = 0; i + MIN_QUERY_LENGTH <= text.length(); i++) {
+            Long key = trigram(text, i);
+            Posting posting = postings.get(key);
+            if (posting == null) {
+                posting = new Posting();
+                postings.put(key, posting);
+            }
+            posting.add(item);
+        }
+    }
+
+    /**
+     * Removes an item from every trigram of its text. Posting sets left empty are dropped.
+     * @param item the item to remove
+     */
+    public void remove(int item) {
+        String text = normalize(textOf.apply(item));
+        for (int i = 0; i + MIN_QUERY_LENGTH <= text.length(); i++) {
+            Long key = trigram(text, i);
+            Posting posting = postings.get(key);
+            if (posting != null && posting.remove(item) && posting.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Finds up to limit items whose text contains query, ignoring case.
+     * @param query substring to look for (at least three characters)
+     * @param limit maximum number of results
+     * @return matching items, in no particular order
+     * @throws IllegalArgumentException if query is shorter than three characters
+     */
+    public int[] search(String query, int limit) {
+        String q = normalize(query);
+        if (q.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        // Gather the posting set of every distinct trigram; any missing trigram means no match
+        List<Posting> sets = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= q.length(); i++) {
+            Long key = trigram(q, i);
+            if (!seen.add(key)) {
+                continue;
+            }
+            Posting posting = postings.get(key);
+            if (posting == null) {
+                return new int[0];
+            }
+            sets.add(posting);
+        }
+        // Drive the intersection from the smallest set
+        sets.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] results = new int[Math.min(limit, sets.get(0).size)];
+        int found = 0;
+        for (int slot : sets.get(0).slots) {
+            if (found >= results.length) {
+                break;
+            }
+            int candidate = slot - 1;
+            if (slot != 0 && inAll(candidate, sets) && normalize(textOf.apply(candidate)).contains(q)) {
+                results[found++] = candidate;
+            }
+        }
+        return Arrays.copyOf(results, found);
+    }
+
+    private static boolean inAll(int candidate, List<Posting> sets) {
+        for (int i = 1; i < sets.size(); i++) {
+            if (!sets.get(i).contains(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set of item ids: linear-probing slots holding id + 1, or 0 when empty, kept at most
+     * three quarters full.
+     */
+    private static final class Posting {
+        int[] slots = new int[4];
+        int size;
+
+        boolean contains(int item) {
+            int mask = slots.length - 1;
+            for (int s = home(item, mask); slots[s] != 0; s = (s + 1) & mask) {
+                if (slots[s] == item + 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(int item) {
+            int mask = slots.length - 1;
+            int s = home(item, mask);
+            while (slots[s] != 0) {
+                if (slots[s] == item + 1) {
+                    return;
+                }
+                s = (s + 1) & mask;
+            }
+            slots[s] = item + 1;
+            if (++size * 4 > slots.length * 3) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+                mask = slots.length - 1;
+                for (int entry : old) {
+                    if (entry != 0) {
+                        int t = home(entry - 1, mask);
+                        while (slots[t] != 0) {
+                            t = (t + 1) & mask;
+                        }
+                        slots[t] = entry;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Removes an item, shifting later entries of its probe run back into the hole so
+         * that no lookup stops early there (deletion without tombstones).
+         */
+        boolean remove(int item) {
+            int mask = slots.length - 1;
+            int hole = home(item, mask);
+            while (slots[hole] != item + 1) {
+                if (slots[hole] == 0) {
+                    return false;
+                }
+                hole = (hole + 1) & mask;
+            }
+            for (int j = (hole + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+                // The entry may move back into the hole unless its home lies after the hole
+                int home = home(slots[j] - 1, mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    slots[hole] = slots[j];
+                    hole = j;
+                }
+            }
+            slots[hole] = 0;
+            size--;
+            return true;
+        }
+
+        private static int home(int item, int mask) {
+            int h = item * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs the three characters starting at i into one long key.
+     */
+    private static Long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,42 @@
+package com.techsolution.inventory.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one pass over a product's back-order queue, made after a restock
+ * or during a processBackOrders sweep. Orders are served strictly first in, first out and an
+ * order that does not fit stays at the head of its queue, so an order is only ever dequeued
+ * to be fulfilled; whatever the pass leaves behind is reported as still pending.
+ */
+@Name("inventory.BackOrderPass")
+@Label("Back-Order Pass")
+@Category("Inventory")
+@Description("Back-orders of one product fulfilled from current stock")
+@Enabled(false)
+@StackTrace(false)
+public class BackOrderPassEvent extends Event {
+    @Label("Product ID")
+    public String productId;
+
+    @Label("Quantity")
+    @Description("Units handed out to fulfilled back-orders")
+    public int quantity;
+
+    @Label("Fulfilled")
+    @Description("Back-orders dequeued and fulfilled")
+    public int fulfilled;
+
+    @Label("Still Pending")
+    @Description("Back-orders left waiting for stock")
+    public int stillPending;
+
+    @Label("Sweep")
+    @Description("True for a processBackOrders sweep, false for a pass triggered by a restock")
+    public boolean sweep;
+}
@@ -0,0 +1,65 @@
+package com.techsolution.inventory.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * An in-process Java Flight Recorder recording with the inventory events switched on.
+ * The inventory events are disabled by default, so they cost nothing until a recording like
+ * this one (or a custom .jfc settings file) enables them. The JDK's "default" settings are
+ * recorded alongside, so sales and reports can be lined up against GC pauses and lock waits.
+ */
+public class FlightRecording implements AutoCloseable {
+    // Event classes this recording enables
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+        SaleEvent.class, BackOrderPassEvent.class, ReportEvent.class, RehashEvent.class);
+
+    private final Recording recording;
+    private final Path file;
+
+    private FlightRecording(Recording recording, Path file) {
+        this.recording = recording;
+        this.file = file;
+    }
+
+    /**
+     * Starts recording JDK and inventory events; close() writes them to file.
+     * @param file destination .jfr file
+     * @return the running recording
+     * @throws IOException if the JDK's default settings cannot be read
+     */
+    public static FlightRecording start(Path file) throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("Unreadable JFR settings: " + e.getMessage(), e);
+        }
+        recording.setName("inventory");
+        for (Class<? extends Event> event : EVENTS) {
+            recording.enable(event).withoutStackTrace();
+        }
+        recording.start();
+        return new FlightRecording(recording, file);
+    }
+
+    /**
+     * Stops the recording and writes everything recorded to the file.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        recording.stop();
+        try {
+            recording.dump(file);
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.techsolution.inventory.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size log-linear histogram of durations in nanoseconds, in the style of
+ * HdrHistogram. Values below 64 get a bucket each; above that, every power of two is split
+ * into 32 equal sub-buckets, so any recorded value is reported to within about 3% while the
+ * whole range up to 2^63 ns fits in under 2,000 counters.
+ * <p>
+ * Recording is a few shifts and two atomic adds: it never allocates or locks, so it is
+ * cheap enough for every call on a hot path and safe from several threads. Reads walk the
+ * counters and may miss values recorded concurrently, which is fine for monitoring.
+ */
+public class LatencyHistogram {
+    // Values below this are counted exactly, one bucket per value
+    private static final int LINEAR_LIMIT = 64;
+    // log2(LINEAR_LIMIT)
+    private static final int LINEAR_BITS = 6;
+    // Each power of two from LINEAR_LIMIT up is split into 2^SUB_BITS sub-buckets
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Total number of buckets, enough for every non-negative long
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - LINEAR_BITS) * SUB_BUCKETS;
+
+    // Number of values recorded in each bucket
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    // Exact largest value and sum of all values, for max and mean
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * Records one duration. Negative values (a clock step) are recorded as zero.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(v));
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // Another thread raised the max; retry against the new value
+        }
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long count() {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the value at or below which the given fraction of recorded values fall,
+     * as the upper bound of the bucket holding that rank.
+     * @param fraction a fraction between 0 and 1 (e.g. 0.99 for p99)
+     * @return the percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long percentile(double fraction) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // Never report more than the exact maximum
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * @return largest value recorded, in nanoseconds (0 if none)
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return mean of the recorded values in nanoseconds (0 if none)
+     */
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+        sum.set(0);
+    }
+
+    /**
+     * Maps a non-negative value to its bucket: values below LINEAR_LIMIT map to themselves;
+     * otherwise the exponent selects a group of SUB_BUCKETS and the SUB_BITS bits below the
+     * leading one select the bucket within it.
+     */
+    private static int bucketOf(long v) {
+        if (v < LINEAR_LIMIT) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (v >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value that maps to the given bucket.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int group = (bucket - LINEAR_LIMIT) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        int shift = group + LINEAR_BITS - SUB_BITS;
+        long lower = (long) (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.techsolution.inventory.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Named latency histograms, counters and gauges for one service.
+ * Histograms and counters are created once, at registration, and then updated directly by
+ * the code that holds them, so the registry itself is never on a hot path; gauges are
+ * callbacks evaluated only when the metrics are printed or dumped. Gauges registered through
+ * a {@link GaugeGroup} share one sample per read, so an expensive statistic is computed once
+ * however many values are derived from it.
+ * Metrics are listed in registration order.
+ */
+public class MetricsRegistry {
+    // Percentiles shown for every histogram, with their labels
+    private static final double[] PERCENTILES = {0.50, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final Map<String, LongAdder> counters = new LinkedHashMap<>();
+    // Each gauge reads its value given the group samples already taken during this read
+    private final Map<String, ToDoubleFunction<Map<Supplier<?>, Object>>> gauges = new LinkedHashMap<>();
+
+    /**
+     * Gauges derived from one sample (for example a hash table's chain statistics), which is
+     * taken once each time the metrics are printed or dumped.
+     * @param <S> the type of the sample
+     */
+    public final class GaugeGroup<S> {
+        private final Supplier<S> sample;
+
+        private GaugeGroup(Supplier<S> sample) {
+            this.sample = sample;
+        }
+
+        /**
+         * Registers a gauge computed from the group's sample.
+         * @param name  metric name
+         * @param value derives the gauge's value from the sample
+         */
+        public void gauge(String name, ToDoubleFunction<? super S> value) {
+            gauges.put(name, samples -> {
+                @SuppressWarnings("unchecked")
+                S s = (S) samples.computeIfAbsent(sample, k -> sample.get());
+                return value.applyAsDouble(s);
+            });
+        }
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it on first use.
+     * @param name metric name (e.g. "recordSale")
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     * A LongAdder keeps increments cheap even when several threads update it.
+     * @param name metric name (e.g. "sales.recorded")
+     * @return the counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Registers a value computed on demand, such as a queue depth or a table's load factor.
+     * @param name  metric name
+     * @param value supplies the current value when metrics are read
+     */
+    public void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, samples -> value.getAsDouble());
+    }
+
+    /**
+     * Starts a group of gauges that share one sample per read.
+     * @param <S>    the type of the sample
+     * @param sample computes the sample, such as a full scan of a table
+     * @return the group, to register the gauges on
+     */
+    public <S> GaugeGroup<S> gaugeGroup(Supplier<S> sample) {
+        return new GaugeGroup<>(sample);
+    }
+
+    /**
+     * Evaluates every gauge, taking each group's sample once.
+     * @return gauge values in registration order
+     */
+    private Map<String, Double> readGauges() {
+        Map<Supplier<?>, Object> samples = new IdentityHashMap<>();
+        Map<String, Double> values = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.applyAsDouble(samples)));
+        return values;
+    }
+
+    /**
+     * Prints every metric as an aligned table, latencies in microseconds.
+     * @param out destination stream
+     */
+    public void print(PrintStream out) {
+        out.printf("%-22s %10s %10s %10s %10s %10s%n", "Latency (us)", "count", "p50", "p99", "p999", "max");
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            out.printf("%-22s %10d %10.1f %10.1f %10.1f %10.1f%n", e.getKey(), h.count(),
+                h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.percentile(0.999) / 1e3, h.max() / 1e3);
+        }
+        out.println();
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            out.printf("%-32s %12d%n", e.getKey(), e.getValue().sum());
+        }
+        for (Map.Entry<String, Double> e : readGauges().entrySet()) {
+            out.printf("%-32s %12s%n", e.getKey(), format(e.getValue()));
+        }
+    }
+
+    /**
+     * Writes every metric to a JSON file (latencies in nanoseconds), replacing it atomically
+     * so a monitoring script never reads a half-written dump.
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(Path file) throws IOException {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n  \"timestamp\": \"").append(Instant.now()).append("\",\n  \"histograms\": {");
+        String sep = "\n";
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            json.append(sep).append("    \"").append(e.getKey()).append("\": {\"count\": ").append(h.count());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                json.append(", \"").append(PERCENTILE_NAMES[i]).append("\": ").append(h.percentile(PERCENTILES[i]));
+            }
+            json.append(", \"max\": ").append(h.max())
+                .append(", \"mean\": ").append(format(h.mean())).append('}');
+            sep = ",\n";
+        }
+        json.append("\n  },\n  \"counters\": {");
+        sep = "\n";
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            json.append(sep).append("    \"").append(e.getKey()).append("\": ").append(e.getValue().sum());
+            sep = ",\n";
+        }
+        json.append("\n  },\n  \"gauges\": {");
+        sep = "\n";
+        for (Map.Entry<String, Double> e : readGauges().entrySet()) {
+            json.append(sep).append("    \"").append(e.getKey()).append("\": ")
+                .append(format(e.getValue()));
+            sep = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, json, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Formats whole numbers without a fraction and others to three decimals.
+     */
+    private static String format(double v) {
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            return Long.toString((long) v);
+        }
+        return String.format(Locale.ROOT, "%.3f", v);
+    }
+}
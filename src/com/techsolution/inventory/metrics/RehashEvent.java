@@ -0,0 +1,37 @@
+package com.techsolution.inventory.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one incremental resize of the service's product HashTable,
+ * emitted by the service from the table's resize listener. The event begins when the
+ * larger bucket array is allocated and ends when the last old bucket has been migrated, so
+ * its duration spans all the operations that shared the migration work.
+ */
+@Name("inventory.HashTableRehash")
+@Label("Hash Table Rehash")
+@Category("Inventory")
+@Description("An incremental hash table resize, from start to end of migration")
+@Enabled(false)
+@StackTrace(false)
+public class RehashEvent extends Event {
+    @Label("Old Capacity")
+    public int oldCapacity;
+
+    @Label("New Capacity")
+    public int newCapacity;
+
+    @Label("Entries")
+    @Description("Entries in the table when the resize started")
+    public int entries;
+
+    @Label("Operations")
+    @Description("Table operations that each migrated part of the old array")
+    public int steps;
+}
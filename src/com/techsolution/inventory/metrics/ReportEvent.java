@@ -0,0 +1,39 @@
+package com.techsolution.inventory.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one sales report, end-of-day or mid-day snapshot.
+ * The report is built from running totals, so the rows scanned are the category and
+ * tied best/worst seller entries it orders, not the day's individual sales.
+ */
+@Name("inventory.Report")
+@Label("Sales Report")
+@Category("Inventory")
+@Description("An end-of-day or snapshot sales report")
+@Enabled(false)
+@StackTrace(false)
+public class ReportEvent extends Event {
+    @Label("End of Day")
+    @Description("True if the report closed the day, false for a snapshot")
+    public boolean endOfDay;
+
+    @Label("Quantity")
+    @Description("Units sold in the reported period")
+    public long quantity;
+
+    @Label("Rows Scanned")
+    @Description("Category and top/bottom seller entries ordered for the report")
+    public int rowsScanned;
+
+    @Label("Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sortTime;
+}
@@ -0,0 +1,42 @@
+package com.techsolution.inventory.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one recordSale call; its duration covers the whole call.
+ * Disabled unless a recording enables it (see {@link FlightRecording}), in which case
+ * creating, timing and discarding the event costs next to nothing.
+ */
+@Name("inventory.Sale")
+@Label("Sale")
+@Category("Inventory")
+@Description("A sale recorded, back-ordered or rejected for an unknown product")
+@Enabled(false)
+@StackTrace(false)
+public class SaleEvent extends Event {
+    /** Outcome of a sale taken from stock. */
+    public static final String SOLD = "sold";
+    /** Outcome of a sale queued because stock was short. */
+    public static final String BACK_ORDERED = "back-ordered";
+    /** Outcome of a sale naming no known product. */
+    public static final String UNKNOWN_PRODUCT = "unknown product";
+
+    @Label("Product ID")
+    public String productId;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Discount")
+    @Description("Discount percentage applied (0-100)")
+    public double discount;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,731 @@
+package com.techsolution.inventory.model;
+
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.Table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A product table that keeps the products themselves outside the Java heap, for catalogs of
+ * tens of millions of SKUs where Product objects and their Strings would dominate the heap
+ * and the GC's work.
+ * <p>
+ * Each product is a fixed-width record addressed by its ordinal (the order in which its ID
+ * was first added), held in direct buffers or in memory-mapped files:
+ * <pre>
+ *   0  double price         20 int ID length (UTF-8 bytes)   32 long arena offset of [ID][name]
+ *   8  int quantity         24 int name length               40 int ID hash code
+ *   12 int reorder level    28 int flags (LIVE, HAS_ID)      44 int arena bytes reserved
+ *   16 int category id
+ * </pre>
+ * IDs and names are written to a string arena, categories are interned to small ids, and
+ * the ID index is an open-addressing table of ordinals (linear probing, also off-heap) whose
+ * probes compare the arena bytes without decoding them. The heap holds only the buffers'
+ * handles and the category names, so callers that keep ordinals rather than views (see
+ * ordinalOf, compareIds and compareNames) hold no per-product objects at all.
+ * <p>
+ * An ordinal is never reused for a different ID: removing a product only clears its LIVE
+ * flag, and putting the ID again revives the same record. Putting an existing ID rewrites
+ * its record in place, and its strings in their old arena span when they fit there; strings
+ * that outgrow their span move to the end of the arena and the old span is left unused
+ * (counted by abandonedArenaBytes). So the arena only grows with new IDs and with names
+ * that get longer, and removed products keep just their record and their strings.
+ * <p>
+ * get returns a flyweight: a small Product whose getters read the record, so stock taken or
+ * set through it (atomically, as for Product) is seen by every other view of that product.
+ * Views of the same record are equal. A view decodes its name once, on first use; a view
+ * held across a rewrite of its record keeps the name it had already decoded. Like HashTable,
+ * adding and removing products is not thread-safe.
+ */
+public class OffHeapProductStore implements Table<String, Product> {
+    // Record layout (byte offsets within a record)
+    private static final int RECORD_BYTES = 48;
+    private static final int PRICE = 0;
+    private static final int QUANTITY = 8;
+    private static final int REORDER_LEVEL = 12;
+    private static final int CATEGORY = 16;
+    private static final int ID_BYTES = 20;
+    private static final int NAME_BYTES = 24;
+    private static final int FLAGS = 28;
+    private static final int ARENA_OFFSET = 32;
+    private static final int ID_HASH = 40;
+    private static final int SPAN = 44;
+    // Flags of a record whose product is in the table, and of a record that holds an ID
+    private static final int LIVE = 1;
+    private static final int HAS_ID = 2;
+    // Records per record chunk and bytes per arena chunk, as powers of two
+    private static final int RECORD_CHUNK_BITS = 16;
+    private static final int ARENA_CHUNK_BITS = 24;
+    private static final int RECORD_CHUNK_BYTES = (1 << RECORD_CHUNK_BITS) * RECORD_BYTES;
+    private static final int ARENA_CHUNK_BYTES = 1 << ARENA_CHUNK_BITS;
+    // Initial number of index slots (a power of two)
+    private static final int INITIAL_SLOTS = 1024;
+    // Result of compareAscii when the strings must be decoded to be compared
+    private static final int NOT_ASCII = Integer.MIN_VALUE;
+    // Atomic int access to buffer contents, used for the quantity
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    // Files the records and the arena are mapped from, or null to use direct memory
+    private final Path recordFile;
+    private final Path arenaFile;
+    // Record chunks, each holding 2^RECORD_CHUNK_BITS records
+    private ByteBuffer[] recordChunks = new ByteBuffer[0];
+    // String arena chunks; a record's ID and name never straddle two chunks
+    private ByteBuffer[] arenaChunks = new ByteBuffer[0];
+    // Arena position where the next strings go
+    private long arenaEnd;
+    // Arena bytes of spans left behind by strings that outgrew them
+    private long abandonedArenaBytes;
+    // Records allocated so far (live, removed or reserved), which is also the next ordinal
+    private int records;
+    // Number of live products
+    private int size;
+    // Number of IDs in the index (live or removed)
+    private int indexed;
+    // ID index: 4-byte slots holding ordinal + 1, or 0 when empty
+    private ByteBuffer slots;
+    private int slotMask;
+    // Interned category names, indexed by category id
+    private final Table<String, Integer> categoryIds = new HashTable<>(16);
+    private String[] categories = new String[16];
+    private int categoryCount;
+
+    /**
+     * Creates an empty store in direct memory (bounded by -XX:MaxDirectMemorySize, which
+     * defaults to the maximum heap size).
+     */
+    public OffHeapProductStore() {
+        this(null, null);
+    }
+
+    private OffHeapProductStore(Path recordFile, Path arenaFile) {
+        this.recordFile = recordFile;
+        this.arenaFile = arenaFile;
+        slots = ByteBuffer.allocateDirect(INITIAL_SLOTS * 4).order(ByteOrder.nativeOrder());
+        slotMask = INITIAL_SLOTS - 1;
+    }
+
+    /**
+     * Creates an empty store whose records and strings are memory-mapped from two files in
+     * the given directory (products.dat and strings.dat, replaced if present), so that the
+     * operating system can page cold products out. The files are working storage, not a
+     * saved catalog: use a snapshot for that. The ID index stays in direct memory.
+     * @param directory existing directory for the files
+     * @return the store
+     * @throws IOException if the files cannot be created
+     */
+    public static OffHeapProductStore mapped(Path directory) throws IOException {
+        Path records = directory.resolve("products.dat");
+        Path arena = directory.resolve("strings.dat");
+        Files.deleteIfExists(records);
+        Files.deleteIfExists(arena);
+        return new OffHeapProductStore(records, arena);
+    }
+
+    /**
+     * Inserts or replaces a product, copying its fields into the store. An ID stored before,
+     * even if removed since, keeps its ordinal.
+     * @param key   product ID
+     * @param value product whose name, category, price, quantity and reorder level are stored
+     */
+    @Override
+    public void put(String key, Product value) {
+        int hash = key.hashCode();
+        int slot = find(key, hash);
+        int entry = slots.getInt(slot << 2);
+        if (entry != 0) {
+            int ordinal = entry - 1;
+            if (!isLive(ordinal)) {
+                size++;
+            }
+            write(ordinal, key, hash, value); // Same ID: rewrite the record in place
+            return;
+        }
+        int ordinal = records;
+        reserve(ordinal + 1);
+        write(ordinal, key, hash, value);
+        insert(slot, ordinal);
+        size++;
+    }
+
+    /**
+     * Stores a product at an ordinal reserved for it, such as the ordinal a loaded snapshot
+     * gave its ID.
+     * @param ordinal a reserved ordinal that has no ID yet
+     * @param key     product ID, not yet in the store
+     * @param value   product to copy into the store
+     * @throws IllegalStateException if the ordinal already has an ID or the ID an ordinal
+     */
+    public void putAt(int ordinal, String key, Product value) {
+        int hash = key.hashCode();
+        int slot = reservedSlot(ordinal, key, hash);
+        write(ordinal, key, hash, value);
+        insert(slot, ordinal);
+        size++;
+    }
+
+    /**
+     * Gives a reserved ordinal its ID without a product, as if the product had been put
+     * there and removed, so that the ID keeps that ordinal.
+     * @param ordinal a reserved ordinal that has no ID yet
+     * @param key     product ID, not yet in the store
+     * @throws IllegalStateException if the ordinal already has an ID or the ID an ordinal
+     */
+    public void reserveId(int ordinal, String key) {
+        int hash = key.hashCode();
+        int slot = reservedSlot(ordinal, key, hash);
+        byte[] idBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer c = chunk(ordinal);
+        int b = base(ordinal);
+        c.putInt(b + ID_BYTES, idBytes.length);
+        c.putLong(b + ARENA_OFFSET, appendStrings(idBytes, new byte[0]));
+        c.putInt(b + SPAN, idBytes.length);
+        c.putInt(b + ID_HASH, hash);
+        c.putInt(b + FLAGS, HAS_ID);
+        insert(slot, ordinal);
+    }
+
+    /**
+     * Checks that a product can be stored, so that callers can reject it before changing
+     * anything else: its ID and name must fit in one arena chunk together.
+     * @param p product about to be put
+     * @throws IllegalArgumentException if the ID and name are too long
+     */
+    public void checkStorable(Product p) {
+        checkLength(p.getId().getBytes(StandardCharsets.UTF_8).length + p.getName().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    /**
+     * Extends the ordinals to count, reserving the new ones empty (no ID, not live) for putAt.
+     * @param count number of ordinals the store should have at least
+     */
+    public void reserve(int count) {
+        while (count > (long) recordChunks.length << RECORD_CHUNK_BITS) {
+            int chunk = recordChunks.length;
+            recordChunks = Arrays.copyOf(recordChunks, chunk + 1);
+            recordChunks[chunk] = allocate(recordFile, (long) chunk * RECORD_CHUNK_BYTES, RECORD_CHUNK_BYTES);
+        }
+        records = Math.max(records, count); // New chunks are zeroed: no flags, no ID
+    }
+
+    /**
+     * Returns a flyweight view of the product with the given ID.
+     * @param key product ID
+     * @return a view of the stored product, or null if the ID is not present
+     */
+    @Override
+    public Product get(String key) {
+        int ordinal = slots.getInt(find(key, key.hashCode()) << 2) - 1;
+        return ordinal >= 0 && isLive(ordinal) ? new View(ordinal, key) : null;
+    }
+
+    /**
+     * Removes a product. Its ID keeps its ordinal and its record stays readable through the
+     * returned view.
+     * @param key product ID
+     * @return a view of the removed product, or null if the ID was not present
+     */
+    @Override
+    public Product remove(String key) {
+        int ordinal = slots.getInt(find(key, key.hashCode()) << 2) - 1;
+        if (ordinal < 0 || !isLive(ordinal)) {
+            return null;
+        }
+        chunk(ordinal).putInt(base(ordinal) + FLAGS, HAS_ID);
+        size--;
+        return new View(ordinal, key);
+    }
+
+    /**
+     * Returns views of every product, in ordinal order. Decodes each product's ID.
+     * @return a list of views
+     */
+    @Override
+    public List<Product> values() {
+        List<Product> result = new ArrayList<>(size);
+        for (int ordinal = 0; ordinal < records; ordinal++) {
+            if (isLive(ordinal)) {
+                result.add(new View(ordinal, id(ordinal)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ordinal of an ID, whether its product is live or has been removed.
+     * @param id product ID
+     * @return its ordinal, or -1 if the ID was never stored
+     */
+    public int ordinalOf(String id) {
+        return slots.getInt(find(id, id.hashCode()) << 2) - 1;
+    }
+
+    /**
+     * Returns a flyweight view of the product with the given ordinal.
+     * @param ordinal a product ordinal
+     * @return a view of its record
+     */
+    public Product view(int ordinal) {
+        return new View(ordinal, id(ordinal));
+    }
+
+    /** @return number of ordinals assigned so far, including those of removed products */
+    public int ordinalCount() {
+        return records;
+    }
+
+    /** @return true if the ordinal's product has not been removed */
+    public boolean isLive(int ordinal) {
+        return (chunk(ordinal).getInt(base(ordinal) + FLAGS) & LIVE) != 0;
+    }
+
+    /** @return true if an ID has been stored at the ordinal (false while only reserved) */
+    public boolean hasId(int ordinal) {
+        return (chunk(ordinal).getInt(base(ordinal) + FLAGS) & HAS_ID) != 0;
+    }
+
+    /** @return the product's ID, decoded from the arena */
+    public String id(int ordinal) {
+        ByteBuffer c = chunk(ordinal);
+        int b = base(ordinal);
+        return decode(c.getLong(b + ARENA_OFFSET), c.getInt(b + ID_BYTES));
+    }
+
+    /** @return the product's name, decoded from the arena */
+    public String name(int ordinal) {
+        ByteBuffer c = chunk(ordinal);
+        int b = base(ordinal);
+        int idBytes = c.getInt(b + ID_BYTES);
+        return decode(c.getLong(b + ARENA_OFFSET) + idBytes, c.getInt(b + NAME_BYTES));
+    }
+
+    /** @return the product's category (interned, so no String is created) */
+    public String category(int ordinal) {
+        return categories[chunk(ordinal).getInt(base(ordinal) + CATEGORY)];
+    }
+
+    /** @return the product's unit price */
+    public double price(int ordinal) {
+        return chunk(ordinal).getDouble(base(ordinal) + PRICE);
+    }
+
+    /** @return the product's current stock */
+    public int quantity(int ordinal) {
+        return (int) INT.getVolatile(chunk(ordinal), base(ordinal) + QUANTITY);
+    }
+
+    /** @return the product's reorder level */
+    public int reorderLevel(int ordinal) {
+        return chunk(ordinal).getInt(base(ordinal) + REORDER_LEVEL);
+    }
+
+    /**
+     * Sets a product's stock.
+     * @param ordinal  product ordinal
+     * @param quantity new stock quantity
+     */
+    public void setQuantity(int ordinal, int quantity) {
+        INT.setVolatile(chunk(ordinal), base(ordinal) + QUANTITY, quantity);
+    }
+
+    /**
+     * Atomically takes qty units of a product's stock if at least qty are available,
+     * as Product.tryDecrement does.
+     * @param ordinal product ordinal
+     * @param qty     units to take (positive)
+     * @return the quantity left, or -1 if fewer than qty were available (stock unchanged)
+     */
+    public int tryDecrement(int ordinal, int qty) {
+        ByteBuffer c = chunk(ordinal);
+        int at = base(ordinal) + QUANTITY;
+        int current;
+        do {
+            current = (int) INT.getVolatile(c, at);
+            if (current < qty) {
+                return -1;
+            }
+        } while (!INT.compareAndSet(c, at, current, current - qty));
+        return current - qty;
+    }
+
+    /**
+     * Atomically takes all of a product's stock, as Product.withdraw does.
+     * @param ordinal product ordinal
+     * @return the units that were in stock
+     */
+    public int withdraw(int ordinal) {
+        return (int) INT.getAndSet(chunk(ordinal), base(ordinal) + QUANTITY, 0);
+    }
+
+    /**
+     * Compares the IDs of two ordinals as String.compareTo would, without decoding ASCII IDs.
+     * @return negative, zero or positive as the first ID sorts before, with or after the second
+     */
+    public int compareIds(int a, int b) {
+        ByteBuffer ca = chunk(a);
+        ByteBuffer cb = chunk(b);
+        int ba = base(a);
+        int bb = base(b);
+        int c = compareAscii(ca.getLong(ba + ARENA_OFFSET), ca.getInt(ba + ID_BYTES),
+            cb.getLong(bb + ARENA_OFFSET), cb.getInt(bb + ID_BYTES), false);
+        return c != NOT_ASCII ? c : id(a).compareTo(id(b));
+    }
+
+    /**
+     * Compares the names of two ordinals as String.CASE_INSENSITIVE_ORDER would, without
+     * decoding ASCII names.
+     * @return negative, zero or positive as the first name sorts before, with or after the second
+     */
+    public int compareNames(int a, int b) {
+        ByteBuffer ca = chunk(a);
+        ByteBuffer cb = chunk(b);
+        int ba = base(a);
+        int bb = base(b);
+        int c = compareAscii(ca.getLong(ba + ARENA_OFFSET) + ca.getInt(ba + ID_BYTES), ca.getInt(ba + NAME_BYTES),
+            cb.getLong(bb + ARENA_OFFSET) + cb.getInt(bb + ID_BYTES), cb.getInt(bb + NAME_BYTES), true);
+        return c != NOT_ASCII ? c : String.CASE_INSENSITIVE_ORDER.compare(name(a), name(b));
+    }
+
+    /**
+     * @return bytes held outside the heap: record and arena chunks plus the ID index
+     */
+    public long offHeapBytes() {
+        return (long) recordChunks.length * RECORD_CHUNK_BYTES + (long) arenaChunks.length * ARENA_CHUNK_BYTES
+            + slots.capacity();
+    }
+
+    /**
+     * @return arena bytes left unused by strings that outgrew their span and moved
+     */
+    public long abandonedArenaBytes() {
+        return abandonedArenaBytes;
+    }
+
+    /**
+     * Copies a product into a record. Its ID and name go back into the record's arena span
+     * if they fit there, else to the end of the arena.
+     */
+    private void write(int ordinal, String id, int hash, Product p) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] nameBytes = p.getName().getBytes(StandardCharsets.UTF_8);
+        double price = p.getPrice();
+        int quantity = p.getQuantity();
+        int reorderLevel = p.getReorderLevel();
+        int category = categoryId(p.getCategory());
+        ByteBuffer c = chunk(ordinal);
+        int b = base(ordinal);
+        int length = idBytes.length + nameBytes.length;
+        long offset;
+        int span = c.getInt(b + SPAN);
+        if (hasId(ordinal) && length <= span) {
+            offset = c.getLong(b + ARENA_OFFSET);
+            arenaChunks[(int) (offset >>> ARENA_CHUNK_BITS)].put((int) (offset & (ARENA_CHUNK_BYTES - 1)) + idBytes.length, nameBytes);
+        } else {
+            abandonedArenaBytes += span;
+            offset = appendStrings(idBytes, nameBytes);
+            span = length;
+        }
+        c.putDouble(b + PRICE, price);
+        c.putInt(b + REORDER_LEVEL, reorderLevel);
+        c.putInt(b + CATEGORY, category);
+        c.putInt(b + ID_BYTES, idBytes.length);
+        c.putInt(b + NAME_BYTES, nameBytes.length);
+        c.putInt(b + FLAGS, LIVE | HAS_ID);
+        c.putLong(b + ARENA_OFFSET, offset);
+        c.putInt(b + ID_HASH, hash);
+        c.putInt(b + SPAN, span);
+        INT.setVolatile(c, b + QUANTITY, quantity);
+    }
+
+    /**
+     * Checks that an ordinal is reserved and its ID new.
+     * @return the empty index slot for the ID
+     */
+    private int reservedSlot(int ordinal, String id, int hash) {
+        int slot = find(id, hash);
+        if (ordinal >= records || hasId(ordinal) || slots.getInt(slot << 2) != 0) {
+            throw new IllegalStateException("Cannot store " + id + " at ordinal " + ordinal);
+        }
+        return slot;
+    }
+
+    /**
+     * Records an ordinal in the empty index slot found for its ID, growing the index when it
+     * is half full.
+     */
+    private void insert(int slot, int ordinal) {
+        slots.putInt(slot << 2, ordinal + 1);
+        indexed++;
+        if (indexed * 2L > slotMask + 1) {
+            resizeIndex((slotMask + 1) * 2);
+        }
+    }
+
+    /**
+     * Appends an ID and a name back to back, starting a new arena chunk if they do not fit
+     * in the current one.
+     * @return arena offset of the ID
+     */
+    private long appendStrings(byte[] id, byte[] name) {
+        int length = id.length + name.length;
+        checkLength(length);
+        int pos = (int) (arenaEnd & (ARENA_CHUNK_BYTES - 1));
+        if (pos + length > ARENA_CHUNK_BYTES) {
+            arenaEnd += ARENA_CHUNK_BYTES - pos; // Skip the rest of this chunk
+            pos = 0;
+        }
+        int chunk = (int) (arenaEnd >>> ARENA_CHUNK_BITS);
+        if (chunk == arenaChunks.length) {
+            arenaChunks = Arrays.copyOf(arenaChunks, chunk + 1);
+            arenaChunks[chunk] = allocate(arenaFile, (long) chunk * ARENA_CHUNK_BYTES, ARENA_CHUNK_BYTES);
+        }
+        arenaChunks[chunk].put(pos, id).put(pos + id.length, name);
+        long offset = arenaEnd;
+        arenaEnd += length;
+        return offset;
+    }
+
+    /**
+     * Compares two arena strings byte by byte while both are ASCII, folding case if asked
+     * (to lower case, as String.CASE_INSENSITIVE_ORDER does for ASCII).
+     * @return the comparison, or NOT_ASCII if it reached a non-ASCII byte and must be made
+     *         on the decoded strings
+     */
+    private int compareAscii(long offsetA, int lengthA, long offsetB, int lengthB, boolean ignoreCase) {
+        ByteBuffer arenaA = arenaChunks[(int) (offsetA >>> ARENA_CHUNK_BITS)];
+        ByteBuffer arenaB = arenaChunks[(int) (offsetB >>> ARENA_CHUNK_BITS)];
+        int posA = (int) (offsetA & (ARENA_CHUNK_BYTES - 1));
+        int posB = (int) (offsetB & (ARENA_CHUNK_BYTES - 1));
+        int n = Math.min(lengthA, lengthB);
+        for (int i = 0; i < n; i++) {
+            int x = arenaA.get(posA + i);
+            int y = arenaB.get(posB + i);
+            if ((x | y) < 0) {
+                return NOT_ASCII;
+            }
+            if (x != y) {
+                if (ignoreCase) {
+                    x = x >= 'A' && x <= 'Z' ? x + ('a' - 'A') : x;
+                    y = y >= 'A' && y <= 'Z' ? y + ('a' - 'A') : y;
+                }
+                if (x != y) {
+                    return x - y;
+                }
+            }
+        }
+        // One is a prefix of the other, in chars as in bytes
+        return Integer.compare(lengthA, lengthB);
+    }
+
+    private static void checkLength(int length) {
+        if (length > ARENA_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Product ID and name too long: " + length + " bytes");
+        }
+    }
+
+    private String decode(long offset, int length) {
+        byte[] bytes = new byte[length];
+        arenaChunks[(int) (offset >>> ARENA_CHUNK_BITS)].get((int) (offset & (ARENA_CHUNK_BYTES - 1)), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the category's id, interning it on first use.
+     */
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categoryCount++;
+            if (id == categories.length) {
+                categories = Arrays.copyOf(categories, id * 2);
+            }
+            categories[id] = category;
+            categoryIds.put(category, id);
+        }
+        return id;
+    }
+
+    /**
+     * Probes for an ID from its home slot.
+     * @return the slot holding the ID, or the empty slot where it would be inserted
+     */
+    private int find(String id, int hash) {
+        int slot = home(hash);
+        while (true) {
+            int entry = slots.getInt(slot << 2);
+            if (entry == 0 || matches(entry - 1, id, hash)) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    /**
+     * Compares an ID with a record's ID: first the stored hash, then the arena bytes, char by
+     * char for ASCII IDs so that nothing is allocated.
+     */
+    private boolean matches(int ordinal, String id, int hash) {
+        ByteBuffer c = chunk(ordinal);
+        int b = base(ordinal);
+        if (c.getInt(b + ID_HASH) != hash) {
+            return false;
+        }
+        int length = c.getInt(b + ID_BYTES);
+        if (length < id.length()) {
+            return false; // UTF-8 never takes fewer bytes than chars
+        }
+        long offset = c.getLong(b + ARENA_OFFSET);
+        ByteBuffer arena = arenaChunks[(int) (offset >>> ARENA_CHUNK_BITS)];
+        int pos = (int) (offset & (ARENA_CHUNK_BYTES - 1));
+        if (length == id.length()) {
+            int i = 0;
+            while (i < length && id.charAt(i) < 0x80 && arena.get(pos + i) == id.charAt(i)) {
+                i++;
+            }
+            if (i == length) {
+                return true;
+            }
+            if (id.charAt(i) < 0x80) {
+                return false;
+            }
+        }
+        // Non-ASCII ID: compare its encoded bytes
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena.get(pos + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int home(int hash) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & slotMask;
+    }
+
+    /**
+     * Rebuilds the ID index with the given number of slots, using the hashes kept in the
+     * records so that no ID is decoded.
+     */
+    private void resizeIndex(int capacity) {
+        ByteBuffer old = slots;
+        int oldSlots = slotMask + 1;
+        slots = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder());
+        slotMask = capacity - 1;
+        for (int s = 0; s < oldSlots; s++) {
+            int entry = old.getInt(s << 2);
+            if (entry != 0) {
+                int ordinal = entry - 1;
+                int slot = home(chunk(ordinal).getInt(base(ordinal) + ID_HASH));
+                while (slots.getInt(slot << 2) != 0) {
+                    slot = (slot + 1) & slotMask;
+                }
+                slots.putInt(slot << 2, entry);
+            }
+        }
+    }
+
+    private ByteBuffer chunk(int ordinal) {
+        return recordChunks[ordinal >>> RECORD_CHUNK_BITS];
+    }
+
+    private static int base(int ordinal) {
+        return (ordinal & ((1 << RECORD_CHUNK_BITS) - 1)) * RECORD_BYTES;
+    }
+
+    /**
+     * Allocates a chunk: direct memory, or a read-write mapping of the file region at the
+     * given position (which grows the file). The mapping outlives the channel.
+     */
+    private static ByteBuffer allocate(Path file, long position, int bytes) {
+        if (file == null) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, bytes).order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map " + file, e);
+        }
+    }
+
+    /**
+     * Flyweight Product over one record. It carries the product's ID, which never changes
+     * for a record, decodes the name once and reads everything else from the store on each call.
+     */
+    private final class View extends Product {
+        private final int ordinal;
+        // Name decoded on first use
+        private String name;
+
+        View(int ordinal, String id) {
+            super(id, null, null, 0, 0, 0);
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null) {
+                name = name(ordinal);
+            }
+            return name;
+        }
+
+        @Override
+        public String getCategory() { return category(ordinal); }
+
+        @Override
+        public double getPrice() { return price(ordinal); }
+
+        @Override
+        public int getQuantity() { return quantity(ordinal); }
+
+        @Override
+        public int getReorderLevel() { return reorderLevel(ordinal); }
+
+        @Override
+        public void setQuantity(int quantity) { OffHeapProductStore.this.setQuantity(ordinal, quantity); }
+
+        @Override
+        public int tryDecrement(int qty) { return OffHeapProductStore.this.tryDecrement(ordinal, qty); }
+
+        @Override
+        public int withdraw() { return OffHeapProductStore.this.withdraw(ordinal); }
+
+        private OffHeapProductStore store() {
+            return OffHeapProductStore.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof View v && v.store() == store() && v.ordinal == ordinal;
+        }
+
+        @Override
+        public int hashCode() {
+            return ordinal;
+        }
+    }
+}
@@ -1,11 +1,29 @@
 package com.techsolution.inventory.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents a product in the inventory with identifying details and stock information.
  * Each product has a unique ID, a name, a category, a unit price, a current quantity,
  * and a reorder level threshold.
+ * <p>
+ * The quantity is the only mutable field and is safe to share between threads: it is
+ * volatile, and tryDecrement takes stock with a compare-and-set, so concurrent sales can
+ * never take more units than exist.
  */
 public class Product {
+    // Atomic access to the quantity field, without an AtomicInteger object per product
+    private static final VarHandle QUANTITY;
+
+    static {
+        try {
+            QUANTITY = MethodHandles.lookup().findVarHandle(Product.class, "quantity", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // Unique identifier for this product (e.g., "P001")
     private final String id;
     // Human-readable name of the product (e.g., "Widget A")
@@ -15,7 +33,7 @@ public class Product {
     // Price per unit of this product (e.g., 12.99)
     private final double price;
     // Current stock level (number of units available)
-    private int quantity;
+    private volatile int quantity;
     // Quantity threshold at which a reorder alert should be triggered
     private final int reorderLevel;
 
@@ -64,6 +82,35 @@ public class Product {
         this.quantity = quantity;
     }
 
+    /**
+     * Atomically takes qty units from stock if at least qty are available. Retries its
+     * compare-and-set when another thread changed the quantity in between, so it never
+     * blocks and never lets concurrent callers take more than the stock on hand.
+     * @param qty units to take (positive)
+     * @return the quantity left after taking them, or -1 if fewer than qty were available
+     *         (in which case the stock is unchanged)
+     */
+    public int tryDecrement(int qty) {
+        int current;
+        do {
+            current = quantity;
+            if (current < qty) {
+                return -1;
+            }
+        } while (!QUANTITY.compareAndSet(this, current, current - qty));
+        return current - qty;
+    }
+
+    /**
+     * Withdraws the product from sale by taking all of its stock at once, so that no later
+     * tryDecrement succeeds. A sale that took stock before this is complete; one that comes
+     * after it finds none left.
+     * @return the units that were in stock
+     */
+    public int withdraw() {
+        return (int) QUANTITY.getAndSet(this, 0);
+    }
+
     /**
      * Returns a formatted string describing the product, including its name,
      * ID, category, current quantity, and price. Used for console display.
@@ -72,6 +119,6 @@ public class Product {
     @Override
     public String toString() {
         return String.format("%s [%s] - %s: %d @%.2f",
-            name, id, category, quantity, price);
+            getName(), getId(), getCategory(), getQuantity(), getPrice());
     }
 }
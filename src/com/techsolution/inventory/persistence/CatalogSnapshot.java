@@ -0,0 +1,497 @@
+package com.techsolution.inventory.persistence;
+
+import com.techsolution.inventory.model.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only binary snapshot of the product catalog and its pending back-orders, loaded by
+ * memory-mapping the file so that nothing is read until it is touched.
+ * <p>
+ * File layout (all integers big-endian, strings as {@code [int byteLength][UTF-8 bytes]}):
+ * <pre>
+ *   header      magic, version, ordinalCount, productCount, backOrderCount, offsetsPos,
+ *               indexPos, indexSlots, backOrdersPos, salesPos (10 ints), journal epoch and
+ *               offset (2 longs)
+ *   records     one per product ordinal, in ordinal order:
+ *               [id][name][category][double price][int quantity][int reorderLevel],
+ *               or [id][int -1] for an ID whose product has been removed
+ *   offsets     int file offset of each record, by ordinal
+ *   index       open-addressing hash table of indexSlots x [int hash][int ordinal + 1]
+ *   back-orders [id][int quantity][double discount] ..., FIFO within each product
+ *   sales       section in the writer's own DataOutput format (the service keeps the day's
+ *               totals and the sales history there), running to the end of the file
+ * </pre>
+ * Record numbers are the service's product ordinals, so data kept by ordinal stays valid
+ * across a save and load. The embedded index answers {@link #ordinalOf} in O(1) expected
+ * time straight from the mapped pages, so single products can be served before anything
+ * else is decoded, and the offsets table lets {@link #products} decode every record in
+ * parallel. The journal position says which journal records the snapshot already contains.
+ */
+public class CatalogSnapshot {
+    /**
+     * Receives the pending back-orders stored in a snapshot.
+     */
+    public interface BackOrderSink {
+        void accept(String productId, int quantity, double discount);
+    }
+
+    /**
+     * Writes the sales section of a snapshot.
+     */
+    public interface SectionWriter {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    // Identifies a snapshot file ("INVS")
+    private static final int MAGIC = 0x494E5653;
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 56;
+    // Name length that marks the record of a removed product
+    private static final int REMOVED = -1;
+    // Size of the buffer used to stream records out while writing
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    // The whole file, mapped read-only
+    private final MappedByteBuffer map;
+    private final int ordinalCount;
+    private final int productCount;
+    private final int backOrderCount;
+    private final int offsetsPos;
+    private final int indexPos;
+    private final int indexSlots;
+    private final int backOrdersPos;
+    private final int salesPos;
+    private final JournalPosition journalPosition;
+
+    private CatalogSnapshot(MappedByteBuffer map) throws IOException {
+        this.map = map;
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        if (map.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + map.getInt(4));
+        }
+        ordinalCount = map.getInt(8);
+        productCount = map.getInt(12);
+        backOrderCount = map.getInt(16);
+        offsetsPos = map.getInt(20);
+        indexPos = map.getInt(24);
+        indexSlots = map.getInt(28);
+        backOrdersPos = map.getInt(32);
+        salesPos = map.getInt(36);
+        journalPosition = new JournalPosition(map.getLong(40), map.getLong(48));
+        if (offsetsPos < HEADER_BYTES || indexPos != offsetsPos + 4L * ordinalCount
+                || backOrdersPos != indexPos + 8L * indexSlots || salesPos < backOrdersPos
+                || salesPos > map.capacity()
+                || Integer.bitCount(indexSlots) != 1 || productCount > ordinalCount) {
+            throw new IOException("Corrupt snapshot header");
+        }
+    }
+
+    /**
+     * Maps a snapshot file. Only the header is read here; records are decoded on demand.
+     * @param file snapshot written by {@link #write}
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a valid snapshot
+     */
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new CatalogSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to target and atomically moves it into place,
+     * so a crash never leaves a half-written snapshot under the target name. The temporary
+     * file is deleted if writing fails.
+     * @param target       snapshot file to create or replace
+     * @param ordinalCount number of product ordinals assigned so far
+     * @param ids          product ID of each ordinal
+     * @param products     current product of each ordinal, or null if it has been removed
+     * @param backOrders   calls its argument once per pending back-order
+     * @param sales        writes the sales section (null for none)
+     * @param position     journal position the catalog reflects (epoch 0 when not journaling)
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path target, int ordinalCount, IntFunction<String> ids, IntFunction<Product> products,
+                             Consumer<BackOrderSink> backOrders, SectionWriter sales,
+                             JournalPosition position) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            writeFile(tmp, ordinalCount, ids, products, backOrders, sales, position);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static void writeFile(Path file, int ordinalCount, IntFunction<String> ids, IntFunction<Product> products,
+                                  Consumer<BackOrderSink> backOrders, SectionWriter sales,
+                                  JournalPosition position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer w = new Writer(channel);
+            w.position = HEADER_BYTES;
+            channel.position(HEADER_BYTES);
+
+            // One record per ordinal, remembering each record's offset and ID hash for the index
+            int[] offsets = new int[ordinalCount];
+            int[] hashes = new int[ordinalCount];
+            int count = 0;
+            for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+                String id = ids.apply(ordinal);
+                Product p = products.apply(ordinal);
+                offsets[ordinal] = w.position;
+                hashes[ordinal] = hash(id);
+                w.putString(id);
+                if (p == null) {
+                    w.putInt(REMOVED);
+                    continue;
+                }
+                count++;
+                w.putString(p.getName());
+                w.putString(p.getCategory());
+                w.putDouble(p.getPrice());
+                w.putInt(p.getQuantity());
+                w.putInt(p.getReorderLevel());
+            }
+
+            int offsetsPos = w.position;
+            for (int i = 0; i < ordinalCount; i++) {
+                w.putInt(offsets[i]);
+            }
+
+            // Linear-probing index over every ordinal at a load factor of at most 0.5
+            int indexPos = w.position;
+            int slots = Math.max(2, Integer.highestOneBit(Math.max(1, ordinalCount)) << 2);
+            int[] table = new int[slots * 2];
+            for (int i = 0; i < ordinalCount; i++) {
+                int s = hashes[i] & (slots - 1);
+                while (table[s * 2 + 1] != 0) {
+                    s = (s + 1) & (slots - 1);
+                }
+                table[s * 2] = hashes[i];
+                table[s * 2 + 1] = i + 1;
+            }
+            for (int v : table) {
+                w.putInt(v);
+            }
+
+            int backOrdersPos = w.position;
+            int[] backOrderCount = new int[1];
+            backOrders.accept((id, quantity, discount) -> {
+                try {
+                    w.putString(id);
+                    w.putInt(quantity);
+                    w.putDouble(discount);
+                    backOrderCount[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            w.flush();
+
+            // The sales section streams straight on from the records written so far
+            int salesPos = w.position;
+            if (sales != null) {
+                DataOutputStream data = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_BYTES));
+                sales.writeTo(data);
+                data.flush();
+                if ((long) salesPos + data.size() >= Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot would exceed 2 GB");
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(ordinalCount).putInt(count).putInt(backOrderCount[0])
+                  .putInt(offsetsPos).putInt(indexPos).putInt(slots).putInt(backOrdersPos).putInt(salesPos)
+                  .putLong(position.epoch()).putLong(position.offset()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of product ordinals in the snapshot, including those of removed products.
+     * @return one past the highest ordinal
+     */
+    public int ordinalCount() {
+        return ordinalCount;
+    }
+
+    /**
+     * Returns the number of products (not removed) in the snapshot.
+     * @return product count
+     */
+    public int productCount() {
+        return productCount;
+    }
+
+    /**
+     * Returns the number of pending back-orders in the snapshot.
+     * @return back-order count
+     */
+    public int backOrderCount() {
+        return backOrderCount;
+    }
+
+    /**
+     * Returns the journal position the snapshot's state includes: replaying the journal of the
+     * same epoch from this offset, or a journal of the next epoch from its start, continues it.
+     * @return journal epoch and byte offset, epoch 0 if the snapshot was saved without a journal
+     */
+    public JournalPosition journalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * Looks up a product ID through the embedded hash index, touching only the pages of its
+     * index slots and record.
+     * @param id product ID
+     * @return the ID's ordinal, or -1 if the ID is not in the snapshot
+     */
+    public int ordinalOf(String id) {
+        int h = hash(id);
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int s = h & (indexSlots - 1);
+        while (true) {
+            int slotPos = indexPos + s * 8;
+            int record = map.getInt(slotPos + 4);
+            if (record == 0) {
+                return -1; // Empty slot: not present
+            }
+            if (map.getInt(slotPos) == h) {
+                int offset = map.getInt(offsetsPos + (record - 1) * 4);
+                if (idEquals(offset, key)) {
+                    return record - 1;
+                }
+            }
+            s = (s + 1) & (indexSlots - 1);
+        }
+    }
+
+    /**
+     * Decodes one product record.
+     * @param ordinal product ordinal
+     * @return a new Product with the stored fields, or null if the product had been removed
+     */
+    public Product product(int ordinal) {
+        return decode(map.getInt(offsetsPos + ordinal * 4));
+    }
+
+    /**
+     * Returns the product ID of an ordinal.
+     * @param ordinal product ordinal
+     * @return the ID
+     */
+    public String id(int ordinal) {
+        return getString(map.getInt(offsetsPos + ordinal * 4));
+    }
+
+    /**
+     * Decodes every product not in skip, splitting the records across the common ForkJoin pool.
+     * @param skip ordinals not to decode (may be null)
+     * @return products indexed by ordinal; null for removed and skipped ones
+     */
+    public Product[] products(BitSet skip) {
+        Product[] result = new Product[ordinalCount];
+        IntStream.range(0, ordinalCount).parallel()
+                 .filter(i -> skip == null || !skip.get(i))
+                 .forEach(i -> result[i] = product(i));
+        return result;
+    }
+
+    /**
+     * Passes every stored back-order to sink, preserving each product's FIFO order.
+     * @param sink receives the back-orders
+     */
+    public void forEachBackOrder(BackOrderSink sink) {
+        int pos = backOrdersPos;
+        for (int i = 0; i < backOrderCount; i++) {
+            int len = map.getInt(pos);
+            String id = getString(pos);
+            pos += 4 + len;
+            int quantity = map.getInt(pos);
+            double discount = map.getDouble(pos + 4);
+            pos += 12;
+            sink.accept(id, quantity, discount);
+        }
+    }
+
+    /**
+     * Returns a reader over the sales section, in the format its SectionWriter wrote.
+     * @return the section, or null if the snapshot was written without one
+     */
+    public DataInput sales() {
+        ByteBuffer section = map.slice(salesPos, map.capacity() - salesPos);
+        if (!section.hasRemaining()) {
+            return null;
+        }
+        return new DataInputStream(new InputStream() {
+            @Override
+            public int read() {
+                return section.hasRemaining() ? section.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!section.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, section.remaining());
+                section.get(b, off, n);
+                return n;
+            }
+        });
+    }
+
+    /**
+     * Decodes the product record at the given offset using absolute reads only,
+     * so several threads can decode from the shared mapping at once.
+     * @return the product, or null if the record marks a removed product
+     */
+    private Product decode(int pos) {
+        String id = getString(pos);
+        pos += 4 + map.getInt(pos);
+        if (map.getInt(pos) == REMOVED) {
+            return null;
+        }
+        String name = getString(pos);
+        pos += 4 + map.getInt(pos);
+        String category = getString(pos);
+        pos += 4 + map.getInt(pos);
+        return new Product(id, name, category, map.getDouble(pos), map.getInt(pos + 8), map.getInt(pos + 12));
+    }
+
+    private String getString(int pos) {
+        byte[] bytes = new byte[map.getInt(pos)];
+        map.get(pos + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the ID stored at a record offset with key, byte by byte, without decoding it.
+     */
+    private boolean idEquals(int pos, byte[] key) {
+        if (map.getInt(pos) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (map.get(pos + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mixes String.hashCode (whose value is fixed by the language spec, so it is stable
+     * across runs) with the MurmurHash3 32-bit finalizer.
+     */
+    private static int hash(String id) {
+        int h = id.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Buffers encoded values and writes them to the channel in large chunks,
+     * tracking the file offset of the next byte.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        int position;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buf.putInt(bytes.length);
+            if (bytes.length > buf.remaining()) {
+                // Longer than the whole buffer: write it straight through
+                flush();
+                channel.write(ByteBuffer.wrap(bytes));
+            } else {
+                buf.put(bytes);
+            }
+            advance(4 + bytes.length);
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buf.putInt(v);
+            advance(4);
+        }
+
+        void putDouble(double v) throws IOException {
+            ensure(8);
+            buf.putDouble(v);
+            advance(8);
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() < Math.min(bytes, WRITE_BUFFER_BYTES)) {
+                flush();
+            }
+        }
+
+        private void advance(int bytes) throws IOException {
+            if ((long) position + bytes > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot would exceed 2 GB");
+            }
+            position += bytes;
+        }
+    }
+}
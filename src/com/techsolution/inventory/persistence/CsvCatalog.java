@@ -0,0 +1,343 @@
+package com.techsolution.inventory.persistence;
+
+import com.techsolution.inventory.ds.ArrayQueue;
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.util.AsciiNumbers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Streaming CSV import and export of the product catalog.
+ * <p>
+ * Columns are {@code id,name,category,price,quantity,reorderLevel}; a header row is optional
+ * on import and always written on export. A field may be double-quoted to hold commas or
+ * quotes (a quote inside quotes is written twice), but every record must fit on one line.
+ * <p>
+ * Import reads the file through a FileChannel in 4 MB chunks cut at line boundaries and
+ * parses the chunks in parallel on the common ForkJoin pool, straight from the bytes with no
+ * per-line String or split(). Only a few chunks are in flight at once, so memory stays bounded
+ * however large the file is. Parsed products are handed back in file order, one batch per chunk,
+ * and bad rows are reported with their line numbers instead of stopping the import.
+ */
+public final class CsvCatalog {
+    /**
+     * Outcome of an import.
+     * @param rows     data rows read (header and blank lines excluded)
+     * @param imported rows turned into products
+     * @param errors   the first MAX_REPORTED_ERRORS problems, as "line N: reason"
+     */
+    public record ImportResult(long rows, long imported, List<String> errors) {
+        /** @return number of rows rejected */
+        public long rejected() {
+            return rows - imported;
+        }
+    }
+
+    /** Header row written on export (and recognized on import). */
+    public static final String HEADER = "id,name,category,price,quantity,reorderLevel";
+    /** Maximum number of row errors kept in an ImportResult. */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    // Bytes read per chunk
+    private static final int CHUNK_BYTES = 4 << 20;
+    // Bytes buffered before each export write
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final int FIELDS = 6;
+
+    private CsvCatalog() {
+    }
+
+    /**
+     * Streams products from a CSV file.
+     * @param file  CSV file to read
+     * @param batch receives the products of each chunk, in file order, on the calling thread
+     * @return row counts and the first reported errors
+     * @throws IOException if the file cannot be read
+     */
+    public static ImportResult read(Path file, Consumer<List<Product>> batch) throws IOException {
+        int maxInFlight = ForkJoinPool.getCommonPoolParallelism() + 1;
+        ArrayQueue<CompletableFuture<Chunk>> inFlight = new ArrayQueue<>(maxInFlight);
+        long rows = 0;
+        long imported = 0;
+        long line = 0; // Lines consumed by chunks already handed back
+        List<String> errors = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] carry = new byte[0]; // Partial last line of the previous chunk
+            boolean first = true;
+            boolean eof = false;
+            while (!eof || !inFlight.isEmpty()) {
+                if (!eof && inFlight.size() < maxInFlight) {
+                    byte[] buf = Arrays.copyOf(carry, Math.max(CHUNK_BYTES, carry.length * 2));
+                    int length = carry.length;
+                    int read = 0;
+                    while (length < buf.length && (read = channel.read(ByteBuffer.wrap(buf, length, buf.length - length))) > 0) {
+                        length += read;
+                    }
+                    eof = read < 0;
+                    // Cut after the last newline; the rest starts the next chunk
+                    int cut = length;
+                    if (!eof) {
+                        while (cut > 0 && buf[cut - 1] != '\n') {
+                            cut--;
+                        }
+                        if (cut == 0) {
+                            carry = Arrays.copyOf(buf, length); // One line longer than the buffer: read more
+                            continue;
+                        }
+                    }
+                    carry = Arrays.copyOfRange(buf, cut, length);
+                    boolean skipHeader = first;
+                    int end = cut;
+                    first = false;
+                    inFlight.enqueue(CompletableFuture.supplyAsync(() -> parse(buf, end, skipHeader)));
+                    continue;
+                }
+                // Hand back the oldest chunk so batches keep file order
+                Chunk chunk = join(inFlight.dequeue());
+                for (RowError error : chunk.errors) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("line " + (line + error.line) + ": " + error.reason);
+                    }
+                }
+                rows += chunk.rows;
+                imported += chunk.products.size();
+                line += chunk.lines;
+                batch.accept(chunk.products);
+            }
+        }
+        return new ImportResult(rows, imported, errors);
+    }
+
+    /**
+     * Writes products to a CSV file, header first, replacing any existing file.
+     * @param file     CSV file to create
+     * @param products products to write
+     * @return number of products written
+     * @throws IOException if the file cannot be written
+     */
+    public static long write(Path file, Iterable<Product> products) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            StringBuilder sb = new StringBuilder(128);
+            sb.append(HEADER).append('\n');
+            for (Product p : products) {
+                appendField(sb, p.getId()).append(',');
+                appendField(sb, p.getName()).append(',');
+                appendField(sb, p.getCategory()).append(',');
+                sb.append(BigDecimal.valueOf(p.getPrice()).toPlainString()).append(',')
+                  .append(p.getQuantity()).append(',')
+                  .append(p.getReorderLevel()).append('\n');
+                byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+                sb.setLength(0);
+                if (bytes.length > buf.remaining()) {
+                    flush(channel, buf);
+                }
+                if (bytes.length > buf.capacity()) {
+                    writeFully(channel, ByteBuffer.wrap(bytes)); // Line longer than the buffer
+                } else {
+                    buf.put(bytes);
+                }
+                count++;
+            }
+            if (count == 0) {
+                buf.put(sb.toString().getBytes(StandardCharsets.UTF_8)); // Header only
+            }
+            flush(channel, buf);
+        }
+        return count;
+    }
+
+    /**
+     * A rejected row, numbered from the first line of its chunk (1-based).
+     */
+    private record RowError(int line, String reason) {}
+
+    /**
+     * Products and errors parsed from one chunk.
+     */
+    private static final class Chunk {
+        final List<Product> products = new ArrayList<>();
+        final List<RowError> errors = new ArrayList<>();
+        int rows;
+        int lines;
+    }
+
+    /**
+     * Parses the complete lines in buf[0, end).
+     */
+    private static Chunk parse(byte[] buf, int end, boolean skipHeader) {
+        Chunk chunk = new Chunk();
+        int[] bounds = new int[FIELDS * 2];
+        boolean[] quoted = new boolean[FIELDS];
+        int start = 0;
+        while (start < end) {
+            int lineEnd = start;
+            while (lineEnd < end && buf[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > start && buf[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            chunk.lines++;
+            if (lineEnd > start && !(skipHeader && chunk.lines == 1 && isHeader(buf, start, lineEnd))) {
+                chunk.rows++;
+                String error = parseLine(buf, start, lineEnd, bounds, quoted, chunk.products);
+                if (error != null) {
+                    chunk.errors.add(new RowError(chunk.lines, error));
+                }
+            }
+            start = next;
+        }
+        return chunk;
+    }
+
+    /**
+     * Parses one record and adds the product to out.
+     * @return null on success, otherwise the reason the row was rejected
+     */
+    private static String parseLine(byte[] buf, int start, int end, int[] bounds, boolean[] quoted,
+                                    List<Product> out) {
+        int field = 0;
+        int pos = start;
+        while (true) {
+            if (field == FIELDS) {
+                return "expected " + FIELDS + " fields, found more";
+            }
+            if (pos < end && buf[pos] == '"') {
+                // Quoted field: runs to the next quote not followed by another quote
+                int q = pos + 1;
+                while (true) {
+                    if (q >= end) {
+                        return "unterminated quote in field " + (field + 1);
+                    }
+                    if (buf[q] == '"') {
+                        if (q + 1 < end && buf[q + 1] == '"') {
+                            q += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    q++;
+                }
+                bounds[field * 2] = pos + 1;
+                bounds[field * 2 + 1] = q;
+                quoted[field] = true;
+                pos = q + 1;
+                if (pos < end && buf[pos] != ',') {
+                    return "unexpected text after quoted field " + (field + 1);
+                }
+            } else {
+                int comma = pos;
+                while (comma < end && buf[comma] != ',') {
+                    comma++;
+                }
+                bounds[field * 2] = pos;
+                bounds[field * 2 + 1] = comma;
+                quoted[field] = false;
+                pos = comma;
+            }
+            field++;
+            if (pos >= end) {
+                break;
+            }
+            pos++; // Skip the comma
+        }
+        if (field < FIELDS) {
+            return "expected " + FIELDS + " fields, found " + field;
+        }
+        String id = text(buf, bounds[0], bounds[1], quoted[0]);
+        if (id.isEmpty()) {
+            return "empty product ID";
+        }
+        double price = AsciiNumbers.parseDecimal(buf, bounds[6], bounds[7]);
+        if (!(price >= 0)) {
+            return "invalid price";
+        }
+        long quantity = AsciiNumbers.parseLong(buf, bounds[8], bounds[9]);
+        if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+            return "invalid quantity";
+        }
+        long reorderLevel = AsciiNumbers.parseLong(buf, bounds[10], bounds[11]);
+        if (reorderLevel < 0 || reorderLevel > Integer.MAX_VALUE) {
+            return "invalid reorder level";
+        }
+        out.add(new Product(id, text(buf, bounds[2], bounds[3], quoted[1]),
+            text(buf, bounds[4], bounds[5], quoted[2]), price, (int) quantity, (int) reorderLevel));
+        return null;
+    }
+
+    private static boolean isHeader(byte[] buf, int start, int end) {
+        return end - start >= 3 && (buf[start] | 0x20) == 'i' && (buf[start + 1] | 0x20) == 'd' && buf[start + 2] == ',';
+    }
+
+    /**
+     * Decodes a field as UTF-8, trimming unquoted fields and collapsing doubled quotes in quoted ones.
+     */
+    private static String text(byte[] buf, int from, int to, boolean quoted) {
+        if (!quoted) {
+            while (from < to && buf[from] == ' ') from++;
+            while (to > from && buf[to - 1] == ' ') to--;
+            return new String(buf, from, to - from, StandardCharsets.UTF_8);
+        }
+        String s = new String(buf, from, to - from, StandardCharsets.UTF_8);
+        return s.indexOf('"') < 0 ? s : s.replace("\"\"", "\"");
+    }
+
+    /**
+     * Appends a field, quoting it if it holds a comma, quote or edge spaces.
+     * Line breaks cannot be represented and are written as spaces.
+     */
+    private static StringBuilder appendField(StringBuilder sb, String s) {
+        if (s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            s = s.replace('\n', ' ').replace('\r', ' ');
+        }
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+            || (!s.isEmpty() && (s.charAt(0) == ' ' || s.charAt(s.length() - 1) == ' '));
+        if (!quote) {
+            return sb.append(s);
+        }
+        return sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Writes out what has been put into buf and empties it for refilling.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        writeFully(channel, buf);
+        buf.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private static Chunk join(CompletableFuture<Chunk> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.techsolution.inventory.persistence;
+
+/**
+ * How often the journal forces written records to stable storage.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every operation waits until its record has been forced to disk. Concurrent callers
+     * share one fsync (group commit). Nothing acknowledged is ever lost.
+     */
+    EVERY_OP,
+    /**
+     * A background thread writes and forces buffered records every interval.
+     * A crash loses at most one interval of operations.
+     */
+    INTERVAL,
+    /**
+     * A background thread writes buffered records every interval, but never forces them.
+     * Records survive a JVM crash once written, and the OS decides when they reach disk.
+     */
+    OS
+}
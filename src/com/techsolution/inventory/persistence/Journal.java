@@ -0,0 +1,720 @@
+package com.techsolution.inventory.persistence;
+
+import com.techsolution.inventory.model.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary write-ahead journal of inventory operations.
+ * <p>
+ * The file starts with {@code [int magic][int version][long epoch]}. The epoch counts
+ * checkpoints: {@link #checkpoint} returns the position a catalog snapshot is about to cover,
+ * and {@link #rotate} then replaces the file with an empty one of the next epoch, so replay
+ * after a restart only covers what happened since the snapshot. Each record is laid out as
+ * {@code [int length][int crc32][byte type][long epochMillis][payload]}, where the CRC covers
+ * everything after it and strings are stored as {@code [int byteLength][UTF-8 bytes]}. The
+ * time is when the operation happened, so replay can date the sales it makes (including
+ * back-orders fulfilled by a restock) as they originally happened.
+ * Records are encoded into an in-memory buffer and written to a FileChannel in batches.
+ * The log methods only append and return the record's sequence number; {@link #commit}
+ * then waits for it as the policy requires, so a caller can append while holding its own
+ * lock and wait after releasing it:
+ * <ul>
+ *   <li>{@link FsyncPolicy#EVERY_OP}: commit waits until the record is forced to disk.
+ *       While one thread is forcing, others keep appending; the next force covers all of
+ *       them at once (group commit).</li>
+ *   <li>{@link FsyncPolicy#INTERVAL} / {@link FsyncPolicy#OS}: a daemon thread writes the
+ *       buffer every interval (forcing it only for INTERVAL); commit returns at once and
+ *       appends never wait for I/O unless the buffer fills up.</li>
+ * </ul>
+ * Two buffers are swapped on every flush, so appenders fill one while the other is written.
+ * <p>
+ * {@link #open} replays the existing file first and cuts off a torn or corrupt tail left
+ * by a crash, then appends after the last valid record.
+ * <p>
+ * If a write or force fails, the journal is failed for good: the records not yet written are
+ * kept but never acknowledged, and every waiting and later caller gets an
+ * UncheckedIOException, so no operation is ever reported durable when it is not.
+ */
+public class Journal implements AutoCloseable {
+    // Record types
+    static final byte ADD_PRODUCT = 1;
+    static final byte UPDATE_STOCK = 2;
+    static final byte REMOVE_PRODUCT = 3;
+    static final byte SALE = 4;
+    static final byte BACKORDER_ENQUEUED = 5;
+    static final byte BACKORDER_FULFILLED = 6;
+    static final byte PROCESS_BACKORDERS = 7;
+    static final byte END_OF_DAY = 8;
+
+    // Identifies a journal file ("INVJ") and its format
+    private static final int MAGIC = 0x494E564A;
+    private static final int VERSION = 2;
+    // Bytes of file header before the first record: magic, version and epoch
+    private static final int FILE_HEADER_BYTES = 16;
+    // Bytes of record header before the type byte: length and CRC
+    private static final int HEADER_BYTES = 8;
+    // Size of each of the two write buffers
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path file;
+    // Open journal file; replaced by rotate
+    private FileChannel channel;
+    // Epoch of the current file
+    private long epoch;
+    private final FsyncPolicy policy;
+    // Guards the buffers and sequence counters
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled whenever a flush completes
+    private final Condition flushDone = lock.newCondition();
+    // Buffer currently receiving records
+    private ByteBuffer active = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    // Buffer being written (or idle, cleared, waiting to be swapped in)
+    private ByteBuffer spare = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    // Checksum calculator, used under lock
+    private final CRC32 crc = new CRC32();
+    // Number of records appended so far
+    private long appendedSeq;
+    // Number of records known to be forced to disk
+    private long forcedSeq;
+    // True while some thread is writing the spare buffer
+    private boolean flushing;
+    // Background writer for INTERVAL / OS policies (null for EVERY_OP)
+    private final Thread flusher;
+    private volatile boolean closed;
+    // First write or force failure, after which nothing more is appended or acknowledged
+    private IOException failure;
+
+    private Journal(Path file, FileChannel channel, long epoch, FsyncPolicy policy, long intervalMillis) {
+        this.file = file;
+        this.channel = channel;
+        this.epoch = epoch;
+        this.policy = policy;
+        if (policy == FsyncPolicy.EVERY_OP) {
+            flusher = null;
+        } else {
+            flusher = new Thread(() -> flushPeriodically(intervalMillis), "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Replays the journal at file (if any) through visitor, truncates any incomplete or corrupt
+     * tail, and opens the journal for appending.
+     * @param file           journal file (created if missing)
+     * @param policy         fsync policy
+     * @param intervalMillis flush interval for INTERVAL and OS policies (ignored for EVERY_OP)
+     * @param visitor        receives every valid existing record, in order
+     * @return the open journal
+     * @throws IOException if the file cannot be read or opened, or continues a checkpoint
+     */
+    public static Journal open(Path file, FsyncPolicy policy, long intervalMillis,
+                               JournalVisitor visitor) throws IOException {
+        return open(file, policy, intervalMillis, visitor, null);
+    }
+
+    /**
+     * Opens the journal on top of a loaded catalog snapshot, replaying only the records the
+     * snapshot does not contain: those past its position in the same epoch, or every record
+     * of the next epoch (the journal was rotated after the snapshot was taken).
+     * @param file           journal file (created if missing, in the epoch after the snapshot's)
+     * @param policy         fsync policy
+     * @param intervalMillis flush interval for INTERVAL and OS policies (ignored for EVERY_OP)
+     * @param visitor        receives every valid record after the checkpoint, in order
+     * @param checkpoint     journal position of the loaded snapshot, or null if none was loaded
+     * @return the open journal
+     * @throws IOException if the file cannot be read or opened, or does not continue the snapshot
+     */
+    public static Journal open(Path file, FsyncPolicy policy, long intervalMillis,
+                               JournalVisitor visitor, JournalPosition checkpoint) throws IOException {
+        if (policy != FsyncPolicy.EVERY_OP && intervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + intervalMillis);
+        }
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long epoch;
+        try {
+            if (channel.size() == 0) {
+                epoch = checkpoint == null ? 1 : checkpoint.epoch() + 1;
+                writeFileHeader(channel, epoch);
+            } else {
+                epoch = readFileHeader(channel, file);
+                long validEnd = replay(channel, visitor, replayStart(file, channel, epoch, checkpoint));
+                channel.truncate(validEnd);
+            }
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new Journal(file, channel, epoch, policy, intervalMillis);
+    }
+
+    /**
+     * Decides where replay starts given the snapshot loaded before the journal.
+     */
+    private static long replayStart(Path file, FileChannel channel, long epoch, JournalPosition checkpoint)
+            throws IOException {
+        if (checkpoint == null) {
+            if (epoch != 1) {
+                throw new IOException("Journal " + file + " continues a snapshot (epoch " + epoch
+                    + "); load that snapshot first");
+            }
+            return FILE_HEADER_BYTES;
+        }
+        if (epoch == checkpoint.epoch()) {
+            if (checkpoint.offset() < FILE_HEADER_BYTES || checkpoint.offset() > channel.size()) {
+                throw new IOException("Journal " + file + " ends before the snapshot's checkpoint");
+            }
+            return checkpoint.offset();
+        }
+        if (epoch == checkpoint.epoch() + 1) {
+            return FILE_HEADER_BYTES;
+        }
+        throw new IOException("Journal " + file + " (epoch " + epoch + ") does not continue the snapshot (epoch "
+            + checkpoint.epoch() + ")");
+    }
+
+    private static void writeFileHeader(FileChannel channel, long epoch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(epoch).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, FILE_HEADER_BYTES - header.remaining());
+        }
+        channel.force(true);
+    }
+
+    private static long readFileHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < FILE_HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Not a journal: " + file);
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported journal version in " + file);
+        }
+        return header.getLong();
+    }
+
+    /**
+     * Reads records from start until the end of the channel or the first invalid record.
+     * @return byte offset just past the last valid record
+     */
+    private static long replay(FileChannel channel, JournalVisitor visitor, long start) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+        CRC32 crc = new CRC32();
+        long offset = start;
+        channel.position(start);
+        while (true) {
+            // Refill, keeping any partial record at the front of the buffer
+            int read = channel.read(buf);
+            buf.flip();
+            boolean progressed = false;
+            while (buf.remaining() >= HEADER_BYTES) {
+                buf.mark();
+                int length = buf.getInt();
+                int expectedCrc = buf.getInt();
+                if (length <= 0 || length > BUFFER_BYTES - HEADER_BYTES) {
+                    return offset; // Garbage length: corrupt tail
+                }
+                if (buf.remaining() < length) {
+                    buf.reset(); // Record continues past what we have read so far
+                    break;
+                }
+                ByteBuffer record = buf.slice(buf.position(), length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != expectedCrc || !dispatch(record, visitor)) {
+                    return offset; // Torn or corrupt record
+                }
+                buf.position(buf.position() + length);
+                offset += HEADER_BYTES + length;
+                progressed = true;
+            }
+            buf.compact();
+            if (read < 0 || (read == 0 && !progressed)) {
+                return offset; // End of file (possibly inside a partial record)
+            }
+        }
+    }
+
+    /**
+     * Decodes one record and calls the matching visitor method. The visitor is called only
+     * after the whole record has decoded, so an exception it throws propagates (and fails
+     * open) instead of being taken for a corrupt record and truncated away.
+     * @return false if the record could not be decoded
+     */
+    private static boolean dispatch(ByteBuffer r, JournalVisitor v) {
+        Consumer<JournalVisitor> call = decode(r);
+        if (call == null) {
+            return false;
+        }
+        call.accept(v);
+        return true;
+    }
+
+    /**
+     * Decodes one record into the visitor call it stands for.
+     * @return the call, or null if the record could not be decoded
+     */
+    private static Consumer<JournalVisitor> decode(ByteBuffer r) {
+        try {
+            byte type = r.get();
+            long time = r.getLong();
+            switch (type) {
+                case ADD_PRODUCT -> {
+                    Product p = new Product(getString(r), getString(r), getString(r), r.getDouble(), r.getInt(), r.getInt());
+                    return v -> v.onAddProduct(p, time);
+                }
+                case UPDATE_STOCK -> {
+                    String id = getString(r);
+                    int quantity = r.getInt();
+                    return v -> v.onUpdateStock(id, quantity, time);
+                }
+                case REMOVE_PRODUCT -> {
+                    String id = getString(r);
+                    return v -> v.onRemoveProduct(id, time);
+                }
+                case SALE -> {
+                    String id = getString(r);
+                    int quantity = r.getInt();
+                    double discount = r.getDouble();
+                    return v -> v.onSale(id, quantity, discount, time);
+                }
+                case BACKORDER_ENQUEUED -> {
+                    String id = getString(r);
+                    int quantity = r.getInt();
+                    double discount = r.getDouble();
+                    return v -> v.onBackOrderEnqueued(id, quantity, discount, time);
+                }
+                case BACKORDER_FULFILLED -> {
+                    String id = getString(r);
+                    int quantity = r.getInt();
+                    return v -> v.onBackOrderFulfilled(id, quantity, time);
+                }
+                case PROCESS_BACKORDERS -> {
+                    return v -> v.onProcessBackOrders(time);
+                }
+                case END_OF_DAY -> {
+                    return v -> v.onEndOfDay(time);
+                }
+                default -> {
+                    return null;
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Journals an addProduct call.
+     * @param p          product added
+     * @param timeMillis when the operation happened (epoch milliseconds)
+     * @return the record's sequence number, for commit
+     */
+    public long logAddProduct(Product p, long timeMillis) {
+        lock.lock();
+        long seq;
+        try {
+            byte[] id = utf8(p.getId());
+            byte[] name = utf8(p.getName());
+            byte[] category = utf8(p.getCategory());
+            int start = begin(ADD_PRODUCT, timeMillis, 12 + id.length + name.length + category.length + 16);
+            putString(id);
+            putString(name);
+            putString(category);
+            active.putDouble(p.getPrice());
+            active.putInt(p.getQuantity());
+            active.putInt(p.getReorderLevel());
+            seq = end(start);
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    /** Journals an updateStock call made at timeMillis; returns its sequence number. */
+    public long logUpdateStock(String id, int quantity, long timeMillis) {
+        return logIdInt(UPDATE_STOCK, id, quantity, timeMillis);
+    }
+
+    /** Journals a removeProduct call made at timeMillis; returns its sequence number. */
+    public long logRemoveProduct(String id, long timeMillis) {
+        lock.lock();
+        long seq;
+        try {
+            byte[] bytes = utf8(id);
+            int start = begin(REMOVE_PRODUCT, timeMillis, 4 + bytes.length);
+            putString(bytes);
+            seq = end(start);
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    /** Journals a recordSale call made at timeMillis; returns its sequence number. */
+    public long logSale(String id, int quantity, double discount, long timeMillis) {
+        return logIdIntDouble(SALE, id, quantity, discount, timeMillis);
+    }
+
+    /**
+     * Journals a batch of recordSale calls, one SALE record each, under one lock acquisition;
+     * committing the returned (last) sequence number waits for the whole batch at once.
+     * @param ids        product IDs
+     * @param quantities units requested
+     * @param discounts  discount percentages
+     * @param count      number of sales (entries of the arrays) to journal
+     * @param timeMillis when the sales happened (epoch milliseconds)
+     * @return the sequence number of the last record, or 0 if count is 0
+     */
+    public long logSales(String[] ids, int[] quantities, double[] discounts, int count, long timeMillis) {
+        if (count == 0) {
+            return 0;
+        }
+        lock.lock();
+        long seq = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = utf8(ids[i]);
+                int start = begin(SALE, timeMillis, 16 + bytes.length);
+                putString(bytes);
+                active.putInt(quantities[i]);
+                active.putDouble(discounts[i]);
+                seq = end(start);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    /** Journals a back-order being queued (audit only; ignored on replay). */
+    public long logBackOrderEnqueued(String id, int quantity, double discount, long timeMillis) {
+        return logIdIntDouble(BACKORDER_ENQUEUED, id, quantity, discount, timeMillis);
+    }
+
+    /** Journals a back-order being fulfilled (audit only; ignored on replay). */
+    public long logBackOrderFulfilled(String id, int quantity, long timeMillis) {
+        return logIdInt(BACKORDER_FULFILLED, id, quantity, timeMillis);
+    }
+
+    /** Journals a manual back-order sweep made at timeMillis; returns its sequence number. */
+    public long logProcessBackOrders(long timeMillis) {
+        return logMarker(PROCESS_BACKORDERS, timeMillis);
+    }
+
+    /** Journals the end-of-day reset of the day's sales, made at timeMillis; returns its sequence number. */
+    public long logEndOfDay(long timeMillis) {
+        return logMarker(END_OF_DAY, timeMillis);
+    }
+
+    /**
+     * Writes and forces every record appended so far and returns the position just past them.
+     * The caller must keep further records from being appended until it has saved the
+     * snapshot this position is recorded in, and then call rotate.
+     * @return the current epoch and the offset of the end of its file
+     * @throws UncheckedIOException if the records cannot be written
+     */
+    public JournalPosition checkpoint() {
+        lock.lock();
+        try {
+            while (flushing || active.position() > 0 || forcedSeq < appendedSeq) {
+                flushLocked(true);
+            }
+            return new JournalPosition(epoch, channel.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal position", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the next epoch with an empty file once a snapshot containing everything up to
+     * covered has been saved. The empty file is written aside and moved over the journal, so
+     * a crash leaves either the old file (which replays from the snapshot's offset) or the
+     * new one.
+     * @param covered position returned by checkpoint and saved in the snapshot
+     * @throws IllegalStateException if records were appended after the checkpoint
+     * @throws UncheckedIOException  if the new file cannot be created
+     */
+    public void rotate(JournalPosition covered) {
+        lock.lock();
+        try {
+            checkFailure();
+            if (covered.epoch() != epoch || active.position() > 0 || flushing
+                    || channel.position() != covered.offset()) {
+                throw new IllegalStateException("Journal records were appended after the checkpoint");
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel fresh = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFileHeader(fresh, epoch + 1);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(FILE_HEADER_BYTES);
+            epoch++;
+        } catch (IOException e) {
+            failure = e; // The old channel may be closed: nothing more can be journaled safely
+            throw new UncheckedIOException("Failed to rotate journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and forces every appended record, then stops the flusher and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            lock.lock();
+            try {
+                flushLocked(true);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close journal", e);
+            }
+        }
+    }
+
+    private long logIdInt(byte type, String id, int value, long timeMillis) {
+        lock.lock();
+        long seq;
+        try {
+            byte[] bytes = utf8(id);
+            int start = begin(type, timeMillis, 8 + bytes.length);
+            putString(bytes);
+            active.putInt(value);
+            seq = end(start);
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    private long logIdIntDouble(byte type, String id, int value, double extra, long timeMillis) {
+        lock.lock();
+        long seq;
+        try {
+            byte[] bytes = utf8(id);
+            int start = begin(type, timeMillis, 16 + bytes.length);
+            putString(bytes);
+            active.putInt(value);
+            active.putDouble(extra);
+            seq = end(start);
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    private long logMarker(byte type, long timeMillis) {
+        lock.lock();
+        long seq;
+        try {
+            seq = end(begin(type, timeMillis, 0));
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    /**
+     * Reserves room for a record and writes its type byte and time after a placeholder header.
+     * Called with the lock held.
+     * @return buffer position where the record starts
+     */
+    private int begin(byte type, long timeMillis, int payloadBytes) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        checkFailure();
+        int needed = HEADER_BYTES + 1 + 8 + payloadBytes;
+        if (needed > BUFFER_BYTES) {
+            throw new IllegalArgumentException("Journal record too large: " + needed + " bytes");
+        }
+        while (active.remaining() < needed) {
+            flushLocked(false);
+        }
+        int start = active.position();
+        active.position(start + HEADER_BYTES);
+        active.put(type);
+        active.putLong(timeMillis);
+        return start;
+    }
+
+    /**
+     * Fills in the length and CRC of the record started at start. Called with the lock held.
+     * @return the record's sequence number
+     */
+    private long end(int start) {
+        int bodyStart = start + HEADER_BYTES;
+        int length = active.position() - bodyStart;
+        crc.reset();
+        crc.update(active.slice(bodyStart, length));
+        active.putInt(start, length);
+        active.putInt(start + 4, (int) crc.getValue());
+        return ++appendedSeq;
+    }
+
+    /**
+     * Makes a record as durable as the policy promises: under EVERY_OP, waits until the record
+     * with this sequence number (and so every earlier one) has been forced to disk, leading a
+     * group force if no other thread is; under the other policies returns at once.
+     * @param seq sequence number returned by a log method
+     * @throws UncheckedIOException if the journal has failed before the record was forced
+     */
+    public void commit(long seq) {
+        if (policy != FsyncPolicy.EVERY_OP) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (forcedSeq < seq) {
+                checkFailure();
+                if (flushing) {
+                    flushDone.awaitUninterruptibly(); // Another thread's force may cover us
+                } else {
+                    flushLocked(true); // Become the leader for everything appended so far
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Swaps the buffers and writes out everything appended so far, forcing it if asked.
+     * Called with the lock held; the lock is released during the I/O so appends can continue.
+     * On failure the written buffer keeps its records, forcedSeq stays put and the journal
+     * is latched failed.
+     * @throws UncheckedIOException if this or an earlier flush failed
+     */
+    private void flushLocked(boolean force) {
+        while (flushing) {
+            flushDone.awaitUninterruptibly();
+        }
+        checkFailure();
+        if (active.position() == 0 && (!force || forcedSeq >= appendedSeq)) {
+            return; // Nothing to do
+        }
+        ByteBuffer toWrite = active;
+        active = spare;
+        spare = toWrite;
+        long seq = appendedSeq;
+        flushing = true;
+        lock.unlock();
+        IOException error = null;
+        try {
+            toWrite.flip();
+            while (toWrite.hasRemaining()) {
+                channel.write(toWrite);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            flushing = false;
+            if (error == null) {
+                toWrite.clear();
+                if (force) {
+                    forcedSeq = Math.max(forcedSeq, seq);
+                }
+            } else {
+                toWrite.rewind(); // Keep the records: they were never acknowledged
+                failure = error;
+            }
+            flushDone.signalAll();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Throws if a flush has failed. Called with the lock held.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed; no further operations are journaled", failure);
+        }
+    }
+
+    private void flushPeriodically(long intervalMillis) {
+        while (!closed) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return; // close() flushes the remainder
+            }
+            lock.lock();
+            try {
+                flushLocked(policy == FsyncPolicy.INTERVAL);
+            } catch (UncheckedIOException e) {
+                return; // Latched: appenders now get the failure
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void putString(byte[] bytes) {
+        active.putInt(bytes.length);
+        active.put(bytes);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer r) {
+        int length = r.getInt();
+        if (length < 0 || length > r.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        r.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
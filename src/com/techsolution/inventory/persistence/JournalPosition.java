@@ -0,0 +1,10 @@
+package com.techsolution.inventory.persistence;
+
+/**
+ * A point in the journal: the epoch (incremented each time a checkpoint starts the journal
+ * afresh) and a byte offset within that epoch's file.
+ * @param epoch  journal epoch, or 0 for "no journal"
+ * @param offset byte offset just past the last record covered
+ */
+public record JournalPosition(long epoch, long offset) {
+}
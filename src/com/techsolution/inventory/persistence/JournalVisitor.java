@@ -0,0 +1,65 @@
+package com.techsolution.inventory.persistence;
+
+import com.techsolution.inventory.model.Product;
+
+/**
+ * Receives journal records in order during replay.
+ * Every method gets the time the operation originally happened (epoch milliseconds).
+ * Back-order enqueue/fulfill records are consequences of other operations and are
+ * kept for auditing; the default implementations ignore them.
+ */
+public interface JournalVisitor {
+    /**
+     * @param p          product added (or replaced)
+     * @param timeMillis when the operation happened
+     */
+    void onAddProduct(Product p, long timeMillis);
+
+    /**
+     * @param id         product ID
+     * @param quantity   new stock quantity
+     * @param timeMillis when the operation happened
+     */
+    void onUpdateStock(String id, int quantity, long timeMillis);
+
+    /**
+     * @param id         product ID removed
+     * @param timeMillis when the operation happened
+     */
+    void onRemoveProduct(String id, long timeMillis);
+
+    /**
+     * @param id         product ID
+     * @param quantity   quantity requested
+     * @param discount   discount percentage
+     * @param timeMillis when the sale happened
+     */
+    void onSale(String id, int quantity, double discount, long timeMillis);
+
+    /**
+     * Called for a manual back-order sweep.
+     * @param timeMillis when the sweep happened
+     */
+    void onProcessBackOrders(long timeMillis);
+
+    /**
+     * Called when the end-of-day report reset the day's sales.
+     * @param timeMillis when the report was generated
+     */
+    void onEndOfDay(long timeMillis);
+
+    /**
+     * @param id         product ID
+     * @param quantity   quantity back-ordered
+     * @param discount   discount percentage
+     * @param timeMillis when the back-order was queued
+     */
+    default void onBackOrderEnqueued(String id, int quantity, double discount, long timeMillis) {}
+
+    /**
+     * @param id         product ID
+     * @param quantity   quantity fulfilled
+     * @param timeMillis when the back-order was fulfilled
+     */
+    default void onBackOrderFulfilled(String id, int quantity, long timeMillis) {}
+}
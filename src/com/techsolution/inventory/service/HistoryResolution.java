@@ -0,0 +1,18 @@
+package com.techsolution.inventory.service;
+
+/**
+ * Length of the periods a sales history query is broken into. Periods follow local time:
+ * an hour starts on the hour, a day at midnight and a week at midnight on Monday.
+ */
+public enum HistoryResolution {
+    HOUR(1),
+    DAY(24),
+    WEEK(24 * 7);
+
+    // Length in history hours (a DST change does not stretch or shrink a local day)
+    final int hours;
+
+    HistoryResolution(int hours) {
+        this.hours = hours;
+    }
+}
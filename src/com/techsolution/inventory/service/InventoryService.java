@@ -1,57 +1,490 @@
 package com.techsolution.inventory.service;
 
+import com.techsolution.inventory.ds.ArrayQueue;
 import com.techsolution.inventory.ds.HashTable;
-import com.techsolution.inventory.ds.Queue;
+import com.techsolution.inventory.ds.IndexedHeap;
+import com.techsolution.inventory.ds.OrderStatisticTree;
+import com.techsolution.inventory.ds.Table;
+import com.techsolution.inventory.ds.TrigramIndex;
+import com.techsolution.inventory.metrics.BackOrderPassEvent;
+import com.techsolution.inventory.metrics.LatencyHistogram;
+import com.techsolution.inventory.metrics.MetricsRegistry;
+import com.techsolution.inventory.metrics.RehashEvent;
+import com.techsolution.inventory.metrics.ReportEvent;
+import com.techsolution.inventory.metrics.SaleEvent;
+import com.techsolution.inventory.model.OffHeapProductStore;
 import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.persistence.CatalogSnapshot;
+import com.techsolution.inventory.persistence.CsvCatalog;
+import com.techsolution.inventory.persistence.FsyncPolicy;
+import com.techsolution.inventory.persistence.Journal;
+import com.techsolution.inventory.persistence.JournalPosition;
+import com.techsolution.inventory.persistence.JournalVisitor;
 import com.techsolution.inventory.util.ReportUtil;
 import com.techsolution.inventory.algorithms.Sorting;
+import jdk.jfr.EventType;
 
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service layer for inventory and sales management, including back-order support.
- * Uses a custom HashTable to store products and a custom Queue for pending back-orders.
+ * Uses a custom hash table to store products, and a per-product ArrayQueue of pending
+ * back-orders so that restocking a product fulfills only that product's waiting orders.
+ * The product table defaults to the chained HashTable; any other Table implementation
+ * (e.g. RobinHoodHashTable, or ConcurrentHashTable when several terminals share one service)
+ * can be supplied through the constructor, as can an OffHeapProductStore for catalogs too
+ * large to keep as Product objects on the heap. The secondary indexes hold product ordinals
+ * rather than products, so over an OffHeapProductStore no Product or product String is kept
+ * on the heap; products are returned as views created per query.
+ * When a journal is opened, every mutating operation is recorded to it before being applied,
+ * and the journal is replayed on startup to restore state. A snapshot saved while journaling
+ * is a checkpoint: the journal restarts empty, and opening it after loading the snapshot
+ * replays only what happened since.
+ * The hot operations record their latencies in a {@link MetricsRegistry} (see getMetrics)
+ * and emit Flight Recorder events when a recording enables them.
+ * <p>
+ * With a thread-safe product table (ConcurrentHashTable), the public methods may be called
+ * from several threads once the service is set up (snapshot, journal and output configured).
+ * Sales take stock lock-free through {@link Product#tryDecrement}, so concurrent sales of the
+ * same product never oversell. A completed sale queues its bookkeeping (the day's totals, the
+ * history and the stock indexes) instead of waiting for the lock; whichever thread next holds
+ * the lock applies the queue, and every query drains it first, so no query misses a sale that
+ * has returned. Removing or replacing a product withdraws its stock, so a sale racing with it
+ * either completes first or is settled against the product the ID names afterwards. With a
+ * journal, operations append their records under the lock but wait for the disk after
+ * releasing it; an operation's effects can be seen by others before it is durable, but
+ * anything that builds on them is journaled after it and so is never durable without it.
  */
 public class InventoryService {
     // Hash table mapping product ID to Product object for O(1) average lookup
-    private final HashTable<String, Product> products = new HashTable<>(16);
-    // List to record successful sales (productId, quantity, amount)
-    private final java.util.List<SaleRecord> sales = new java.util.ArrayList<>();
-    // FIFO queue to hold back-order requests when stock is insufficient
-    private final Queue<BackOrder> backOrders = new Queue<>();
+    private final Table<String, Product> products;
+    // Dense integer ordinal for every product ID (the store's own for an OffHeapProductStore),
+    // which keys every secondary index below
+    private final ProductOrdinals ordinals;
+    // Product ordinals ordered by price (ties broken by ID) for paginated and range views
+    private final OrderStatisticTree<Integer> byPrice;
+    // Product ordinals ordered by case-insensitive name (ties broken by ID) for paginated views
+    private final OrderStatisticTree<Integer> byName;
+    // Running revenue, category and per-product totals for the day, kept in step with sales
+    private final SalesAggregates aggregates;
+    // Hourly, daily and weekly rollups of past sales, kept across end-of-day resets
+    private final SalesHistory history;
+    // Category, price band and stock state bitmaps for multi-criteria filtering
+    private final ProductBitmapIndex bitmaps;
+    // Product ordinals keyed on quantity - reorderLevel, most urgent (smallest) on top
+    private final IndexedHeap restockUrgency = new IndexedHeap(false);
+    // Trigram index over product names for substring search, by product ordinal
+    private final TrigramIndex nameSearch;
+    // True while the price, name and trigram indexes have yet to be built after a snapshot load
+    // or an import into an empty inventory (guarded by lock, except in loadSnapshot, which only
+    // runs on an empty service before it is used)
+    private boolean viewIndexesPending;
+    // Loaded snapshot some of whose products are still only in the mapped file (null once none are)
+    private volatile CatalogSnapshot snapshot;
+    // Snapshot ordinals already materialized, so that a product removed since stays removed
+    private BitSet materialized;
+    // Number of products still only in the snapshot
+    private int unmaterialized;
+    // Journal position the loaded snapshot contains, where journal replay has to start
+    private JournalPosition snapshotPosition;
+    // Pending back-orders indexed by product ID; each product's queue is FIFO
+    private final Table<String, ArrayQueue<BackOrder>> backOrders = new HashTable<>(16);
+    // Total number of pending back-orders across all products
+    private int pendingBackOrders;
+    // Write-ahead journal of mutating operations (null when not journaling)
+    private Journal journal;
+    // Source of operation times, journaled with each record
+    private final Clock clock;
+    // Time of the journal record being replayed, or -1 when not replaying
+    private long replayMillis = -1;
+    // Sales completed without the lock, whose bookkeeping is applied by drainSales
+    private final ConcurrentLinkedQueue<PendingSale> pendingSales = new ConcurrentLinkedQueue<>();
+    // Destination of the service's console messages and reports
+    private PrintStream out = System.out;
+    // Guards every structure above except the product table and the products' stock
+    private final ReentrantLock lock = new ReentrantLock();
+    // Latency histograms, counters and gauges shown by the Stats view
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final LatencyHistogram saleLatency = metrics.histogram("recordSale");
+    private final LatencyHistogram saleBatchLatency = metrics.histogram("recordSales");
+    private final LatencyHistogram backOrderPassLatency = metrics.histogram("processBackOrders");
+    private final LatencyHistogram listLatency = metrics.histogram("getAllProducts");
+    private final LatencyHistogram reportLatency = metrics.histogram("generateEndOfDayReport");
+    private final LongAdder salesRecorded = metrics.counter("sales.recorded");
+    private final LongAdder salesUnknownProduct = metrics.counter("sales.unknownProduct");
+    private final LongAdder backOrdersQueued = metrics.counter("backOrders.queued");
+    private final LongAdder backOrdersFulfilled = metrics.counter("backOrders.fulfilled");
+
+    /**
+     * Creates a service backed by the chained HashTable (grows incrementally from 16 buckets).
+     */
+    public InventoryService() {
+        this(new HashTable<>(16));
+    }
+
+    /**
+     * Creates a service backed by the given product table.
+     * @param products empty table to store products in, keyed by product ID
+     */
+    public InventoryService(Table<String, Product> products) {
+        this(products, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a service backed by the given product table that timestamps the sales history
+     * with the given clock.
+     * @param products empty table to store products in, keyed by product ID
+     * @param clock    source of sale times and of the time zone days are counted in
+     */
+    public InventoryService(Table<String, Product> products, Clock clock) {
+        this.products = products;
+        this.clock = clock;
+        ordinals = new ProductOrdinals(products);
+        byPrice = new OrderStatisticTree<>((a, b) -> {
+            int c = Double.compare(ordinals.price(a), ordinals.price(b));
+            return c != 0 ? c : ordinals.compareIds(a, b);
+        });
+        byName = new OrderStatisticTree<>((a, b) -> {
+            int c = ordinals.compareNames(a, b);
+            return c != 0 ? c : ordinals.compareIds(a, b);
+        });
+        aggregates = new SalesAggregates(ordinals);
+        bitmaps = new ProductBitmapIndex(ordinals);
+        nameSearch = new TrigramIndex(ordinals::name);
+        history = new SalesHistory(clock, SalesHistory.DEFAULT_HOURS, SalesHistory.DEFAULT_DAYS,
+            SalesHistory.DEFAULT_WEEKS);
+        metrics.gauge("backOrders.pending", () -> pendingBackOrders);
+        metrics.gauge("products.count", () -> products.size() + unmaterialized);
+        if (products instanceof HashTable<String, Product> table) {
+            // chainStats walks every bucket, so it is taken once per read for all four gauges
+            MetricsRegistry.GaugeGroup<HashTable.ChainStats> chains = metrics.gaugeGroup(table::chainStats);
+            chains.gauge("products.table.buckets", HashTable.ChainStats::buckets);
+            chains.gauge("products.table.loadFactor", HashTable.ChainStats::loadFactor);
+            chains.gauge("products.table.longestChain", HashTable.ChainStats::longestChain);
+            chains.gauge("products.table.meanChain", stats ->
+                stats.nonEmptyBuckets() == 0 ? 0 : (double) table.size() / stats.nonEmptyBuckets());
+            table.setResizeListener(new RehashRecorder());
+        }
+        if (products instanceof OffHeapProductStore store) {
+            metrics.gauge("products.offHeapBytes", store::offHeapBytes);
+            metrics.gauge("products.abandonedArenaBytes", store::abandonedArenaBytes);
+        }
+    }
+
+    /**
+     * Returns the service's metrics: latency histograms of the hot operations, sale and
+     * back-order counters, and back-order queue and product table gauges.
+     * @return the metrics registry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Redirects the service's messages and reports (default: System.out).
+     * @param out destination stream
+     */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Returns the current destination of the service's messages and reports.
+     * @return output stream
+     */
+    public PrintStream getOutput() {
+        return out;
+    }
+
+    /**
+     * Restores state from a journal file and journals every later mutating operation to it.
+     * Existing records are replayed silently through the normal service methods; a torn
+     * record left by a crash is discarded. After loadSnapshot only the records the snapshot
+     * does not already contain are replayed.
+     * @param file           journal file (created if missing)
+     * @param policy         when appended records are forced to disk
+     * @param intervalMillis flush interval for the INTERVAL and OS policies
+     * @throws IOException if the journal cannot be read or opened, or does not continue the
+     *                     loaded snapshot
+     */
+    public void openJournal(Path file, FsyncPolicy policy, long intervalMillis) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Journal already open");
+        }
+        PrintStream console = out;
+        out = new PrintStream(OutputStream.nullOutputStream());
+        try {
+            // Each replayed operation runs at its journaled time, so sales land in their own hour
+            journal = Journal.open(file, policy, intervalMillis, new JournalVisitor() {
+                @Override
+                public void onAddProduct(Product p, long timeMillis) {
+                    replayMillis = timeMillis;
+                    addProduct(p);
+                }
+
+                @Override
+                public void onUpdateStock(String id, int quantity, long timeMillis) {
+                    replayMillis = timeMillis;
+                    updateStock(id, quantity);
+                }
+
+                @Override
+                public void onRemoveProduct(String id, long timeMillis) {
+                    replayMillis = timeMillis;
+                    removeProduct(id);
+                }
+
+                @Override
+                public void onSale(String id, int quantity, double discount, long timeMillis) {
+                    replayMillis = timeMillis;
+                    recordSale(id, quantity, discount);
+                }
+
+                @Override
+                public void onProcessBackOrders(long timeMillis) {
+                    replayMillis = timeMillis;
+                    processBackOrders();
+                }
+
+                @Override
+                public void onEndOfDay(long timeMillis) {
+                    replayMillis = timeMillis;
+                    generateEndOfDayReport();
+                }
+            }, snapshotPosition);
+        } finally {
+            replayMillis = -1;
+            out = console;
+        }
+    }
+
+    /**
+     * Writes the catalog, pending back-orders, the day's sales totals and the sales history
+     * to a binary snapshot file.
+     * With a journal open the snapshot is a checkpoint: it records the journal position it
+     * contains, and once it is safely in place the journal restarts empty.
+     * @param file snapshot file to create or atomically replace
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        lock.lock();
+        try {
+            drainSales();
+            materializeSnapshot();
+            JournalPosition position = journal != null ? journal.checkpoint()
+                : snapshotPosition != null ? snapshotPosition : new JournalPosition(0, 0);
+            CatalogSnapshot.write(file, ordinals.count(), ordinals::id, ordinals::product,
+                sink -> backOrders.values().forEach(pending -> pending.forEach(
+                    bo -> sink.accept(bo.productId, bo.qty, bo.discount))),
+                sales -> {
+                    aggregates.writeTo(sales);
+                    history.writeTo(sales);
+                }, position);
+            if (journal != null) {
+                journal.rotate(position);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads a catalog snapshot into this (empty) service, before any journal is opened.
+     * The file is memory-mapped and nothing but the back-orders is decoded here: a product is
+     * materialized (decoded, stored and indexed) the first time an operation names its ID,
+     * found through the snapshot's hash index, so sales can be served as soon as this returns.
+     * Queries over the whole catalog (listing, filters, low stock, sorted views, search,
+     * export, saving) first materialize the remaining products, decoding them in parallel.
+     * The day's totals and the sales history are restored as saved; see
+     * trackTopSellersApproximately for how approximate top-seller counters come back.
+     * @param file snapshot written by saveSnapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public void loadSnapshot(Path file) throws IOException {
+        if (journal != null || ordinals.count() > 0) {
+            // The journal must be opened afterwards, so that it replays on top of the snapshot
+            throw new IllegalStateException("Snapshots can only be loaded into an empty service, before the journal");
+        }
+        CatalogSnapshot loaded = CatalogSnapshot.open(file);
+        ordinals.attach(loaded);
+        materialized = new BitSet(loaded.ordinalCount());
+        unmaterialized = loaded.productCount();
+        snapshotPosition = loaded.journalPosition();
+        viewIndexesPending = true;
+        snapshot = loaded;
+        loaded.forEachBackOrder((id, qty, discount) -> enqueueBackOrder(new BackOrder(id, qty, discount), 0));
+        DataInput sales = loaded.sales();
+        if (sales != null) {
+            try {
+                aggregates.readFrom(sales);
+                history.readFrom(sales);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt snapshot sales section", e);
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the journal, if one is open.
+     */
+    public void close() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
 
     /**
      * Adds a new product to the inventory.
+     * Any back-orders already waiting on this product ID are fulfilled from its stock.
+     * A product already stored under the same ID is withdrawn from sale and replaced.
      * @param p Product to add
+     * @throws IllegalArgumentException if the product table cannot store it (an
+     *         OffHeapProductStore limits the length of IDs and names); nothing is changed
      */
     public void addProduct(Product p) {
-        products.put(p.getId(), p);
+        if (products instanceof OffHeapProductStore store) {
+            store.checkStorable(p); // Before journaling it or withdrawing the product it replaces
+        }
+        Journal journaled = journal;
+        long seq = 0;
+        lock.lock();
+        try {
+            long now = now();
+            if (journaled != null) seq = journaled.logAddProduct(p, now);
+            Product replaced = find(p.getId());
+            if (replaced != null) {
+                if (replaced != p) {
+                    replaced.withdraw(); // Sales still holding the old object find no stock in it
+                }
+                unindexProduct(replaced); // Same ID added again: the new object replaces the old one
+            }
+            Product stored = store(p);
+            indexProduct(stored);
+            fulfillBackOrders(stored, false, now);
+        } finally {
+            lock.unlock();
+        }
+        if (journaled != null) journaled.commit(seq); // Wait for the disk without holding the lock
+    }
+
+    /**
+     * Adds a batch of products, in order, as if by addProduct.
+     * @param batch products to add
+     */
+    public void addProducts(List<Product> batch) {
+        for (Product p : batch) {
+            addProduct(p);
+        }
+    }
+
+    /**
+     * Streams products from a CSV file (id,name,category,price,quantity,reorderLevel) into the
+     * inventory. Rows are parsed in parallel and added in file order, one batch per chunk;
+     * invalid rows are skipped and reported in the result. When the inventory starts out
+     * empty, the price, name and trigram indexes are built on first use, as after loadSnapshot.
+     * @param file CSV file to import
+     * @return row counts and the first reported errors
+     * @throws IOException if the file cannot be read
+     */
+    public CsvCatalog.ImportResult importCsv(Path file) throws IOException {
+        lock.lock();
+        try {
+            // Checked and set together, so a product added meanwhile cannot be indexed twice
+            if (getProductCount() == 0) {
+                viewIndexesPending = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return CsvCatalog.read(file, this::addProducts);
+    }
+
+    /**
+     * Writes every product to a CSV file in the format importCsv reads.
+     * @param file CSV file to create or replace
+     * @return number of products written
+     * @throws IOException if the file cannot be written
+     */
+    public long exportCsv(Path file) throws IOException {
+        materializeSnapshot();
+        return CsvCatalog.write(file, products.values());
     }
 
     /**
      * Updates the stock level for an existing product.
+     * Waiting back-orders for this product are then fulfilled in FIFO order while stock allows.
      * @param id product ID
      * @param quantity new stock quantity
      * @return true if product exists and was updated, false if ID not found
      */
     public boolean updateStock(String id, int quantity) {
-        Product p = products.get(id);      // O(1) average lookup in hash table
-        if (p == null) {
-            return false;                  // Product ID invalid
+        Journal journaled = journal;
+        long seq = 0;
+        lock.lock();
+        try {
+            Product p = find(id);              // O(1) average lookup in hash table
+            if (p == null) {
+                return false;                  // Product ID invalid
+            }
+            long now = now();
+            if (journaled != null) seq = journaled.logUpdateStock(id, quantity, now);
+            p.setQuantity(quantity);
+            stockChanged(p);
+            fulfillBackOrders(p, false, now);
+        } finally {
+            lock.unlock();
         }
-        p.setQuantity(quantity);
+        if (journaled != null) journaled.commit(seq);
         return true;
     }
 
     /**
      * Removes a product from the inventory by its ID.
+     * Back-orders waiting on the product can never be fulfilled, so they are cancelled.
+     * The removed product is withdrawn from sale: its stock drops to zero.
      * @param id product ID
      * @return true if a product was removed, false if ID not found
      */
     public boolean removeProduct(String id) {
-        return products.remove(id) != null; // returns null if no such key
+        Journal journaled = journal;
+        long seq = 0;
+        lock.lock();
+        try {
+            if (find(id) == null) {
+                return false;                   // No such product
+            }
+            if (journaled != null) seq = journaled.logRemoveProduct(id, now()); // Write-ahead: log before changing anything
+            Product removed = products.remove(id);
+            removed.withdraw(); // A sale that looked it up before now cannot take its stock
+            unindexProduct(removed);
+            ArrayQueue<BackOrder> pending = backOrders.remove(id);
+            if (pending != null) {
+                pendingBackOrders -= pending.size();
+                out.println("Cancelled " + pending.size() + " back-order(s) for " + id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (journaled != null) journaled.commit(seq);
+        return true;
     }
 
     /**
@@ -60,116 +493,991 @@ public class InventoryService {
      * @return List of all products
      */
     public List<Product> getAllProducts() {
-        return products.values(); // collects values from all hash table buckets
+        long start = System.nanoTime();
+        materializeSnapshot();
+        List<Product> all = products.values(); // collects values from all hash table buckets
+        listLatency.record(System.nanoTime() - start);
+        return all;
+    }
+
+    /**
+     * Returns the number of products in the inventory.
+     * @return product count
+     */
+    public int getProductCount() {
+        return products.size() + unmaterialized;
+    }
+
+    /**
+     * Returns one page of products ordered by price (ties in ID order).
+     * Costs O(log n + pageSize) using the maintained price index.
+     * @param page       zero-based page number
+     * @param pageSize   products per page
+     * @param descending true for most expensive first
+     * @return the products on that page (empty past the last page)
+     */
+    public List<Product> getProductsByPrice(int page, int pageSize, boolean descending) {
+        lock.lock();
+        try {
+            buildViewIndexes();
+            return page(byPrice, page, pageSize, descending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns one page of products ordered by name, ignoring case (ties in ID order).
+     * Costs O(log n + pageSize) using the maintained name index.
+     * @param page       zero-based page number
+     * @param pageSize   products per page
+     * @param descending true for Z-A
+     * @return the products on that page (empty past the last page)
+     */
+    public List<Product> getProductsByName(int page, int pageSize, boolean descending) {
+        lock.lock();
+        try {
+            buildViewIndexes();
+            return page(byName, page, pageSize, descending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts products whose price lies in [min, max]. Costs O(log n).
+     * @param min lowest price included
+     * @param max highest price included
+     * @return number of products in the range
+     */
+    public int countProductsInPriceRange(double min, double max) {
+        lock.lock();
+        try {
+            buildViewIndexes();
+            return Math.max(0, priceRankAbove(max) - priceRankFrom(min));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the products whose price lies in [min, max], cheapest first.
+     * Costs O(log n + pageSize).
+     * @param min      lowest price included
+     * @param max      highest price included
+     * @param page     zero-based page number
+     * @param pageSize products per page
+     * @return the products on that page (empty past the last page)
+     */
+    public List<Product> getProductsInPriceRange(double min, double max, int page, int pageSize) {
+        lock.lock();
+        try {
+            buildViewIndexes();
+            int from = priceRankFrom(min) + page * pageSize;
+            int end = priceRankAbove(max);
+            return productsAt(byPrice.ascending(from, Math.min(pageSize, end - from)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds up to limit products whose name contains keyword, ignoring case.
+     * Keywords of three or more characters use the trigram index; shorter keywords
+     * fall back to a scan that stops once limit matches are found.
+     * @param keyword substring to look for
+     * @param limit   maximum number of results
+     * @return matching products, in no particular order
+     */
+    public List<Product> searchByName(String keyword, int limit) {
+        if (keyword.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+            lock.lock();
+            try {
+                buildViewIndexes();
+                List<Product> results = new ArrayList<>();
+                for (int ordinal : nameSearch.search(keyword, limit)) {
+                    results.add(ordinals.product(ordinal));
+                }
+                return results;
+            } finally {
+                lock.unlock();
+            }
+        }
+        materializeSnapshot();
+        String kw = keyword.toLowerCase(Locale.ROOT);
+        List<Product> results = new ArrayList<>();
+        for (Product p : products.values()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (p.getName().toLowerCase(Locale.ROOT).contains(kw)) {
+                results.add(p);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns up to limit products matching a filter, in ordinal (insertion) order.
+     * The filter is evaluated with bitmap operations over the category, price band and
+     * stock state indexes, so only matching products are ever touched.
+     * @param filter the filter, e.g. {@code ProductFilter.category("Electronics").and(ProductFilter.priceBelow(50))}
+     * @param limit  maximum number of results
+     * @return matching products
+     */
+    public List<Product> findProducts(ProductFilter filter, int limit) {
+        lock.lock();
+        try {
+            drainSales();
+            materializeSnapshot();
+            List<Product> results = new ArrayList<>();
+            filter.evaluate(bitmaps).forEach(ordinal -> results.add(ordinals.product(ordinal)), limit);
+            return results;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the products matching a filter.
+     * @param filter the filter
+     * @return number of matching products
+     */
+    public int countProducts(ProductFilter filter) {
+        lock.lock();
+        try {
+            drainSales();
+            materializeSnapshot();
+            return filter.evaluate(bitmaps).cardinality();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit products whose stock is at or below their reorder level, most urgent
+     * first (furthest below the reorder level; ties in ordinal order). Read from a heap that
+     * every sale, restock and back-order fulfillment keeps current, in O(limit log limit).
+     * @param limit maximum number of products returned
+     * @return the products needing restock
+     */
+    public List<Product> getLowStockProducts(int limit) {
+        lock.lock();
+        try {
+            drainSales();
+            materializeSnapshot();
+            List<Product> results = new ArrayList<>();
+            for (int ordinal : restockUrgency.top(limit)) {
+                if (restockUrgency.priority(ordinal) > 0) {
+                    break; // This and every later product is above its reorder level
+                }
+                results.add(ordinals.product(ordinal));
+            }
+            return results;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Rank of the first product priced at or above min
+    private int priceRankFrom(double min) {
+        return byPrice.countBelow(ordinal -> ordinals.price(ordinal) < min ? -1 : 1);
+    }
+
+    // Rank of the first product priced above max
+    private int priceRankAbove(double max) {
+        return byPrice.countBelow(ordinal -> ordinals.price(ordinal) <= max ? -1 : 1);
+    }
+
+    private List<Product> page(OrderStatisticTree<Integer> index, int page, int pageSize, boolean descending) {
+        int from = page * pageSize;
+        return productsAt(descending ? index.descending(from, pageSize) : index.ascending(from, pageSize));
+    }
+
+    // Current products at the given ordinals
+    private List<Product> productsAt(List<Integer> ordinalList) {
+        List<Product> results = new ArrayList<>(ordinalList.size());
+        for (int ordinal : ordinalList) {
+            results.add(ordinals.product(ordinal));
+        }
+        return results;
     }
 
     /**
      * Attempts to record a sale. If the requested quantity exceeds available stock,
      * creates a BackOrder and enqueues it instead. If the product ID is invalid,
      * returns false.
+     * The stock check and deduction are one atomic compare-and-set, so when several threads
+     * sell the same product each sale is either fully served from stock or back-ordered.
      * @param id product ID
      * @param qty quantity requested to sell
      * @param discount discount percentage to apply (0-100)
      * @return true if sale was recorded or back-ordered, false if ID invalid
      */
     public boolean recordSale(String id, int qty, double discount) {
-        Product p = products.get(id); // O(1) lookup
+        long start = System.nanoTime();
+        SaleEvent event = new SaleEvent();
+        event.begin();
+        String outcome = SaleEvent.UNKNOWN_PRODUCT;
+        try {
+            Journal journaled = journal;
+            long now = now();
+            long seq = 0;
+            Product p;
+            int remaining = -1;
+            if (journaled != null) {
+                // Replay must hand the last units to the same sale, so with a journal the
+                // lookup, the record and the taking of stock follow journal order, under the lock
+                lock.lock();
+                try {
+                    p = find(id); // O(1) lookup
+                    if (p != null) {
+                        seq = journaled.logSale(id, qty, discount, now);
+                        remaining = p.tryDecrement(qty);
+                        if (remaining < 0) {
+                            enqueueBackOrder(new BackOrder(id, qty, discount), now); // O(1)
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                // Without one, take the stock with one compare-and-set: the moment the sale happens
+                p = find(id);
+                if (p != null && (remaining = p.tryDecrement(qty)) < 0) {
+                    lock.lock();
+                    try {
+                        // p may have been removed or replaced (and withdrawn) since the lookup:
+                        // settle the sale against the product the ID names now
+                        p = find(id);
+                        if (p != null && (remaining = p.tryDecrement(qty)) < 0) {
+                            enqueueBackOrder(new BackOrder(id, qty, discount), now); // O(1)
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+            if (p == null) {
+                salesUnknownProduct.increment();
+                return false;              // Invalid product ID
+            }
+            if (remaining >= 0) {
+                salesRecorded.increment();
+                pendingSales.add(new PendingSale(p, qty, discount, now));
+                drainSalesIfIdle();
+            }
+            if (journaled != null) journaled.commit(seq); // Wait for the disk without holding the lock
+            if (remaining < 0) {
+                out.println("Sale queued as back-order for " + id);
+                outcome = SaleEvent.BACK_ORDERED;
+                return true;
+            }
+            // If stock falls below reorder level after sale, show an alert
+            if (remaining < p.getReorderLevel()) {
+                out.println("** ALERT: " + id + " below reorder level! **");
+            }
+            out.println("Sale recorded for " + id);
+            outcome = SaleEvent.SOLD;
+            return true;
+        } finally {
+            saleLatency.record(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.productId = id;
+                event.quantity = qty;
+                event.discount = discount;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records a batch of point-of-sale line items, each with the same outcome it would have
+     * had from recordSale, but without printing anything. Lines are grouped by product so
+     * each product is looked up once and, when its stock covers the whole group, takes its
+     * stock with a single compare-and-set (otherwise line by line, in batch order). The
+     * bookkeeping for the whole batch then runs under one lock acquisition.
+     * @param batch line items, in the order the till rang them up
+     * @return one outcome per line, in batch order: SaleLine.SOLD, BACK_ORDERED or UNKNOWN_PRODUCT
+     */
+    public byte[] recordSales(List<SaleLine> batch) {
+        long start = System.nanoTime();
+        int n = batch.size();
+        byte[] results = new byte[n];
+        // As in recordSale, a journal needs products resolved and stock taken in journal order
+        Journal journaled = journal;
+        try {
+            long seq;
+            if (journaled != null) {
+                lock.lock();
+                try {
+                    seq = recordSales(batch, results);
+                } finally {
+                    lock.unlock();
+                }
+                journaled.commit(seq);
+            } else {
+                recordSales(batch, results);
+            }
+        } finally {
+            saleBatchLatency.record(System.nanoTime() - start);
+        }
+        return results;
+    }
+
+    /**
+     * Body of recordSales, run under the lock when journaling.
+     * @return sequence number of the batch's last journal record, or 0 if none
+     */
+    private long recordSales(List<SaleLine> batch, byte[] results) {
+        int n = batch.size();
+        // Group number of every line, in order of each product's first line
+        int[] groupOf = new int[n];
+        HashTable<String, Integer> groupOfId = new HashTable<>(Math.max(16, n));
+        List<Product> groupProducts = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String id = batch.get(i).productId();
+            Integer group = groupOfId.get(id);
+            if (group == null) {
+                group = groupProducts.size();
+                groupOfId.put(id, group);
+                groupProducts.add(find(id));  // The one lookup per product
+            }
+            groupOf[i] = group;
+        }
+        // Counting sort of the line indexes by group, keeping batch order within a group
+        int groups = groupProducts.size();
+        int[] groupStart = new int[groups + 1];
+        for (int i = 0; i < n; i++) {
+            groupStart[groupOf[i] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] lines = new int[n];
+        int[] fill = Arrays.copyOf(groupStart, groups);
+        for (int i = 0; i < n; i++) {
+            lines[fill[groupOf[i]]++] = i;
+        }
+
+        long now = now();
+        long seq = journal != null ? journalSales(batch, groupOf, groupProducts, now) : 0;
+        for (int g = 0; g < groups; g++) {
+            takeStock(batch, lines, groupStart[g], groupStart[g + 1], groupProducts.get(g), results);
+        }
+        lock.lock();
+        try {
+            drainSales();
+            int sold = 0;
+            int unknown = 0;
+            for (int g = 0; g < groups; g++) {
+                Product p = groupProducts.get(g);
+                if (p == null) {
+                    unknown += groupStart[g + 1] - groupStart[g];
+                    continue;
+                }
+                // Without a journal p was looked up outside the lock and may since have been
+                // removed or replaced (and withdrawn): lines it could not serve are settled
+                // against the product the ID names now, as in recordSale
+                Product current = journal != null ? p : find(p.getId());
+                boolean stale = !p.equals(current);
+                int ordinal = ordinals.ordinalOf(p.getId());
+                int groupSold = 0;
+                int units = 0;
+                long cents = 0;
+                boolean backOrdered = false;
+                for (int k = groupStart[g]; k < groupStart[g + 1]; k++) {
+                    SaleLine line = batch.get(lines[k]);
+                    Product seller = p;
+                    if (stale && results[lines[k]] == SaleLine.BACK_ORDERED) {
+                        if (current == null) {
+                            results[lines[k]] = SaleLine.UNKNOWN_PRODUCT;
+                            unknown++;
+                            continue;
+                        }
+                        seller = current;
+                        if (current.tryDecrement(line.quantity()) >= 0) {
+                            results[lines[k]] = SaleLine.SOLD;
+                        }
+                    }
+                    if (results[lines[k]] == SaleLine.SOLD) {
+                        sold++;
+                        groupSold++;
+                        units += line.quantity();
+                        cents += amountCents(seller, line.quantity(), line.discount());
+                    } else {
+                        enqueueBackOrder(new BackOrder(line.productId(), line.quantity(), line.discount()), now);
+                        backOrdered = true;
+                    }
+                }
+                if (groupSold > 0) {
+                    if (current != null) {
+                        stockChanged(current); // Never for a removed product, which has left the indexes
+                    }
+                    aggregates.record(ordinal, p.getCategory(), units, cents, groupSold);
+                    history.record(ordinal, p.getCategory(), units, cents, now);
+                }
+                if (backOrdered) {
+                    fulfillBackOrders(current, false, now); // Only fills anything if restocked meanwhile
+                }
+            }
+            salesRecorded.add(sold);
+            salesUnknownProduct.add(unknown);
+        } finally {
+            lock.unlock();
+        }
+        return seq;
+    }
+
+    /**
+     * Journals a batch's lines for known products, in batch order, for one commit.
+     * Replaying them one by one through recordSale gives each line the same outcome, since
+     * only lines of the same product affect each other and their order is kept.
+     */
+    private long journalSales(List<SaleLine> batch, int[] groupOf, List<Product> groupProducts, long now) {
+        int n = batch.size();
+        String[] ids = new String[n];
+        int[] quantities = new int[n];
+        double[] discounts = new double[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (groupProducts.get(groupOf[i]) != null) {
+                SaleLine line = batch.get(i);
+                ids[count] = line.productId();
+                quantities[count] = line.quantity();
+                discounts[count] = line.discount();
+                count++;
+            }
+        }
+        return journal.logSales(ids, quantities, discounts, count, now);
+    }
+
+    /**
+     * Decides one product's lines of a batch: tries to take the group's total stock at once,
+     * and otherwise takes it line by line so each line fares as it would from recordSale.
+     * @param lines   line indexes grouped by product; this group is lines[from, to)
+     * @param p       the group's product, or null if the ID is unknown
+     * @param results per-line outcomes, filled in for this group
+     */
+    private void takeStock(List<SaleLine> batch, int[] lines, int from, int to, Product p, byte[] results) {
         if (p == null) {
-            return false;              // Invalid product ID
+            for (int k = from; k < to; k++) {
+                results[lines[k]] = SaleLine.UNKNOWN_PRODUCT;
+            }
+            return;
         }
-        // If there is not enough stock, enqueue a back-order and notify user
-        if (p.getQuantity() < qty) {
-            backOrders.enqueue(new BackOrder(id, qty, discount)); // O(1)
-            System.out.println("Sale queued as back-order for " + id);
-            return true;
+        long total = 0;
+        for (int k = from; k < to; k++) {
+            total += batch.get(lines[k]).quantity();
         }
-        // Sufficient stock: deduct quantity and record sale
-        p.setQuantity(p.getQuantity() - qty);
-        double amount = qty * p.getPrice() * (1 - discount / 100);
-        sales.add(new SaleRecord(id, qty, amount));
-        // If stock falls below reorder level after sale, show an alert
-        if (p.getQuantity() < p.getReorderLevel()) {
-            System.out.println("** ALERT: " + id + " below reorder level! **");
+        if (total <= Integer.MAX_VALUE && p.tryDecrement((int) total) >= 0) {
+            return; // Every line sold (results default to SOLD)
+        }
+        for (int k = from; k < to; k++) {
+            if (p.tryDecrement(batch.get(lines[k]).quantity()) < 0) {
+                results[lines[k]] = SaleLine.BACK_ORDERED;
+            }
         }
-        System.out.println("Sale recorded for " + id);
-        return true;
     }
 
     /**
-     * Processes each pending back-order exactly once in FIFO order.
-     * For each back-order, attempts to fulfill the sale if stock is now sufficient;
-     * otherwise, re-enqueues the back-order to remain pending.
+     * Sweeps every product that has pending back-orders and fulfills what current stock allows.
+     * Restocks already trigger fulfillment automatically, so this is only a manual catch-up;
+     * it costs O(products with back-orders + orders fulfilled).
      */
     public void processBackOrders() {
-        if (backOrders.isEmpty()) {
-            System.out.println("No back-orders.");
+        long start = System.nanoTime();
+        Journal journaled = journal;
+        long seq = 0;
+        lock.lock();
+        try {
+            long now = now();
+            if (journaled != null) seq = journaled.logProcessBackOrders(now);
+            if (pendingBackOrders == 0) {
+                out.println("No back-orders.");
+            }
+            for (ArrayQueue<BackOrder> pending : backOrders.values()) {
+                String id = pending.peek().productId;
+                Product p = find(id);
+                if (p != null) {
+                    fulfillBackOrders(p, true, now);
+                }
+                if (!pending.isEmpty()) {
+                    out.println("Still pending: " + id + " (" + pending.size() + ")");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (journaled != null) journaled.commit(seq);
+        backOrderPassLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds a product to every secondary index.
+     * @param p product just stored in the product table
+     */
+    private void indexProduct(Product p) {
+        int ordinal = ordinals.register(p);
+        bitmaps.add(ordinal, p);
+        restockUrgency.set(ordinal, stockMargin(p));
+        if (!viewIndexesPending) {
+            Integer key = ordinal; // One box shared by both trees
+            byPrice.add(key);
+            byName.add(key);
+            nameSearch.add(ordinal);
+        }
+    }
+
+    /**
+     * Puts a product into the product table.
+     * @param p product to store
+     * @return the object the table now holds for it: p itself, or a view of the record an
+     *         OffHeapProductStore copied it into
+     */
+    private Product store(Product p) {
+        if (products instanceof OffHeapProductStore) {
+            ordinals.storeOffHeap(p); // At its snapshot ordinal, if it has one
+            return products.get(p.getId());
+        }
+        products.put(p.getId(), p);
+        return p;
+    }
+
+    /**
+     * Looks up a product by ID, materializing it from the loaded snapshot if it is only there.
+     * @param id product ID
+     * @return the product, or null if there is none with this ID
+     */
+    private Product find(String id) {
+        Product p = products.get(id);
+        if (p != null || snapshot == null) {
+            return p;
+        }
+        lock.lock();
+        try {
+            CatalogSnapshot loaded = snapshot;
+            int ordinal = loaded == null ? -1 : loaded.ordinalOf(id);
+            if (ordinal >= 0 && !materialized.get(ordinal)) {
+                materialized.set(ordinal);
+                Product stored = loaded.product(ordinal);
+                if (stored != null) {
+                    unmaterialized--;
+                    indexProduct(store(stored));
+                }
+            }
+            return products.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Materializes every product still only in the loaded snapshot, decoding them in parallel,
+     * and releases the snapshot. Costs O(n) once; does nothing afterwards.
+     */
+    private void materializeSnapshot() {
+        if (snapshot == null) {
             return;
         }
-        // Only process as many orders as currently queued (size may change in loop)
-        int count = backOrders.size();
-        for (int i = 0; i < count; i++) {
-            BackOrder bo = backOrders.dequeue(); // O(1)
-            Product p = products.get(bo.productId);
-            if (p != null && p.getQuantity() >= bo.qty) {
-                // Fulfill the back-order as a normal sale
-                p.setQuantity(p.getQuantity() - bo.qty);
-                double amount = bo.qty * p.getPrice() * (1 - bo.discount / 100);
-                sales.add(new SaleRecord(bo.productId, bo.qty, amount));
-                System.out.println("Processed back-order: " + bo.productId);
-            } else {
-                // Stock still insufficient or invalid ID: re-enqueue
-                backOrders.enqueue(bo);
-                System.out.println("Still pending: " + bo.productId);
+        lock.lock();
+        try {
+            CatalogSnapshot loaded = snapshot;
+            if (loaded == null) {
+                return;
+            }
+            Product[] rest = loaded.products(materialized);
+            for (Product p : rest) {
+                if (p != null) {
+                    indexProduct(store(p));
+                }
+            }
+            ordinals.detach();
+            snapshot = null;
+            materialized = null;
+            unmaterialized = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a product from every secondary index.
+     * @param p product just removed from (or replaced in) the product table
+     */
+    private void unindexProduct(Product p) {
+        int ordinal = ordinals.ordinalOf(p.getId());
+        bitmaps.remove(ordinal, p);
+        restockUrgency.remove(ordinal);
+        if (!viewIndexesPending) {
+            // Before unregistering: the trees and the trigram index read the product's fields
+            byPrice.remove(ordinal);
+            byName.remove(ordinal);
+            nameSearch.remove(ordinal);
+        }
+        ordinals.unregister(ordinal);
+    }
+
+    /**
+     * Fills the price, name and trigram indexes from the product table if a snapshot load
+     * deferred them. Costs O(n log n) once; afterwards they are maintained incrementally.
+     */
+    private void buildViewIndexes() {
+        if (!viewIndexesPending) {
+            return;
+        }
+        materializeSnapshot();
+        for (int ordinal = 0; ordinal < ordinals.count(); ordinal++) {
+            if (ordinals.isLive(ordinal)) {
+                Integer key = ordinal;
+                byPrice.add(key);
+                byName.add(key);
+                nameSearch.add(ordinal);
+            }
+        }
+        viewIndexesPending = false;
+    }
+
+    /**
+     * Adds a completed sale to the day's running totals and the sales history.
+     * The amount is converted to whole cents once, here, so all later sums are exact.
+     * @param p        product sold (stock already deducted)
+     * @param qty      units sold
+     * @param discount discount percentage applied (0-100)
+     * @param now      time of the sale
+     */
+    private void logSale(Product p, int qty, double discount, long now) {
+        long amountCents = amountCents(p, qty, discount);
+        int ordinal = ordinals.ordinalOf(p.getId());
+        aggregates.record(ordinal, p.getCategory(), qty, amountCents);
+        history.record(ordinal, p.getCategory(), qty, amountCents, now);
+    }
+
+    /**
+     * Applies the bookkeeping of the sales recordSale has queued: the day's totals, the
+     * history and, for products still in the catalog, the stock indexes. Called with the lock
+     * held, first by every operation that reads them.
+     */
+    private void drainSales() {
+        PendingSale sale;
+        while ((sale = pendingSales.poll()) != null) {
+            Product p = sale.product();
+            if (ordinals.isCurrent(p)) {
+                stockChanged(p); // A product removed or replaced since has already left the indexes
             }
+            logSale(p, sale.qty(), sale.discount(), sale.time());
         }
     }
 
     /**
-     * Generates and prints the end-of-day report. Report includes:
+     * Drains the queued sales if no other thread holds the lock, so a sale never waits for it.
+     * Whatever is left is drained by the next operation that takes the lock.
+     */
+    private void drainSalesIfIdle() {
+        if (lock.tryLock()) {
+            try {
+                drainSales();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Time of the operation in progress: the journaled time while replaying, else the clock's.
+     */
+    private long now() {
+        return replayMillis >= 0 ? replayMillis : clock.millis();
+    }
+
+    /**
+     * Amount of a sale after discount, rounded to whole cents.
+     */
+    private static long amountCents(Product p, int qty, double discount) {
+        return Math.round(qty * p.getPrice() * (1 - discount / 100) * 100);
+    }
+
+    /**
+     * Updates the stock-dependent indexes after a product's quantity has changed.
+     * @param p product whose quantity was just set
+     */
+    private void stockChanged(Product p) {
+        int ordinal = ordinals.ordinalOf(p.getId());
+        bitmaps.updateStock(ordinal, p);
+        restockUrgency.set(ordinal, stockMargin(p));
+    }
+
+    /**
+     * Units a product has above its reorder level (zero or negative when it needs restocking).
+     */
+    private static long stockMargin(Product p) {
+        return (long) p.getQuantity() - p.getReorderLevel();
+    }
+
+    /**
+     * Returns the number of back-orders currently waiting for stock.
+     * @return total pending back-orders across all products
+     */
+    public int getPendingBackOrderCount() {
+        return pendingBackOrders;
+    }
+
+    /**
+     * Appends a back-order to the end of its product's FIFO queue, creating the queue on first use.
+     * @param bo  the back-order to queue
+     * @param now time of the operation queuing it
+     */
+    private void enqueueBackOrder(BackOrder bo, long now) {
+        ArrayQueue<BackOrder> pending = backOrders.get(bo.productId);
+        if (pending == null) {
+            pending = new ArrayQueue<>(2);
+            backOrders.put(bo.productId, pending);
+        }
+        pending.enqueue(bo);
+        pendingBackOrders++;
+        backOrdersQueued.increment();
+        if (journal != null) journal.logBackOrderEnqueued(bo.productId, bo.qty, bo.discount, now);
+    }
+
+    /**
+     * Fulfills the product's waiting back-orders in FIFO order until the oldest one
+     * no longer fits in stock. Later, smaller orders do not overtake an earlier one.
+     * Costs O(1 + orders fulfilled).
+     * @param p     the product whose stock may have increased
+     * @param sweep true when called from processBackOrders rather than after a restock
+     * @param now   time of the operation fulfilling them, when their sales are recorded
+     */
+    private void fulfillBackOrders(Product p, boolean sweep, long now) {
+        ArrayQueue<BackOrder> pending = backOrders.get(p.getId());
+        if (pending == null) {
+            return; // Nothing waiting on this product
+        }
+        BackOrderPassEvent event = new BackOrderPassEvent();
+        event.begin();
+        BackOrder bo;
+        int fulfilled = 0;
+        int units = 0;
+        while ((bo = pending.peek()) != null && p.tryDecrement(bo.qty) >= 0) {
+            pending.dequeue();
+            pendingBackOrders--;
+            backOrdersFulfilled.increment();
+            salesRecorded.increment();
+            if (journal != null) journal.logBackOrderFulfilled(bo.productId, bo.qty, now);
+            // Fulfill the back-order as a normal sale (its stock was taken above)
+            logSale(p, bo.qty, bo.discount, now);
+            out.println("Processed back-order: " + bo.productId);
+            fulfilled++;
+            units += bo.qty;
+        }
+        if (fulfilled > 0) {
+            stockChanged(p);
+        }
+        if (pending.isEmpty()) {
+            backOrders.remove(p.getId()); // Drop empty queues so memory tracks pending orders
+        }
+        if (event.shouldCommit()) {
+            event.productId = p.getId();
+            event.quantity = units;
+            event.fulfilled = fulfilled;
+            event.stillPending = pending.size();
+            event.sweep = sweep;
+            event.commit();
+        }
+    }
+
+    /**
+     * Generates and prints the end-of-day report, then resets the day's sales. Report includes:
      * - Total revenue for all recorded sales
      * - Sales breakdown by product category
-     * - Top and bottom selling product IDs by units sold
-     * Uses merge sort to find the extremes in O(n log n) time.
+     * - Top and bottom selling product IDs by total units sold per product
+     * All figures come from running totals, so this costs O(categories + ties).
+     * The day's sales stay available through the sales history (getProductHistory).
      */
     public void generateEndOfDayReport() {
-        ReportUtil.printSeparator();
-        // Sum all sale amounts for total revenue - O(n)
-        double totalRevenue = sales.stream().mapToDouble(sr -> sr.amount).sum();
-        // Group and sum quantity by category - O(n)
-        Map<String, Integer> salesByCategory = sales.stream()
-            .collect(Collectors.groupingBy(
-                sr -> products.get(sr.productId).getCategory(),
-                Collectors.summingInt(sr -> sr.quantity)
-            ));
-        // Extract quantities into an array for sorting
-        int[] quantities = sales.stream().mapToInt(sr -> sr.quantity).toArray();
-
-        if (quantities.length > 0) {
-            // Use merge sort (O(n log n)) to sort quantities
-            int[] sorted = Sorting.mergeSort(quantities);
-            int min = sorted[0];
-            int max = sorted[sorted.length - 1];
-            
-            // Find all product IDs that match the min or max sold quantities
-            List<String> topSellers = sales.stream()
-                .filter(sr -> sr.quantity == max)
-                .map(sr -> sr.productId)
-                .distinct()
-                .collect(Collectors.toList());
-            List<String> bottomSellers = sales.stream()
-                .filter(sr -> sr.quantity == min)
-                .map(sr -> sr.productId)
-                .distinct()
-                .collect(Collectors.toList());
-
-            ReportUtil.printReport(totalRevenue, salesByCategory, topSellers, bottomSellers);
+        long start = System.nanoTime();
+        Journal journaled = journal;
+        long seq = 0;
+        lock.lock();
+        try {
+            drainSales();
+            if (journaled != null) seq = journaled.logEndOfDay(now());
+            printSalesReport(true);
+            // Reset the running totals for the next day
+            aggregates.reset();
+        } finally {
+            lock.unlock();
+        }
+        if (journaled != null) journaled.commit(seq);
+        reportLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the n best-selling products of the day so far, most units first.
+     * Answered from a heap maintained on every sale, in O(n log n).
+     * @param n maximum number of products returned
+     * @return the top sellers with their unit totals
+     */
+    public List<TopSeller> getTopSellers(int n) {
+        lock.lock();
+        try {
+            drainSales();
+            return aggregates.getTopSellers(n);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tracks per-product sales approximately in fixed memory, monitoring at most counters
+     * products (Space-Saving), or exactly again if counters is 0. Meant for catalogs too large
+     * to keep a total per product; any product selling more than 1/counters of the day's
+     * units is guaranteed to be reported. Reports mark the top sellers as approximate, and
+     * bottom sellers are not tracked in this mode.
+     * Only allowed before the day's first sale, so it has to be set before loadSnapshot and
+     * openJournal. A snapshot's exact totals are added to the counters; a snapshot saved with
+     * counters restores them at their saved capacity, since they cannot be made exact again.
+     * @param counters number of products monitored, or 0 for exact totals
+     */
+    public void trackTopSellersApproximately(int counters) {
+        lock.lock();
+        try {
+            drainSales();
+            aggregates.trackApproximately(counters);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a product's sales in each of the last periods hours, days or weeks, oldest first;
+     * the last entry is the current period so far. Hours are kept for 3 days and days for 120
+     * days before being compacted into coarser periods, after which they report zero.
+     * Answered from the history rollups in O(stored periods), not by rescanning sales.
+     * @param id         product ID (may be a removed product)
+     * @param resolution period length
+     * @param periods    number of periods, from 1 to getMaxHistoryPeriods(resolution)
+     * @return units and revenue per period, or null if the ID has never been stocked
+     * @throws IllegalArgumentException if periods is out of range
+     */
+    public SalesTotals[] getProductHistory(String id, HistoryResolution resolution, int periods) {
+        int max = getMaxHistoryPeriods(resolution);
+        if (periods <= 0 || periods > max) {
+            throw new IllegalArgumentException("Periods must be between 1 and " + max + ": " + periods);
+        }
+        lock.lock();
+        try {
+            drainSales();
+            int ordinal = ordinals.ordinalOf(id);
+            return ordinal < 0 ? null : history.productSeries(ordinal, resolution, periods);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the longest series getProductHistory answers at a resolution, reaching just
+     * past the oldest sales the history still holds.
+     * @param resolution period length
+     * @return maximum number of periods
+     */
+    public int getMaxHistoryPeriods(HistoryResolution resolution) {
+        return history.maxPeriods(resolution);
+    }
+
+    /**
+     * Returns units and revenue per category for the local dates from..to inclusive
+     * (e.g. the first of the month to today). Sales older than 120 days have been compacted
+     * into weeks, which count towards the range containing their Monday.
+     * @param from first date
+     * @param to   last date
+     * @return totals for each category with sales in the range
+     */
+    public Map<String, SalesTotals> getCategorySales(LocalDate from, LocalDate to) {
+        lock.lock();
+        try {
+            drainSales();
+            return history.categoryTotals(from.toEpochDay() * 24, (to.toEpochDay() + 1) * 24);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prints the same report as generateEndOfDayReport for the sales recorded so far today,
+     * without clearing anything.
+     */
+    public void generateSnapshotReport() {
+        lock.lock();
+        try {
+            drainSales();
+            printSalesReport(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prints the report sections from the running totals.
+     * @param endOfDay true for the end-of-day report, false for a snapshot (recorded in the
+     *                 Flight Recorder event only)
+     */
+    private void printSalesReport(boolean endOfDay) {
+        ReportEvent event = new ReportEvent();
+        event.begin();
+        ReportUtil.printSeparator(out);
+        if (!aggregates.isEmpty()) {
+            long sortStart = System.nanoTime();
+            Map<String, Integer> byCategory = byUnitsDescending(aggregates.getUnitsByCategory());
+            List<String> top = sortedIds(aggregates.getTopSellers());
+            List<String> bottom = aggregates.isApproximate()
+                ? List.of("(not tracked)") : sortedIds(aggregates.getBottomSellers());
+            if (aggregates.isApproximate() && !top.isEmpty()) {
+                // Counts may be overestimated, so ties and ranks are not exact either
+                top.set(top.size() - 1, top.get(top.size() - 1) + " (approximate)");
+            }
+            event.sortTime = System.nanoTime() - sortStart;
+            event.rowsScanned = byCategory.size() + top.size() + bottom.size();
+            for (int units : byCategory.values()) {
+                event.quantity += units;
+            }
+            ReportUtil.printReport(out, aggregates.getRevenueCents() / 100.0, byCategory, top, bottom);
         } else {
             // No sales today: inform user
-            System.out.println("No sales recorded today.");
+            out.println("No sales recorded today.");
+        }
+        ReportUtil.printSeparator(out);
+        if (event.shouldCommit()) {
+            event.endOfDay = endOfDay;
+            event.commit();
         }
-        ReportUtil.printSeparator();
-        // Clear the sales list for the next day (reset daily totals)
-        sales.clear();
+    }
+
+    /**
+     * Orders the category breakdown from most to fewest units sold (ties keep first-sale order).
+     * @param byCategory units sold per category
+     * @return a map iterating in descending unit order
+     */
+    private static Map<String, Integer> byUnitsDescending(Map<String, Integer> byCategory) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map.Entry<String, Integer>[] entries = byCategory.entrySet().toArray(new Map.Entry[0]);
+        Sorting.sort(entries, (a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> e : entries) {
+            ordered.put(e.getKey(), e.getValue());
+        }
+        return ordered;
+    }
+
+    /**
+     * Sorts tied product IDs alphabetically so the report output is deterministic.
+     * @param ids product IDs
+     * @return the same IDs in ascending order
+     */
+    private static List<String> sortedIds(List<String> ids) {
+        String[] sorted = ids.toArray(new String[0]);
+        Sorting.sort(sorted, Comparator.naturalOrder());
+        return Arrays.asList(sorted);
     }
 
     /**
@@ -179,8 +1487,43 @@ public class InventoryService {
     private record BackOrder(String productId, int qty, double discount) {}
 
     /**
-     * Record type holding a finalized sale record.
-     * Stores the product ID, quantity sold, and total sale amount.
+     * A sale that has taken its stock, waiting for drainSales to record it.
+     */
+    private record PendingSale(Product product, int qty, double discount, long time) {}
+
+    /**
+     * Emits a RehashEvent for each resize of the product table. The event is only created
+     * while a recording has the event type enabled.
      */
-    private record SaleRecord(String productId, int quantity, double amount) {}
+    private static final class RehashRecorder implements HashTable.ResizeListener {
+        private static final EventType TYPE = EventType.getEventType(RehashEvent.class);
+
+        // Event timing the resize in progress, or null if it is not being recorded
+        private RehashEvent event;
+
+        @Override
+        public void resizeStarted(int oldCapacity, int newCapacity, int entries) {
+            if (!TYPE.isEnabled()) {
+                return;
+            }
+            event = new RehashEvent();
+            event.begin();
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.entries = entries;
+        }
+
+        @Override
+        public void resizeFinished(int steps) {
+            if (event == null) {
+                return;
+            }
+            event.steps = steps;
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
 }
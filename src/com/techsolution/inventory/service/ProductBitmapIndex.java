@@ -0,0 +1,165 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.SparseBitmap;
+import com.techsolution.inventory.ds.Table;
+import com.techsolution.inventory.model.Product;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Bitmap indexes over product ordinals, used to answer multi-criteria filters with
+ * word-at-a-time set operations instead of scanning Product objects.
+ * Keeps one bitmap per category (case-insensitive), one per price band and one per
+ * stock state, plus a bitmap of every live product.
+ * <p>
+ * Price bands are coarse, so a price range that only partly covers a band is refined by
+ * checking the prices of that band's products; fully covered bands are used as they are.
+ */
+class ProductBitmapIndex {
+    // Upper (exclusive) price limit of each band except the last, which is unbounded
+    private static final double[] PRICE_BAND_LIMITS = {5, 10, 25, 50, 100, 250, 500, 1000};
+
+    // Reads products' prices by ordinal when refining price ranges
+    private final ProductOrdinals ordinals;
+    // Every product currently in the inventory
+    private final SparseBitmap all = new SparseBitmap();
+    // Products per lowercase category name
+    private final Table<String, SparseBitmap> byCategory = new HashTable<>(16);
+    // Products per price band
+    private final SparseBitmap[] byPriceBand = new SparseBitmap[PRICE_BAND_LIMITS.length + 1];
+    // Products per stock state, indexed by StockState.ordinal()
+    private final SparseBitmap[] byStock = new SparseBitmap[StockState.values().length];
+    // Stock state currently recorded for each product ordinal
+    private byte[] stockStates = new byte[16];
+
+    ProductBitmapIndex(ProductOrdinals ordinals) {
+        this.ordinals = ordinals;
+        for (int i = 0; i < byPriceBand.length; i++) {
+            byPriceBand[i] = new SparseBitmap();
+        }
+        for (int i = 0; i < byStock.length; i++) {
+            byStock[i] = new SparseBitmap();
+        }
+    }
+
+    /**
+     * Adds a product under its category, price band and stock state.
+     * @param ordinal the product's ordinal
+     * @param p       the product
+     */
+    void add(int ordinal, Product p) {
+        all.set(ordinal);
+        String category = categoryKey(p.getCategory());
+        SparseBitmap bitmap = byCategory.get(category);
+        if (bitmap == null) {
+            bitmap = new SparseBitmap();
+            byCategory.put(category, bitmap);
+        }
+        bitmap.set(ordinal);
+        byPriceBand[priceBand(p.getPrice())].set(ordinal);
+        if (ordinal >= stockStates.length) {
+            stockStates = Arrays.copyOf(stockStates, Math.max(ordinal + 1, stockStates.length << 1));
+        }
+        StockState state = StockState.of(p);
+        stockStates[ordinal] = (byte) state.ordinal();
+        byStock[state.ordinal()].set(ordinal);
+    }
+
+    /**
+     * Removes a product from every bitmap.
+     * @param ordinal the product's ordinal
+     * @param p       the product
+     */
+    void remove(int ordinal, Product p) {
+        all.clear(ordinal);
+        String category = categoryKey(p.getCategory());
+        SparseBitmap bitmap = byCategory.get(category);
+        if (bitmap != null && bitmap.clear(ordinal) && bitmap.isEmpty()) {
+            byCategory.remove(category);
+        }
+        byPriceBand[priceBand(p.getPrice())].clear(ordinal);
+        byStock[stockStates[ordinal]].clear(ordinal);
+    }
+
+    /**
+     * Moves a product to the bitmap of its current stock state if the state has changed.
+     * @param ordinal the product's ordinal
+     * @param p       the product whose quantity changed
+     */
+    void updateStock(int ordinal, Product p) {
+        int state = StockState.of(p).ordinal();
+        if (stockStates[ordinal] != state) {
+            byStock[stockStates[ordinal]].clear(ordinal);
+            byStock[state].set(ordinal);
+            stockStates[ordinal] = (byte) state;
+        }
+    }
+
+    /** @return bitmap of every live product (shared; do not modify) */
+    SparseBitmap all() {
+        return all;
+    }
+
+    /**
+     * @param category category name, any case
+     * @return bitmap of products in that category (shared; do not modify)
+     */
+    SparseBitmap category(String category) {
+        SparseBitmap bitmap = byCategory.get(categoryKey(category));
+        return bitmap == null ? new SparseBitmap() : bitmap;
+    }
+
+    /**
+     * @param state a stock state
+     * @return bitmap of products in that state (shared; do not modify)
+     */
+    SparseBitmap stock(StockState state) {
+        return byStock[state.ordinal()];
+    }
+
+    /**
+     * Builds the bitmap of products priced within [min, max].
+     * Bands entirely inside the range are combined directly; the (at most two) partially
+     * covered bands are filtered product by product.
+     * @param min lowest price included
+     * @param max highest price included
+     * @return a new bitmap of matching products
+     */
+    SparseBitmap priceRange(double min, double max) {
+        SparseBitmap result = new SparseBitmap();
+        if (min > max) {
+            return result;
+        }
+        for (int band = priceBand(min); band <= priceBand(max); band++) {
+            double lo = band == 0 ? Double.NEGATIVE_INFINITY : PRICE_BAND_LIMITS[band - 1];
+            double hi = band == PRICE_BAND_LIMITS.length ? Double.POSITIVE_INFINITY : PRICE_BAND_LIMITS[band];
+            if (lo >= min && hi <= max) {
+                result = result.or(byPriceBand[band]);
+            } else {
+                SparseBitmap partial = new SparseBitmap();
+                byPriceBand[band].forEach(ordinal -> {
+                    double price = ordinals.price(ordinal);
+                    if (price >= min && price <= max) {
+                        partial.set(ordinal);
+                    }
+                }, Integer.MAX_VALUE);
+                result = result.or(partial);
+            }
+        }
+        return result;
+    }
+
+    private static int priceBand(double price) {
+        int band = 0;
+        while (band < PRICE_BAND_LIMITS.length && price >= PRICE_BAND_LIMITS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
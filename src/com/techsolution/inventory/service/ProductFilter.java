@@ -0,0 +1,99 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.ds.SparseBitmap;
+
+import java.util.function.Function;
+
+/**
+ * A composable product filter evaluated against the service's bitmap indexes.
+ * Basic filters select a category, a price range or a stock state; and/or/andNot combine
+ * them, e.g. {@code category("Electronics").and(priceBelow(50)).and(belowReorderLevel())}.
+ * Each combination is computed as a bitmap operation over product ordinals.
+ */
+public final class ProductFilter {
+    // Produces the bitmap of matching product ordinals
+    private final Function<ProductBitmapIndex, SparseBitmap> evaluator;
+
+    private ProductFilter(Function<ProductBitmapIndex, SparseBitmap> evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * @return a filter matching every product
+     */
+    public static ProductFilter all() {
+        return new ProductFilter(ProductBitmapIndex::all);
+    }
+
+    /**
+     * @param category category name, matched ignoring case
+     * @return a filter matching products in that category
+     */
+    public static ProductFilter category(String category) {
+        return new ProductFilter(index -> index.category(category));
+    }
+
+    /**
+     * @param min lowest price included
+     * @param max highest price included
+     * @return a filter matching products priced within [min, max]
+     */
+    public static ProductFilter priceBetween(double min, double max) {
+        return new ProductFilter(index -> index.priceRange(min, max));
+    }
+
+    /**
+     * @param limit price bound (exclusive)
+     * @return a filter matching products priced strictly below limit
+     */
+    public static ProductFilter priceBelow(double limit) {
+        return priceBetween(Double.NEGATIVE_INFINITY, Math.nextDown(limit));
+    }
+
+    /**
+     * @param state stock state to match
+     * @return a filter matching products currently in that state
+     */
+    public static ProductFilter stock(StockState state) {
+        return new ProductFilter(index -> index.stock(state));
+    }
+
+    /**
+     * @return a filter matching products whose quantity is below their reorder level,
+     *         including those that are out of stock
+     */
+    public static ProductFilter belowReorderLevel() {
+        return stock(StockState.BELOW_REORDER).or(stock(StockState.OUT_OF_STOCK));
+    }
+
+    /**
+     * @param other filter that must also match
+     * @return a filter matching products that satisfy both filters
+     */
+    public ProductFilter and(ProductFilter other) {
+        return new ProductFilter(index -> evaluate(index).and(other.evaluate(index)));
+    }
+
+    /**
+     * @param other alternative filter
+     * @return a filter matching products that satisfy either filter
+     */
+    public ProductFilter or(ProductFilter other) {
+        return new ProductFilter(index -> evaluate(index).or(other.evaluate(index)));
+    }
+
+    /**
+     * @param other filter that must not match
+     * @return a filter matching products that satisfy this filter but not other
+     */
+    public ProductFilter andNot(ProductFilter other) {
+        return new ProductFilter(index -> evaluate(index).andNot(other.evaluate(index)));
+    }
+
+    /**
+     * Evaluates the filter. The returned bitmap may be shared with the index and must not be modified.
+     */
+    SparseBitmap evaluate(ProductBitmapIndex index) {
+        return evaluator.apply(index);
+    }
+}
@@ -0,0 +1,242 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.Table;
+import com.techsolution.inventory.model.OffHeapProductStore;
+import com.techsolution.inventory.model.Product;
+import com.techsolution.inventory.persistence.CatalogSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Assigns each product ID a dense integer ordinal (0, 1, 2, ...) the first time it is seen.
+ * Ordinals index bitmaps and primitive arrays in place of String keys.
+ * <p>
+ * An ordinal is never reused for a different ID: removing a product only clears its slot,
+ * and adding the same ID again gets the same ordinal back. Data recorded against an ordinal
+ * (such as past sales) therefore always refers to the right ID.
+ * <p>
+ * With an OffHeapProductStore the ordinals are the store's own, which keeps the same
+ * guarantee: nothing is held here, and the product, ID, price and name comparisons of an
+ * ordinal are read from its record without creating objects.
+ * <p>
+ * After a snapshot load the ordinals are the snapshot's record numbers. Until every product
+ * has been materialized, IDs not yet seen here are looked up in the snapshot's own index
+ * instead of being copied into this one.
+ */
+class ProductOrdinals {
+    // Store whose ordinals these are, or null to keep them here
+    private final OffHeapProductStore store;
+    // Ordinal assigned to each product ID ever registered (unused with a store)
+    private final Table<String, Integer> ordinalById = new HashTable<>(16);
+    // Product ID for each ordinal
+    private String[] ids = new String[16];
+    // Current product for each ordinal (null once removed)
+    private Product[] products = new Product[16];
+    // Number of ordinals assigned so far
+    private int count;
+    // Snapshot holding the IDs of ordinals below its ordinal count not yet registered here
+    private CatalogSnapshot base;
+
+    /**
+     * @param products the service's product table; if it is an OffHeapProductStore, its
+     *                 ordinals are used
+     */
+    ProductOrdinals(Table<String, Product> products) {
+        store = products instanceof OffHeapProductStore s ? s : null;
+        if (store != null) {
+            ids = null;
+            this.products = null;
+        }
+    }
+
+    /**
+     * Takes over a snapshot's ordinals, before anything else has been registered.
+     * @param snapshot snapshot being loaded
+     */
+    void attach(CatalogSnapshot snapshot) {
+        if (store != null) {
+            store.reserve(snapshot.ordinalCount());
+        } else {
+            count = snapshot.ordinalCount();
+            ids = new String[Math.max(16, count)];
+            products = new Product[ids.length];
+        }
+        base = snapshot;
+    }
+
+    /**
+     * Copies every ID still only in the snapshot, so the snapshot can be released.
+     */
+    void detach() {
+        if (base == null) {
+            return;
+        }
+        for (int ordinal = 0; ordinal < base.ordinalCount(); ordinal++) {
+            if (store != null) {
+                if (!store.hasId(ordinal)) {
+                    store.reserveId(ordinal, base.id(ordinal)); // Removed before the snapshot was saved
+                }
+            } else if (ids[ordinal] == null) {
+                ids[ordinal] = base.id(ordinal);
+                ordinalById.put(ids[ordinal], ordinal);
+            }
+        }
+        base = null;
+    }
+
+    /**
+     * Copies a product into the off-heap store, at the ordinal the attached snapshot gave its
+     * ID if the store does not have the ID yet.
+     * @param p the product being added
+     */
+    void storeOffHeap(Product p) {
+        int ordinal = ordinalOf(p.getId());
+        if (ordinal >= 0 && !store.hasId(ordinal)) {
+            store.putAt(ordinal, p.getId(), p); // First use of a snapshot ordinal
+        } else {
+            store.put(p.getId(), p);
+        }
+    }
+
+    /**
+     * Records p as the current product for its ID, assigning a new ordinal if the ID is new.
+     * With a store, p must already be stored, which assigned the ordinal.
+     * @param p the product being added
+     * @return the product's ordinal
+     */
+    int register(Product p) {
+        int ordinal = ordinalOf(p.getId());
+        if (store != null) {
+            return ordinal;
+        }
+        if (ordinal >= 0) {
+            if (ids[ordinal] == null) {
+                ids[ordinal] = p.getId(); // First use of a snapshot ordinal
+                ordinalById.put(p.getId(), ordinal);
+            }
+        } else {
+            ordinal = count++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ordinal << 1);
+                products = Arrays.copyOf(products, ordinal << 1);
+            }
+            ids[ordinal] = p.getId();
+            ordinalById.put(p.getId(), ordinal);
+        }
+        products[ordinal] = p;
+        return ordinal;
+    }
+
+    /**
+     * Marks the product at this ordinal as removed. The ordinal stays reserved for its ID.
+     * With a store, removing the product from the store already did this.
+     * @param ordinal ordinal of the removed product
+     */
+    void unregister(int ordinal) {
+        if (store == null) {
+            products[ordinal] = null;
+        }
+    }
+
+    /**
+     * Returns the ordinal registered for a product ID.
+     * @param id product ID
+     * @return the ordinal, or -1 if the ID was never registered
+     */
+    int ordinalOf(String id) {
+        if (store != null) {
+            int ordinal = store.ordinalOf(id);
+            if (ordinal >= 0) {
+                return ordinal;
+            }
+        } else {
+            Integer ordinal = ordinalById.get(id);
+            if (ordinal != null) {
+                return ordinal;
+            }
+        }
+        return base == null ? -1 : base.ordinalOf(id);
+    }
+
+    /**
+     * @param ordinal a registered ordinal
+     * @return the current product at this ordinal (a new view with a store), or null if it
+     *         has been removed
+     */
+    Product product(int ordinal) {
+        if (store != null) {
+            return store.isLive(ordinal) ? store.view(ordinal) : null;
+        }
+        return products[ordinal];
+    }
+
+    /**
+     * @param ordinal a registered ordinal
+     * @return true if a product is currently registered at this ordinal
+     */
+    boolean isLive(int ordinal) {
+        return store != null ? store.isLive(ordinal) : products[ordinal] != null;
+    }
+
+    /**
+     * @param p a product looked up earlier
+     * @return true if p is still the current product for its ID (with a store, if its
+     *         record is live: a view follows its record through replacements)
+     */
+    boolean isCurrent(Product p) {
+        int ordinal = ordinalOf(p.getId());
+        return ordinal >= 0 && (store != null ? store.isLive(ordinal) : products[ordinal] == p);
+    }
+
+    /**
+     * @param ordinal a registered ordinal
+     * @return the product ID this ordinal stands for
+     */
+    String id(int ordinal) {
+        if (store != null) {
+            return store.hasId(ordinal) ? store.id(ordinal) : base.id(ordinal);
+        }
+        String id = ids[ordinal];
+        return id != null ? id : base.id(ordinal);
+    }
+
+    /**
+     * @param ordinal ordinal of a current product
+     * @return its name
+     */
+    String name(int ordinal) {
+        return store != null ? store.name(ordinal) : products[ordinal].getName();
+    }
+
+    /**
+     * @param ordinal ordinal of a current product
+     * @return its unit price
+     */
+    double price(int ordinal) {
+        return store != null ? store.price(ordinal) : products[ordinal].getPrice();
+    }
+
+    /**
+     * Compares the IDs of two current products, as String.compareTo does.
+     */
+    int compareIds(int a, int b) {
+        return store != null ? store.compareIds(a, b) : products[a].getId().compareTo(products[b].getId());
+    }
+
+    /**
+     * Compares the names of two current products, ignoring case as
+     * String.CASE_INSENSITIVE_ORDER does.
+     */
+    int compareNames(int a, int b) {
+        return store != null ? store.compareNames(a, b)
+            : String.CASE_INSENSITIVE_ORDER.compare(products[a].getName(), products[b].getName());
+    }
+
+    /**
+     * @return number of ordinals assigned so far (one past the highest ordinal)
+     */
+    int count() {
+        return store != null ? store.ordinalCount() : count;
+    }
+}
@@ -0,0 +1,17 @@
+package com.techsolution.inventory.service;
+
+/**
+ * One line item of a point-of-sale batch, as passed to InventoryService.recordSales.
+ * The constants are the per-line outcomes recordSales returns.
+ * @param productId product sold
+ * @param quantity  units requested
+ * @param discount  discount percentage to apply (0-100)
+ */
+public record SaleLine(String productId, int quantity, double discount) {
+    /** The line was sold from stock. */
+    public static final byte SOLD = 0;
+    /** Stock was short, so the line was queued as a back-order. */
+    public static final byte BACK_ORDERED = 1;
+    /** No product has the line's ID; nothing was recorded. */
+    public static final byte UNKNOWN_PRODUCT = 2;
+}
@@ -0,0 +1,249 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.ds.IndexedHeap;
+import com.techsolution.inventory.ds.SpaceSaving;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals for the current trading day, updated on every recorded sale.
+ * Keeps total revenue, units sold per category and units sold per product, the last in two
+ * indexed heaps over product ordinals (most units on top of one, fewest on top of the other),
+ * so the top and bottom sellers and the top N sellers are known at any moment without
+ * rescanning the day's sales.
+ * <p>
+ * Revenue and category totals update in O(1) and per-product totals in O(log p), where p is
+ * the number of products sold today. For very large catalogs the per-product totals can
+ * instead be tracked approximately in fixed memory with a Space-Saving counter; bottom
+ * sellers are then unknown.
+ */
+class SalesAggregates {
+    // Maps ordinals back to product IDs
+    private final ProductOrdinals ordinals;
+    // Sum of all sale amounts today, in cents
+    private long revenueCents;
+    // Number of sales recorded today
+    private int saleCount;
+    // Units sold per category, in order of first sale
+    private final Map<String, Integer> unitsByCategory = new LinkedHashMap<>();
+    // Exact units sold per product ordinal, best seller on top
+    private final IndexedHeap mostUnits = new IndexedHeap(true);
+    // The same totals, worst seller on top
+    private final IndexedHeap fewestUnits = new IndexedHeap(false);
+    // Approximate per-product totals, or null when tracking exactly
+    private SpaceSaving<String> heavyHitters;
+
+    /**
+     * @param ordinals ordinal registry of the products being sold
+     */
+    SalesAggregates(ProductOrdinals ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * Switches per-product tracking to a Space-Saving counter with the given number of
+     * counters, or back to exact tracking if counters is 0. Only allowed before the day's
+     * first sale.
+     * @param counters number of products monitored, or 0 for exact totals
+     */
+    void trackApproximately(int counters) {
+        if (!isEmpty()) {
+            throw new IllegalStateException("Top-seller tracking can only change before the first sale of the day");
+        }
+        heavyHitters = counters > 0 ? new SpaceSaving<>(counters) : null;
+    }
+
+    /** @return true if per-product totals are approximate */
+    boolean isApproximate() {
+        return heavyHitters != null;
+    }
+
+    /**
+     * Adds one sale to the running totals.
+     * @param ordinal     ordinal of the product sold
+     * @param category    category of the product at the time of sale
+     * @param quantity    units sold
+     * @param amountCents sale amount after discount, in cents
+     */
+    void record(int ordinal, String category, int quantity, long amountCents) {
+        record(ordinal, category, quantity, amountCents, 1);
+    }
+
+    /**
+     * Adds several sales of one product to the running totals at once.
+     * @param ordinal     ordinal of the product sold
+     * @param category    category of the product at the time of sale
+     * @param quantity    total units sold
+     * @param amountCents total amount after discounts, in cents
+     * @param sales       number of sales
+     */
+    void record(int ordinal, String category, int quantity, long amountCents, int sales) {
+        revenueCents += amountCents;
+        saleCount += sales;
+        unitsByCategory.merge(category, quantity, Integer::sum);
+        if (heavyHitters != null) {
+            heavyHitters.add(ordinals.id(ordinal), quantity);
+            return;
+        }
+        long units = (mostUnits.contains(ordinal) ? mostUnits.priority(ordinal) : 0) + quantity;
+        mostUnits.set(ordinal, units);
+        fewestUnits.set(ordinal, units);
+    }
+
+    /** @return true if no sales have been recorded since the last reset */
+    boolean isEmpty() {
+        return saleCount == 0;
+    }
+
+    /** @return total revenue so far, in cents */
+    long getRevenueCents() {
+        return revenueCents;
+    }
+
+    /** @return a copy of units sold per category */
+    Map<String, Integer> getUnitsByCategory() {
+        return new LinkedHashMap<>(unitsByCategory);
+    }
+
+    /** @return product IDs with the highest unit total (ties included), or an empty list */
+    List<String> getTopSellers() {
+        if (heavyHitters != null) {
+            List<String> ids = new ArrayList<>();
+            List<SpaceSaving.Counter<String>> top = heavyHitters.top(heavyHitters.capacity());
+            for (SpaceSaving.Counter<String> c : top) {
+                if (c.count() != top.get(0).count()) {
+                    break;
+                }
+                ids.add(c.key());
+            }
+            return ids;
+        }
+        return ids(mostUnits.topTies());
+    }
+
+    /** @return product IDs with the lowest unit total (ties included), or an empty list */
+    List<String> getBottomSellers() {
+        return heavyHitters != null ? new ArrayList<>() : ids(fewestUnits.topTies());
+    }
+
+    /**
+     * Returns the n products with the most units sold so far, most first (ties by ordinal).
+     * Costs O(n log n) in exact mode and O(m + n log m) with m approximate counters.
+     * @param n maximum number of products returned
+     * @return the best sellers with their unit totals
+     */
+    List<TopSeller> getTopSellers(int n) {
+        List<TopSeller> result = new ArrayList<>();
+        if (heavyHitters != null) {
+            for (SpaceSaving.Counter<String> c : heavyHitters.top(n)) {
+                result.add(new TopSeller(c.key(), c.count(), c.error()));
+            }
+            return result;
+        }
+        for (int ordinal : mostUnits.top(n)) {
+            result.add(new TopSeller(ordinals.id(ordinal), mostUnits.priority(ordinal), 0));
+        }
+        return result;
+    }
+
+    /**
+     * Clears all totals, ready for the next trading day.
+     */
+    void reset() {
+        revenueCents = 0;
+        saleCount = 0;
+        unitsByCategory.clear();
+        mostUnits.clear();
+        fewestUnits.clear();
+        if (heavyHitters != null) {
+            heavyHitters.clear();
+        }
+    }
+
+    /**
+     * Writes the day's totals: revenue, sale count, category units and the per-product
+     * totals, exact (by ordinal) or as the approximate counters.
+     * @param out destination
+     * @throws IOException if out fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(revenueCents);
+        out.writeInt(saleCount);
+        out.writeInt(unitsByCategory.size());
+        for (Map.Entry<String, Integer> e : unitsByCategory.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeInt(e.getValue());
+        }
+        out.writeBoolean(heavyHitters != null);
+        if (heavyHitters != null) {
+            out.writeInt(heavyHitters.capacity());
+            List<SpaceSaving.Counter<String>> counters = heavyHitters.top(heavyHitters.capacity());
+            out.writeInt(counters.size());
+            for (SpaceSaving.Counter<String> c : counters) {
+                out.writeUTF(c.key());
+                out.writeLong(c.count());
+                out.writeLong(c.error());
+            }
+            return;
+        }
+        int[] sold = mostUnits.top(mostUnits.size());
+        out.writeInt(sold.length);
+        for (int ordinal : sold) {
+            out.writeInt(ordinal);
+            out.writeLong(mostUnits.priority(ordinal));
+        }
+    }
+
+    /**
+     * Restores totals written by writeTo into these, which must be empty. Exact totals are
+     * kept in the current mode (added to the counters when tracking approximately), while
+     * approximate counters cannot be made exact again: unless empty, they come back with the
+     * capacity they were saved with, whatever the current mode.
+     * @param in source positioned at the start of writeTo totals
+     * @throws IOException if in fails or ends early
+     */
+    void readFrom(DataInput in) throws IOException {
+        revenueCents = in.readLong();
+        saleCount = in.readInt();
+        int categories = in.readInt();
+        for (int c = 0; c < categories; c++) {
+            unitsByCategory.put(in.readUTF(), in.readInt());
+        }
+        if (in.readBoolean()) {
+            int capacity = in.readInt();
+            int counters = in.readInt();
+            if (counters > 0) {
+                heavyHitters = new SpaceSaving<>(capacity); // Otherwise the current mode has nothing to lose
+            }
+            for (int i = 0; i < counters; i++) {
+                heavyHitters.restore(in.readUTF(), in.readLong(), in.readLong());
+            }
+            return;
+        }
+        int sold = in.readInt();
+        for (int i = 0; i < sold; i++) {
+            int ordinal = in.readInt();
+            long units = in.readLong();
+            if (heavyHitters != null) {
+                heavyHitters.add(ordinals.id(ordinal), units);
+            } else {
+                mostUnits.set(ordinal, units);
+                fewestUnits.set(ordinal, units);
+            }
+        }
+    }
+
+    private List<String> ids(int[] ordinalList) {
+        List<String> ids = new ArrayList<>(ordinalList.length);
+        for (int ordinal : ordinalList) {
+            ids.add(ordinals.id(ordinal));
+        }
+        return ids;
+    }
+}
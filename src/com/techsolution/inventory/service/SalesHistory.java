@@ -0,0 +1,507 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.algorithms.Sorting;
+import com.techsolution.inventory.ds.HashTable;
+import com.techsolution.inventory.ds.Table;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sales history across days, kept as rollups rather than individual sales, so it survives
+ * the end-of-day reset at a fixed cost per product per period.
+ * <p>
+ * Sales of the current hour are appended to a columnar SalesLog, so the open hour costs
+ * memory in proportion to its sales rather than to the highest ordinal sold. When the hour
+ * ends the log is folded into a bucket: parallel primitive arrays of the ordinals sold
+ * (sorted), their units and revenue, plus revenue and units per category. Buckets live in three rings.
+ * When an hour bucket's slot is needed again it is merged into the bucket for its day, and
+ * a day bucket evicted the same way is merged into its week. Week buckets older than the
+ * week ring are dropped. By default hours stay at hourly resolution for 3 days, days for 120
+ * days and weeks for 3 years.
+ * <p>
+ * Time is measured in history hours (local epoch day * 24 + local hour of day), so every day
+ * is 24 hours long even across DST changes. A query visits each stored bucket once and finds
+ * a product by binary search, so it costs O(buckets * log products sold per bucket) plus a
+ * scan of the open hour's log.
+ */
+class SalesHistory {
+    // Ring sizes used by the service
+    static final int DEFAULT_HOURS = 72;
+    static final int DEFAULT_DAYS = 120;
+    static final int DEFAULT_WEEKS = 156;
+
+    /**
+     * Totals of one period: sparse per-product columns sorted by ordinal, and dense
+     * per-category columns indexed by category ID.
+     */
+    private static final class Bucket {
+        // First history hour covered and number of hours covered (1, 24 or 168)
+        final long start;
+        final int span;
+        int[] ordinals;
+        int[] units;
+        long[] cents;
+        long[] categoryUnits;
+        long[] categoryCents;
+
+        Bucket(long start, int span, int[] ordinals, int[] units, long[] cents,
+               long[] categoryUnits, long[] categoryCents) {
+            this.start = start;
+            this.span = span;
+            this.ordinals = ordinals;
+            this.units = units;
+            this.cents = cents;
+            this.categoryUnits = categoryUnits;
+            this.categoryCents = categoryCents;
+        }
+
+        /**
+         * Returns the same totals relabelled as covering a longer period that contains this one.
+         */
+        Bucket widen(long newStart, int newSpan) {
+            return new Bucket(newStart, newSpan, ordinals, units, cents, categoryUnits, categoryCents);
+        }
+
+        /**
+         * Adds another bucket's totals for the same period into this one, merging the sorted
+         * ordinal columns in O(a + b).
+         */
+        void add(Bucket other) {
+            int a = ordinals.length;
+            int b = other.ordinals.length;
+            int[] mergedOrdinals = new int[a + b];
+            int[] mergedUnits = new int[a + b];
+            long[] mergedCents = new long[a + b];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a || j < b) {
+                if (j == b || (i < a && ordinals[i] < other.ordinals[j])) {
+                    mergedOrdinals[n] = ordinals[i];
+                    mergedUnits[n] = units[i];
+                    mergedCents[n] = cents[i];
+                    i++;
+                } else if (i == a || other.ordinals[j] < ordinals[i]) {
+                    mergedOrdinals[n] = other.ordinals[j];
+                    mergedUnits[n] = other.units[j];
+                    mergedCents[n] = other.cents[j];
+                    j++;
+                } else {
+                    // Sold in both: add the totals
+                    mergedOrdinals[n] = ordinals[i];
+                    mergedUnits[n] = units[i] + other.units[j];
+                    mergedCents[n] = cents[i] + other.cents[j];
+                    i++;
+                    j++;
+                }
+                n++;
+            }
+            ordinals = Arrays.copyOf(mergedOrdinals, n);
+            units = Arrays.copyOf(mergedUnits, n);
+            cents = Arrays.copyOf(mergedCents, n);
+            categoryUnits = addColumns(categoryUnits, other.categoryUnits);
+            categoryCents = addColumns(categoryCents, other.categoryCents);
+        }
+
+        private static long[] addColumns(long[] x, long[] y) {
+            long[] sum = Arrays.copyOf(x, Math.max(x.length, y.length));
+            for (int c = 0; c < y.length; c++) {
+                sum[c] += y[c];
+            }
+            return sum;
+        }
+    }
+
+    // Source of the current time and time zone
+    private final Clock clock;
+    // Sealed buckets at each resolution, indexed by period number modulo ring size
+    private final Bucket[] hours;
+    private final Bucket[] days;
+    private final Bucket[] weeks;
+
+    // History hour being accumulated, and the instant (epoch millis) at which it ends
+    private long openHour = Long.MIN_VALUE;
+    private long openEndMillis = Long.MIN_VALUE;
+    // Sales of the open hour, in the order recorded
+    private final SalesLog openSales = new SalesLog();
+    // Units and revenue of the open hour per category ID
+    private long[] openCategoryUnits = new long[8];
+    private long[] openCategoryCents = new long[8];
+
+    // Dense ID for each category ever sold, and the names in ID order
+    private final Table<String, Integer> categoryIds = new HashTable<>(16);
+    private String[] categoryNames = new String[8];
+    private int categoryCount;
+
+    /**
+     * @param clock      source of sale times and of the local time zone
+     * @param hourSlots  hours kept at hourly resolution
+     * @param daySlots   days kept at daily resolution
+     * @param weekSlots  weeks kept before being dropped
+     */
+    SalesHistory(Clock clock, int hourSlots, int daySlots, int weekSlots) {
+        this.clock = clock;
+        hours = new Bucket[hourSlots];
+        days = new Bucket[daySlots];
+        weeks = new Bucket[weekSlots];
+    }
+
+    /**
+     * Adds a sale to the current hour. O(1) amortized except at the first sale of a new hour,
+     * which seals the previous hour's s sales of k products in O(s log k).
+     * @param ordinal  ordinal of the product sold
+     * @param category the product's category
+     * @param qty         units sold
+     * @param cents       sale amount in cents
+     * @param epochMillis time of the sale (as journaled, so a replayed sale keeps its hour)
+     */
+    void record(int ordinal, String category, int qty, long cents, long epochMillis) {
+        if (epochMillis >= openEndMillis) {
+            advance(epochMillis);
+        }
+        openSales.append(ordinal, qty, cents);
+        int c = categoryId(category);
+        openCategoryUnits[c] += qty;
+        openCategoryCents[c] += cents;
+    }
+
+    /**
+     * Returns the most periods a series can usefully ask for at a resolution: enough to reach
+     * back past everything the rings retain, whose older periods would only report zero.
+     * @param resolution period length
+     * @return the largest meaningful period count
+     */
+    int maxPeriods(HistoryResolution resolution) {
+        long retainedHours = hours.length + 24L * days.length + 168L * weeks.length;
+        return (int) (retainedHours / resolution.hours) + 2;
+    }
+
+    /**
+     * Returns a product's totals for each of the last periods periods, oldest first, the last
+     * one being the current (partial) period. Periods older than the resolution is kept for
+     * (e.g. hours older than the hour ring) have been compacted and report zero.
+     * @param ordinal    product ordinal
+     * @param resolution period length
+     * @param periods    number of periods
+     * @return one entry per period
+     */
+    SalesTotals[] productSeries(int ordinal, HistoryResolution resolution, int periods) {
+        int span = resolution.hours;
+        long last = periodStart(currentHour(), resolution);
+        long first = last - (long) (periods - 1) * span;
+        long[] units = new long[periods];
+        long[] cents = new long[periods];
+        for (Bucket[] ring : new Bucket[][] {hours, days, weeks}) {
+            for (Bucket b : ring) {
+                if (b != null && b.span <= span && b.start >= first && b.start < last + span) {
+                    int i = Arrays.binarySearch(b.ordinals, ordinal);
+                    if (i >= 0) {
+                        int period = (int) ((b.start - first) / span);
+                        units[period] += b.units[i];
+                        cents[period] += b.cents[i];
+                    }
+                }
+            }
+        }
+        if (openHour >= first) {
+            int period = (int) ((periodStart(openHour, resolution) - first) / span);
+            openSales.forEach((sold, qty, amount) -> {
+                if (sold == ordinal) {
+                    units[period] += qty;
+                    cents[period] += amount;
+                }
+            });
+        }
+        SalesTotals[] series = new SalesTotals[periods];
+        for (int p = 0; p < periods; p++) {
+            series[p] = new SalesTotals(units[p], cents[p]);
+        }
+        return series;
+    }
+
+    /**
+     * Returns units and revenue per category over a range of history hours. A bucket counts
+     * towards the range if it starts inside it and is no longer than it, so data already
+     * compacted into weeks is attributed to the range holding the week's Monday.
+     * @param from first history hour (inclusive)
+     * @param to   last history hour (exclusive)
+     * @return totals for each category with sales in the range, in order of first sale ever
+     */
+    Map<String, SalesTotals> categoryTotals(long from, long to) {
+        long[] units = new long[categoryCount];
+        long[] cents = new long[categoryCount];
+        for (Bucket[] ring : new Bucket[][] {hours, days, weeks}) {
+            for (Bucket b : ring) {
+                if (b != null && b.span <= to - from && b.start >= from && b.start < to) {
+                    for (int c = 0; c < b.categoryUnits.length; c++) {
+                        units[c] += b.categoryUnits[c];
+                        cents[c] += b.categoryCents[c];
+                    }
+                }
+            }
+        }
+        if (openHour >= from && openHour < to) {
+            for (int c = 0; c < categoryCount; c++) {
+                units[c] += openCategoryUnits[c];
+                cents[c] += openCategoryCents[c];
+            }
+        }
+        Map<String, SalesTotals> totals = new LinkedHashMap<>();
+        for (int c = 0; c < categoryCount; c++) {
+            if (units[c] > 0) {
+                totals.put(categoryNames[c], new SalesTotals(units[c], cents[c]));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Writes the whole history: the category names, the open hour and every sealed bucket.
+     * @param out destination
+     * @throws IOException if out fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(categoryCount);
+        for (int c = 0; c < categoryCount; c++) {
+            out.writeUTF(categoryNames[c]);
+        }
+        out.writeLong(openHour);
+        out.writeLong(openEndMillis);
+        out.writeInt(openSales.size());
+        for (int i = 0; i < openSales.size(); i++) {
+            out.writeInt(openSales.productOrdinal(i));
+            out.writeInt(openSales.quantity(i));
+            out.writeLong(openSales.amountCents(i));
+        }
+        for (int c = 0; c < categoryCount; c++) {
+            out.writeLong(openCategoryUnits[c]);
+            out.writeLong(openCategoryCents[c]);
+        }
+        for (Bucket[] ring : new Bucket[][] {hours, days, weeks}) {
+            int stored = 0;
+            for (Bucket b : ring) {
+                stored += b != null ? 1 : 0;
+            }
+            out.writeInt(stored);
+            for (Bucket b : ring) {
+                if (b != null) {
+                    writeBucket(out, b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores a history written by writeTo into this one, which must not have recorded any
+     * sales. Each bucket goes back to the slot for its period, so rings of the same size
+     * come back exactly.
+     * @param in source positioned at the start of a writeTo history
+     * @throws IOException if in fails or ends early
+     */
+    void readFrom(DataInput in) throws IOException {
+        int categories = in.readInt();
+        for (int c = 0; c < categories; c++) {
+            categoryId(in.readUTF());
+        }
+        openHour = in.readLong();
+        openEndMillis = in.readLong();
+        int open = in.readInt();
+        for (int i = 0; i < open; i++) {
+            openSales.append(in.readInt(), in.readInt(), in.readLong());
+        }
+        for (int c = 0; c < categories; c++) {
+            openCategoryUnits[c] = in.readLong();
+            openCategoryCents[c] = in.readLong();
+        }
+        for (Bucket[] ring : new Bucket[][] {hours, days, weeks}) {
+            int stored = in.readInt();
+            for (int i = 0; i < stored; i++) {
+                Bucket b = readBucket(in);
+                place(ring, b, Math.floorDiv(b.start, b.span));
+            }
+        }
+    }
+
+    private static void writeBucket(DataOutput out, Bucket b) throws IOException {
+        out.writeLong(b.start);
+        out.writeInt(b.span);
+        out.writeInt(b.ordinals.length);
+        for (int i = 0; i < b.ordinals.length; i++) {
+            out.writeInt(b.ordinals[i]);
+            out.writeInt(b.units[i]);
+            out.writeLong(b.cents[i]);
+        }
+        out.writeInt(b.categoryUnits.length);
+        for (int c = 0; c < b.categoryUnits.length; c++) {
+            out.writeLong(b.categoryUnits[c]);
+            out.writeLong(b.categoryCents[c]);
+        }
+    }
+
+    private static Bucket readBucket(DataInput in) throws IOException {
+        long start = in.readLong();
+        int span = in.readInt();
+        int n = in.readInt();
+        int[] ordinals = new int[n];
+        int[] units = new int[n];
+        long[] cents = new long[n];
+        for (int i = 0; i < n; i++) {
+            ordinals[i] = in.readInt();
+            units[i] = in.readInt();
+            cents[i] = in.readLong();
+        }
+        int categories = in.readInt();
+        long[] categoryUnits = new long[categories];
+        long[] categoryCents = new long[categories];
+        for (int c = 0; c < categories; c++) {
+            categoryUnits[c] = in.readLong();
+            categoryCents[c] = in.readLong();
+        }
+        return new Bucket(start, span, ordinals, units, cents, categoryUnits, categoryCents);
+    }
+
+    /**
+     * Converts an instant to its history hour (local epoch day * 24 + local hour of day).
+     */
+    private long hourOf(long epochMillis) {
+        LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone());
+        return t.toLocalDate().toEpochDay() * 24 + t.getHour();
+    }
+
+    /**
+     * @return the history hour now (never earlier than the hour being accumulated)
+     */
+    private long currentHour() {
+        return Math.max(openHour, hourOf(clock.millis()));
+    }
+
+    /**
+     * First history hour of the period at the given resolution that contains hour.
+     */
+    private static long periodStart(long hour, HistoryResolution resolution) {
+        return switch (resolution) {
+            case HOUR -> hour;
+            case DAY -> Math.floorDiv(hour, 24) * 24;
+            case WEEK -> weekStart(hour);
+        };
+    }
+
+    /**
+     * First history hour of the Monday-to-Sunday week containing hour
+     * (epoch day 0, 1 January 1970, was a Thursday).
+     */
+    private static long weekStart(long hour) {
+        long day = Math.floorDiv(hour, 24);
+        return (Math.floorDiv(day + 3, 7) * 7 - 3) * 24;
+    }
+
+    /**
+     * Seals the open hour and starts accumulating the hour containing now. A clock that
+     * has been set back keeps filling the latest hour rather than reopening an old one.
+     */
+    private void advance(long now) {
+        seal();
+        ZoneId zone = clock.getZone();
+        LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), zone);
+        openHour = Math.max(openHour, hourOf(now));
+        openEndMillis = t.truncatedTo(ChronoUnit.HOURS).atZone(zone).plusHours(1).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Folds the open hour's log into an hour bucket and clears the log: the ordinals sold are
+     * radix sorted and deduplicated, then each sale is added to its ordinal's totals.
+     */
+    private void seal() {
+        if (openSales.isEmpty()) {
+            return;
+        }
+        int[] sorted = new int[openSales.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = openSales.productOrdinal(i);
+        }
+        Sorting.radixSort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int[] sold = Arrays.copyOf(sorted, distinct);
+        int[] units = new int[distinct];
+        long[] cents = new long[distinct];
+        openSales.forEach((ordinal, qty, amount) -> {
+            int i = Arrays.binarySearch(sold, ordinal);
+            units[i] += qty;
+            cents[i] += amount;
+        });
+        openSales.clear();
+        Bucket hour = new Bucket(openHour, HistoryResolution.HOUR.hours, sold, units, cents,
+            Arrays.copyOf(openCategoryUnits, categoryCount), Arrays.copyOf(openCategoryCents, categoryCount));
+        Arrays.fill(openCategoryUnits, 0);
+        Arrays.fill(openCategoryCents, 0);
+
+        // Compact whatever each ring pushes out into the next coarser ring
+        Bucket evicted = place(hours, hour, hour.start);
+        if (evicted != null) {
+            long day = Math.floorDiv(evicted.start, 24);
+            evicted = place(days, evicted.widen(day * 24, HistoryResolution.DAY.hours), day);
+        }
+        if (evicted != null) {
+            long week = weekStart(evicted.start);
+            place(weeks, evicted.widen(week, HistoryResolution.WEEK.hours),
+                Math.floorDiv(week, HistoryResolution.WEEK.hours));
+        }
+    }
+
+    /**
+     * Stores a bucket in its ring slot, merging it with a bucket for the same period.
+     * @param ring   the ring
+     * @param b      the bucket
+     * @param period the bucket's period number at the ring's resolution
+     * @return the bucket that no longer fits in the ring (the older of b and the slot's
+     *         previous occupant), or null if nothing was displaced
+     */
+    private static Bucket place(Bucket[] ring, Bucket b, long period) {
+        int slot = (int) Math.floorMod(period, (long) ring.length);
+        Bucket current = ring[slot];
+        if (current == null) {
+            ring[slot] = b;
+            return null;
+        }
+        if (current.start == b.start) {
+            current.add(b);
+            return null;
+        }
+        if (current.start > b.start) {
+            return b; // Already older than everything this ring keeps
+        }
+        ring[slot] = b;
+        return current;
+    }
+
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(category);
+        if (id != null) {
+            return id;
+        }
+        int c = categoryCount++;
+        if (c == categoryNames.length) {
+            categoryNames = Arrays.copyOf(categoryNames, c << 1);
+            openCategoryUnits = Arrays.copyOf(openCategoryUnits, c << 1);
+            openCategoryCents = Arrays.copyOf(openCategoryCents, c << 1);
+        }
+        categoryNames[c] = category;
+        categoryIds.put(category, c);
+        return c;
+    }
+}
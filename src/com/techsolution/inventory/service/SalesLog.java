@@ -0,0 +1,182 @@
+package com.techsolution.inventory.service;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of sales, stored column by column in growable primitive arrays: product
+ * ordinal (int), quantity (int) and amount in minor currency units, i.e. cents (long).
+ * A sale costs 16 bytes with no per-sale object, and scans run over contiguous arrays.
+ * Amounts are exact integers, so totals do not accumulate floating-point error.
+ * <p>
+ * SalesHistory logs the sales of the hour it is accumulating here and folds the log into
+ * per-product totals when the hour ends.
+ */
+class SalesLog {
+    /**
+     * Receives one sale at a time during iteration, without boxing.
+     */
+    @FunctionalInterface
+    interface SaleVisitor {
+        /**
+         * @param productOrdinal ordinal of the product sold
+         * @param quantity       units sold
+         * @param amountCents    sale amount in cents
+         */
+        void visit(int productOrdinal, int quantity, long amountCents);
+    }
+
+    // Product ordinal of each sale
+    private int[] productOrdinals;
+    // Units sold in each sale
+    private int[] quantities;
+    // Amount of each sale in cents
+    private long[] amountsCents;
+    // Number of sales recorded
+    private int size;
+
+    /**
+     * Constructs an empty log with room for 1,024 sales before growing.
+     */
+    SalesLog() {
+        this(1024);
+    }
+
+    /**
+     * Constructs an empty log with room for the given number of sales before growing.
+     * @param capacity initial capacity (should be a positive integer)
+     */
+    SalesLog(int capacity) {
+        productOrdinals = new int[capacity];
+        quantities = new int[capacity];
+        amountsCents = new long[capacity];
+    }
+
+    /**
+     * Appends one sale.
+     * @param productOrdinal ordinal of the product sold
+     * @param quantity       units sold
+     * @param amountCents    sale amount in cents
+     */
+    void append(int productOrdinal, int quantity, long amountCents) {
+        ensureCapacity(size + 1);
+        productOrdinals[size] = productOrdinal;
+        quantities[size] = quantity;
+        amountsCents[size] = amountCents;
+        size++;
+    }
+
+    /**
+     * Appends the first count sales of the given columns, growing the log at most once.
+     * @param productOrdinals ordinals of the products sold
+     * @param quantities      units sold
+     * @param amountsCents    sale amounts in cents
+     * @param count           number of sales to append
+     */
+    void appendAll(int[] productOrdinals, int[] quantities, long[] amountsCents, int count) {
+        ensureCapacity(size + count);
+        System.arraycopy(productOrdinals, 0, this.productOrdinals, size, count);
+        System.arraycopy(quantities, 0, this.quantities, size, count);
+        System.arraycopy(amountsCents, 0, this.amountsCents, size, count);
+        size += count;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > quantities.length) {
+            int capacity = Math.max(needed, Math.max(16, size + (size >> 1)));
+            productOrdinals = Arrays.copyOf(productOrdinals, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            amountsCents = Arrays.copyOf(amountsCents, capacity);
+        }
+    }
+
+    /** @return number of sales recorded */
+    int size() {
+        return size;
+    }
+
+    /** @return true if no sales have been recorded */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index sale position, 0 = first sale
+     * @return ordinal of the product sold
+     */
+    int productOrdinal(int index) {
+        checkIndex(index);
+        return productOrdinals[index];
+    }
+
+    /**
+     * @param index sale position, 0 = first sale
+     * @return units sold
+     */
+    int quantity(int index) {
+        checkIndex(index);
+        return quantities[index];
+    }
+
+    /**
+     * @param index sale position, 0 = first sale
+     * @return sale amount in cents
+     */
+    long amountCents(int index) {
+        checkIndex(index);
+        return amountsCents[index];
+    }
+
+    /**
+     * Visits every sale in the order recorded.
+     * @param visitor receives each sale
+     */
+    void forEach(SaleVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(productOrdinals[i], quantities[i], amountsCents[i]);
+        }
+    }
+
+    /** @return sum of all sale amounts in cents */
+    long totalAmountCents() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += amountsCents[i];
+        }
+        return total;
+    }
+
+    /** @return sum of all quantities sold */
+    long totalQuantity() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += quantities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Sums units sold per product ordinal.
+     * @param ordinalCount one past the highest ordinal that may appear
+     * @return array indexed by ordinal holding total units sold
+     */
+    long[] quantityByProduct(int ordinalCount) {
+        long[] totals = new long[ordinalCount];
+        for (int i = 0; i < size; i++) {
+            totals[productOrdinals[i]] += quantities[i];
+        }
+        return totals;
+    }
+
+    /**
+     * Removes every sale, keeping the allocated arrays for reuse.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Sale " + index + " out of range for size " + size);
+        }
+    }
+}
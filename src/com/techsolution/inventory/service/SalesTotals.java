@@ -0,0 +1,8 @@
+package com.techsolution.inventory.service;
+
+/**
+ * Units sold and revenue over some period, from the sales history.
+ * @param units        units sold
+ * @param revenueCents revenue in cents
+ */
+public record SalesTotals(long units, long revenueCents) {}
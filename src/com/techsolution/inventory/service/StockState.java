@@ -0,0 +1,27 @@
+package com.techsolution.inventory.service;
+
+import com.techsolution.inventory.model.Product;
+
+/**
+ * Stock level classification of a product, used by the stock-state bitmap index.
+ */
+public enum StockState {
+    /** No units in stock. */
+    OUT_OF_STOCK,
+    /** Some units in stock, but fewer than the reorder level. */
+    BELOW_REORDER,
+    /** At or above the reorder level. */
+    IN_STOCK;
+
+    /**
+     * Classifies a product's current quantity.
+     * @param p the product
+     * @return its stock state
+     */
+    public static StockState of(Product p) {
+        if (p.getQuantity() <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return p.getQuantity() < p.getReorderLevel() ? BELOW_REORDER : IN_STOCK;
+    }
+}
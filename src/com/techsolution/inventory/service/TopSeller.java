@@ -0,0 +1,9 @@
+package com.techsolution.inventory.service;
+
+/**
+ * A product's units sold so far today, as returned by InventoryService.getTopSellers.
+ * @param productId    the product
+ * @param units        units sold (an upper bound when tracking approximately)
+ * @param maxOvercount how far units may exceed the true total (0 when tracking exactly)
+ */
+public record TopSeller(String productId, long units, long maxOvercount) {}
@@ -0,0 +1,81 @@
+package com.techsolution.inventory.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers straight from ASCII/UTF-8 byte ranges, without creating Strings.
+ * Used by the bulk CSV importer and the batch command reader, where numbers are read
+ * millions of times per run. Surrounding spaces are ignored.
+ */
+public final class AsciiNumbers {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private AsciiNumbers() {
+    }
+
+    /**
+     * Parses a non-negative decimal integer, ignoring surrounding spaces.
+     * @param buf  bytes holding the number
+     * @param from index of the first byte
+     * @param to   index just past the last byte
+     * @return the value, or -1 if the field is not a valid number
+     */
+    public static long parseLong(byte[] buf, int from, int to) {
+        while (from < to && buf[from] == ' ') from++;
+        while (to > from && buf[to - 1] == ' ') to--;
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    /**
+     * Parses a plain decimal such as "12.99" without creating a String: ASCII digits with at
+     * most one decimal point. Signs, exponents, type suffixes, hex, Infinity and NaN are
+     * rejected. The digits are gathered into an exact long and divided once by a power of ten,
+     * which is correctly rounded while both fit in a double exactly; longer numbers are
+     * validated here and then converted by Double.parseDouble.
+     * @param buf  bytes holding the number
+     * @param from index of the first byte
+     * @param to   index just past the last byte
+     * @return the value, or NaN if the field is not a valid number
+     */
+    public static double parseDecimal(byte[] buf, int from, int to) {
+        while (from < to && buf[from] == ' ') from++;
+        while (to > from && buf[to - 1] == ' ') to--;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1; // Digits after the point, or -1 before one is seen
+        for (int i = from; i < to; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.NaN; // Sign, exponent, suffix or garbage
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (digits <= 15) {
+            return scale <= 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        }
+        // Too many digits to be exact in a long: the syntax is already checked
+        double v = Double.parseDouble(new String(buf, from, to - from, StandardCharsets.US_ASCII));
+        return Double.isFinite(v) ? v : Double.NaN;
+    }
+}